@@ -0,0 +1,107 @@
+package com.foodtruck.benchmarks;
+
+import com.foodtruck.entities.Location;
+import com.foodtruck.entities.Schedule;
+import com.foodtruck.entities.Truck;
+import com.foodtruck.persistence.GenericDao;
+import com.foodtruck.persistence.SessionFactoryProvider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Creates the schema in the in-memory database and fills it with generated trucks, locations and
+ * schedule entries, at a scale each benchmark chooses.
+ * <p>
+ * JMH runs each benchmark and parameter combination in its own JVM, so every trial starts from an
+ * empty database.
+ */
+public final class BenchmarkDatabase {
+
+    /** Food types the generated trucks are spread over */
+    public static final String[] FOOD_TYPES = {"Burgers", "Tacos", "Asian", "BBQ", "Desserts"};
+
+    /** Schedule entries generated per truck */
+    public static final int SCHEDULES_PER_TRUCK = 4;
+
+    /** First date of the generated schedule entries */
+    public static final LocalDate FIRST_DATE = LocalDate.of(2026, 5, 1);
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Recreates the tables with cleanDB.sql, then inserts the given number of trucks, one location
+     * per ten trucks and {@value #SCHEDULES_PER_TRUCK} schedule entries per truck, through GenericDao.
+     *
+     * @param trucks The number of trucks to insert
+     */
+    public static void seed(int trucks) {
+        runScript("cleanDB.sql");
+
+        // The script bypassed Hibernate, so drop anything it cached from the seed rows
+        SessionFactoryProvider.getSessionFactory().getCache().evictAllRegions();
+
+        List<Truck> truckRows = new ArrayList<>();
+        for (int i = 1; i <= trucks; i++) {
+            truckRows.add(new Truck("Truck " + i, FOOD_TYPES[i % FOOD_TYPES.length]));
+        }
+        new GenericDao<>(Truck.class).insertAll(truckRows);
+
+        List<Location> locationRows = new ArrayList<>();
+        for (int i = 1; i <= Math.max(1, trucks / 10); i++) {
+            locationRows.add(new Location("Location " + i, (100 + i) + " Main St", "WI", 53703, "USA",
+                    43.07 + (i % 100) * 1e-3, -89.40 - (i / 100) * 1e-3));
+        }
+        new GenericDao<>(Location.class).insertAll(locationRows);
+
+        List<Schedule> scheduleRows = new ArrayList<>();
+        for (int i = 0; i < truckRows.size(); i++) {
+            for (int j = 0; j < SCHEDULES_PER_TRUCK; j++) {
+                LocalDate date = FIRST_DATE.plusDays((i + j * 7L) % 90);
+                scheduleRows.add(new Schedule(truckRows.get(i), locationRows.get((i + j) % locationRows.size()),
+                        date.getDayOfWeek().toString(), date, LocalTime.of(8 + j * 3, 0), LocalTime.of(10 + j * 3, 0)));
+            }
+        }
+        new GenericDao<>(Schedule.class).insertAll(scheduleRows);
+    }
+
+    /**
+     * Runs a SQL script from the classpath, one statement per semicolon.
+     *
+     * @param script The script's resource name
+     */
+    static void runScript(String script) {
+        Properties properties = new Properties();
+        String sql;
+        try (InputStream config = BenchmarkDatabase.class.getResourceAsStream("/hibernate.properties");
+             InputStream in = BenchmarkDatabase.class.getResourceAsStream("/" + script)) {
+            properties.load(config);
+            sql = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read " + script, e);
+        }
+
+        try (Connection connection = DriverManager.getConnection(
+                properties.getProperty("hibernate.connection.url"),
+                properties.getProperty("hibernate.connection.username"),
+                properties.getProperty("hibernate.connection.password"));
+             Statement statement = connection.createStatement()) {
+            for (String part : sql.split(";")) {
+                if (!part.isBlank()) statement.executeUpdate(part.trim());
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot run " + script, e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.foodtruck.benchmarks;
+
+import com.foodtruck.entities.Truck;
+import com.foodtruck.persistence.GenericDao;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link GenericDao} reads and writes on trucks, against a database seeded with {@link #trucks} trucks.
+ * <p>
+ * {@code getById} is mostly answered from the second-level cache once every id has been read, as in
+ * production; {@code getAll} and {@code getByPropertyEqual} always query. {@code insert} grows the
+ * table as it runs, so compare it between builds at the same settings only.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DaoBenchmark {
+
+    /** Number of trucks in the database */
+    @Param({"1000", "10000"})
+    public int trucks;
+
+    private GenericDao<Truck> truckDao;
+
+    @Setup(Level.Trial)
+    public void seed() {
+        BenchmarkDatabase.seed(trucks);
+        truckDao = new GenericDao<>(Truck.class);
+    }
+
+    @Benchmark
+    public Truck getById() {
+        return truckDao.getById(ThreadLocalRandom.current().nextInt(1, trucks + 1));
+    }
+
+    @Benchmark
+    public List<Truck> getAll() {
+        return truckDao.getAll();
+    }
+
+    @Benchmark
+    public List<Truck> getByPropertyEqual() {
+        String[] foodTypes = BenchmarkDatabase.FOOD_TYPES;
+        return truckDao.getByPropertyEqual("foodType", foodTypes[ThreadLocalRandom.current().nextInt(foodTypes.length)]);
+    }
+
+    @Benchmark
+    public int insert() {
+        return truckDao.insert(new Truck("Benchmark truck", "Tacos"));
+    }
+}
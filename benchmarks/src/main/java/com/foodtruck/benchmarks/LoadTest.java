@@ -0,0 +1,355 @@
+package com.foodtruck.benchmarks;
+
+import com.foodtruck.app.SwaggerConfig;
+import com.foodtruck.app.VirtualThreadRequests;
+import com.foodtruck.app.Warmup;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.grizzly.threadpool.ThreadPoolConfig;
+import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Load test of the whole API over HTTP: Jersey, its filters, the connection pool and the database
+ * together, which the JMH suites measure only one layer at a time.
+ * <p>
+ * The {@link SwaggerConfig} application runs in an embedded Grizzly server with 200 worker threads,
+ * like Tomcat's default, against the in-memory database seeded by {@link BenchmarkDatabase}. Requests
+ * are sent at a constant rate whatever the response times (an open model, like real users), each
+ * picked from a weighted mix of list, by-id and write endpoints. Latency is measured from when a
+ * request was due to be sent, not when it went out, so a stalled server shows up as the queueing
+ * delay its users would see rather than being hidden by a client that slowed down with it.
+ * <p>
+ * After a warm-up phase whose results are thrown away, the measured phase is reported per endpoint:
+ * throughput, errors and p50/p99/p99.9/max latency, printed and written to {@code summary.csv} in
+ * the report directory, along with the full HdrHistogram percentile distribution of each endpoint
+ * ({@code <endpoint>.hgrm}). With fewer than 1,000 requests an endpoint's p99.9 is just its slowest
+ * request, which the report points out. {@code compare=<before>,<after>} prints the change between two reports.
+ * <pre>
+ * mvn -f benchmarks/pom.xml package
+ * java -cp benchmarks/target/benchmarks.jar com.foodtruck.benchmarks.LoadTest rate=1000 seconds=60 report=load/before
+ * java -cp benchmarks/target/benchmarks.jar com.foodtruck.benchmarks.LoadTest compare=load/before,load/after
+ * </pre>
+ * Settings, as key=value arguments: {@code rate} (requests/second, default 500), {@code seconds}
+ * (measured, default 60), {@code warmup} (seconds, default 15), {@code trucks} (default 1000),
+ * {@code mix} (weights, default {@value #DEFAULT_MIX}), {@code virtualThreads} (true to run the
+ * endpoints on virtual threads with {@link VirtualThreadRequests}, default false) and {@code report}
+ * (directory, default {@code load-report}).
+ * <p>
+ * The client runs in the same JVM as the server, so on a machine without spare cores a high rate
+ * measures the two competing for CPU; find the rate where p99 starts to climb and compare builds below it.
+ */
+public class LoadTest {
+
+    /** Default weights of the endpoints in the mix */
+    static final String DEFAULT_MIX = "trucks=30,truckById=30,schedule=30,addTruck=5,addSchedule=5";
+
+    private static final URI BASE = URI.create("http://localhost:18081/api/");
+    private static final int CONTAINER_THREADS = 200;
+
+    /** Latencies above this are recorded as this */
+    private static final long HIGHEST_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    /** Below this many requests an endpoint's p99.9 is simply its slowest request */
+    private static final int MIN_P999_REQUESTS = 1000;
+
+    /** Columns of summary.csv */
+    private static final String CSV_HEADER = "endpoint,requests,requestsPerSecond,errors,p50Ms,p99Ms,p999Ms,maxMs";
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> settings = settings(args);
+        if (settings.containsKey("compare")) {
+            String[] reports = settings.get("compare").split(",");
+            compare(Path.of(reports[0]), Path.of(reports[1]));
+            return;
+        }
+
+        int rate = Integer.parseInt(settings.getOrDefault("rate", "500"));
+        int seconds = Integer.parseInt(settings.getOrDefault("seconds", "60"));
+        int warmup = Integer.parseInt(settings.getOrDefault("warmup", "15"));
+        int trucks = Integer.parseInt(settings.getOrDefault("trucks", "1000"));
+        boolean virtualThreads = Boolean.parseBoolean(settings.getOrDefault("virtualThreads", "false"));
+        Path report = Path.of(settings.getOrDefault("report", "load-report"));
+        List<Endpoint> mix = mix(settings.getOrDefault("mix", DEFAULT_MIX), trucks);
+
+        BenchmarkDatabase.seed(trucks);
+        HttpServer server = start(virtualThreads);
+        try {
+            while (!Warmup.isReady()) {
+                Thread.sleep(50);
+            }
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(30)).build();
+
+            System.out.printf("Warming up for %d s at %d requests/s%n", warmup, rate);
+            drive(client, mix, rate, warmup);
+            for (Endpoint endpoint : mix) endpoint.reset();
+
+            System.out.printf("Measuring for %d s at %d requests/s%n", seconds, rate);
+            drive(client, mix, rate, seconds);
+            write(mix, seconds, report);
+        } finally {
+            server.shutdownNow();
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Starts the API with a fixed pool of container threads.
+     *
+     * @param virtualThreads Whether the endpoints run on virtual threads instead of the container threads
+     */
+    private static HttpServer start(boolean virtualThreads) throws IOException {
+        SwaggerConfig config = new SwaggerConfig();
+        config.property(VirtualThreadRequests.ENABLED, virtualThreads);
+        HttpServer server = GrizzlyHttpServerFactory.createHttpServer(BASE, config, false);
+        server.getListener("grizzly").getTransport().setWorkerThreadPoolConfig(ThreadPoolConfig.defaultConfig()
+                .setCorePoolSize(CONTAINER_THREADS)
+                .setMaxPoolSize(CONTAINER_THREADS)
+                .setQueueLimit(-1));
+        server.start();
+        return server;
+    }
+
+    /**
+     * Sends requests at a constant rate for a while, each on its own virtual thread, and waits for
+     * the last of them to complete.
+     *
+     * @param rate    Requests per second
+     * @param seconds How long to send for
+     */
+    private static void drive(HttpClient client, List<Endpoint> mix, int rate, int seconds) throws InterruptedException {
+        int totalWeight = mix.stream().mapToInt(endpoint -> endpoint.weight).sum();
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long requests = (long) rate * seconds;
+        long start = System.nanoTime();
+        ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+        for (long i = 0; i < requests; i++) {
+            long due = start + i * interval;
+            long wait;
+            while ((wait = due - System.nanoTime()) > 0) LockSupport.parkNanos(wait);
+            Endpoint endpoint = pick(mix, totalWeight);
+            threads.execute(() -> endpoint.send(client, due));
+        }
+        threads.shutdown();
+        threads.awaitTermination(5, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Picks an endpoint at random, in proportion to its weight.
+     */
+    private static Endpoint pick(List<Endpoint> mix, int totalWeight) {
+        int ticket = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Endpoint endpoint : mix) {
+            ticket -= endpoint.weight;
+            if (ticket < 0) return endpoint;
+        }
+        return mix.get(mix.size() - 1);
+    }
+
+    /**
+     * Prints the results of the measured phase and writes them to the report directory.
+     */
+    private static void write(List<Endpoint> mix, int seconds, Path report) throws IOException {
+        Files.createDirectories(report);
+        List<String> csv = new ArrayList<>();
+        csv.add(CSV_HEADER);
+        Histogram all = new Histogram(HIGHEST_NANOS, 3);
+        long allErrors = 0;
+        List<String> few = new ArrayList<>();
+
+        System.out.printf("%-12s %10s %10s %8s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "req/s", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Endpoint endpoint : mix) {
+            Histogram latencies = endpoint.latencies.getIntervalHistogram();
+            long errors = endpoint.errors.sum();
+            csv.add(row(endpoint.name, latencies, errors, seconds));
+            try (PrintStream out = new PrintStream(Files.newOutputStream(report.resolve(endpoint.name + ".hgrm")))) {
+                latencies.outputPercentileDistribution(out, 1e6);
+            }
+            all.add(latencies);
+            allErrors += errors;
+            if (latencies.getTotalCount() < MIN_P999_REQUESTS) few.add(endpoint.name);
+        }
+        csv.add(row("all", all, allErrors, seconds));
+        if (all.getTotalCount() < MIN_P999_REQUESTS) few.add("all");
+        try (PrintStream out = new PrintStream(Files.newOutputStream(report.resolve("all.hgrm")))) {
+            all.outputPercentileDistribution(out, 1e6);
+        }
+        Files.write(report.resolve("summary.csv"), csv);
+        if (!few.isEmpty()) {
+            System.out.printf("Fewer than %,d requests to %s: p99.9 is the max; measure for longer or at a higher rate%n",
+                    MIN_P999_REQUESTS, String.join(", ", few));
+        }
+        System.out.println("Report written to " + report.toAbsolutePath());
+    }
+
+    /**
+     * Prints one endpoint's results and returns them as a summary.csv row.
+     */
+    private static String row(String name, Histogram latencies, long errors, int seconds) {
+        long requests = latencies.getTotalCount();
+        double perSecond = (double) requests / seconds;
+        double p50 = latencies.getValueAtPercentile(50) / 1e6;
+        double p99 = latencies.getValueAtPercentile(99) / 1e6;
+        double p999 = latencies.getValueAtPercentile(99.9) / 1e6;
+        double max = latencies.getMaxValue() / 1e6;
+        System.out.printf("%-12s %,10d %,10.1f %,8d %,10.2f %,10.2f %,10.2f %,10.2f%n",
+                name, requests, perSecond, errors, p50, p99, p999, max);
+        return String.format(Locale.ROOT, "%s,%d,%.1f,%d,%.3f,%.3f,%.3f,%.3f", name, requests, perSecond, errors, p50, p99, p999, max);
+    }
+
+    /**
+     * Prints each endpoint's throughput and latency percentiles in two reports, and the change.
+     *
+     * @param before The earlier report directory
+     * @param after  The later report directory
+     */
+    private static void compare(Path before, Path after) throws IOException {
+        Map<String, String[]> earlier = new HashMap<>();
+        for (String line : Files.readAllLines(before.resolve("summary.csv"))) {
+            String[] columns = line.split(",");
+            earlier.put(columns[0], columns);
+        }
+        String[] header = CSV_HEADER.split(",");
+        System.out.printf("%-12s %-18s %12s %12s %9s%n", "endpoint", "metric", "before", "after", "change");
+        for (String line : Files.readAllLines(after.resolve("summary.csv"))) {
+            String[] columns = line.split(",");
+            String[] old = earlier.get(columns[0]);
+            if (old == null || columns[0].equals("endpoint")) continue;
+            for (int i = 2; i < header.length; i++) {
+                double from = Double.parseDouble(old[i]);
+                double to = Double.parseDouble(columns[i]);
+                String change = from == 0 ? "" : String.format("%+.1f%%", (to - from) * 100 / from);
+                System.out.printf("%-12s %-18s %,12.2f %,12.2f %9s%n", columns[0], header[i], from, to, change);
+            }
+        }
+    }
+
+    /**
+     * Reads key=value arguments.
+     */
+    private static Map<String, String> settings(String[] args) {
+        Map<String, String> settings = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals < 1) throw new IllegalArgumentException("Expected key=value, got " + arg);
+            settings.put(arg.substring(0, equals), arg.substring(equals + 1));
+        }
+        return settings;
+    }
+
+    /**
+     * Builds the endpoints of a mix like {@value #DEFAULT_MIX}, leaving out those with weight 0.
+     *
+     * @param weights Endpoint names and weights
+     * @param trucks  The number of seeded trucks, for picking ids
+     */
+    static List<Endpoint> mix(String weights, int trucks) {
+        int locations = Math.max(1, trucks / 10);
+        Map<String, Function<ThreadLocalRandom, HttpRequest>> requests = new LinkedHashMap<>();
+        requests.put("trucks", random -> get("trucks"));
+        requests.put("truckById", random -> get("trucks/" + random.nextInt(1, trucks + 1)));
+        requests.put("schedule", random -> get("schedule?date=" + BenchmarkDatabase.FIRST_DATE.plusDays(random.nextInt(90))));
+        requests.put("addTruck", random -> post("trucks", "{\"name\":\"Load truck\",\"foodType\":\"Tacos\"}"));
+        requests.put("addSchedule", random -> {
+            LocalDate date = BenchmarkDatabase.FIRST_DATE.plusDays(random.nextInt(90));
+            return post("schedule", "{\"truck\":{\"id\":" + random.nextInt(1, trucks + 1) + "},"
+                    + "\"location\":{\"id\":" + random.nextInt(1, locations + 1) + "},"
+                    + "\"dayOfWeek\":\"" + date.getDayOfWeek() + "\",\"date\":\"" + date + "\","
+                    + "\"startTime\":\"08:00\",\"endTime\":\"16:00\"}");
+        });
+
+        List<Endpoint> mix = new ArrayList<>();
+        for (String part : weights.split(",")) {
+            String[] pair = part.trim().split("=");
+            Function<ThreadLocalRandom, HttpRequest> request = requests.get(pair[0]);
+            if (request == null) throw new IllegalArgumentException("Unknown endpoint " + pair[0] + ", expected one of " + requests.keySet());
+            int weight = Integer.parseInt(pair[1]);
+            if (weight > 0) mix.add(new Endpoint(pair[0], weight, request));
+        }
+        if (mix.isEmpty()) throw new IllegalArgumentException("The mix has no endpoints");
+        return mix;
+    }
+
+    private static HttpRequest get(String path) {
+        return HttpRequest.newBuilder(BASE.resolve(path)).GET().build();
+    }
+
+    private static HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(BASE.resolve(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    /**
+     * One endpoint in the mix, with the latencies and errors of the requests sent to it.
+     */
+    static class Endpoint {
+        private final String name;
+        private final int weight;
+        private final Function<ThreadLocalRandom, HttpRequest> request;
+
+        /** Written by many threads without locking; read and reset as a whole at the end of a phase */
+        private final Recorder latencies = new Recorder(HIGHEST_NANOS, 3);
+        private final LongAdder errors = new LongAdder();
+
+        Endpoint(String name, int weight, Function<ThreadLocalRandom, HttpRequest> request) {
+            this.name = name;
+            this.weight = weight;
+            this.request = request;
+        }
+
+        /**
+         * Sends one request and records its latency from when it was due.
+         *
+         * @param due When the request should have been sent, from System.nanoTime()
+         */
+        void send(HttpClient client, long due) {
+            try {
+                HttpResponse<Void> response = client.send(request.apply(ThreadLocalRandom.current()),
+                        HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() >= 400) errors.increment();
+            } catch (IOException e) {
+                errors.increment();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            latencies.recordValue(Math.min(System.nanoTime() - due, HIGHEST_NANOS));
+        }
+
+        /**
+         * Forgets the latencies and errors recorded so far.
+         */
+        void reset() {
+            latencies.reset();
+            errors.reset();
+        }
+    }
+}
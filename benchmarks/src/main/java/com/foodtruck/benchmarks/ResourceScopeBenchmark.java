@@ -0,0 +1,76 @@
+package com.foodtruck.benchmarks;
+
+import com.foodtruck.app.DaoBinder;
+import com.foodtruck.app.Service;
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.ws.rs.Path;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of the {@link Service} resource's scope: a singleton built once with shared DAOs (today's
+ * setup) against a new Service, with its own DAOs, built for every request (the old per-request scope).
+ * <p>
+ * Requests go through Jersey in process. Both paths are answered from kept bodies after the first
+ * request, so what differs is the per-request overhead; run with {@code -prof gc} to see the bytes
+ * allocated per request ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResourceScopeBenchmark {
+
+    private static final URI BASE = URI.create("http://localhost/api/");
+
+    /** singleton or perRequest */
+    @Param({"singleton", "perRequest"})
+    public String scope;
+
+    /** The request, under the application root */
+    @Param({"trucks/1", "schedule?limit=50"})
+    public String path;
+
+    private ApplicationHandler handler;
+
+    @Setup(Level.Trial)
+    public void start() {
+        BenchmarkDatabase.seed(100);
+        handler = new ApplicationHandler(scope.equals("perRequest")
+                ? new ResourceConfig(PerRequestService.class)
+                : new ResourceConfig(Service.class).register(new DaoBinder()));
+    }
+
+    @Benchmark
+    public int get() throws Exception {
+        ContainerRequest request = new ContainerRequest(BASE, BASE.resolve(path), "GET", null,
+                new MapPropertiesDelegate());
+        return handler.apply(request, OutputStream.nullOutputStream()).get(10, TimeUnit.SECONDS).getStatus();
+    }
+
+    /**
+     * The service in the old per-request scope: Jersey builds a new one, with new DAOs, for every request.
+     */
+    @Path("/")
+    public static class PerRequestService extends Service {
+    }
+}
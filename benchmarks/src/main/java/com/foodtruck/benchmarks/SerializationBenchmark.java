@@ -0,0 +1,110 @@
+package com.foodtruck.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.foodtruck.entities.Location;
+import com.foodtruck.entities.Schedule;
+import com.foodtruck.entities.Truck;
+import com.foodtruck.json.DataFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of {@link Truck} and {@link Schedule} lists with the application's mappers,
+ * in each {@link DataFormat}, and reading the encoded lists back into a tree the way a client would.
+ * The lists are built in memory, so no database is used.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    /** Number of entities in each list */
+    @Param({"50", "500"})
+    public int rows;
+
+    /** The format to write */
+    @Param({"JSON", "CBOR", "SMILE", "MSGPACK"})
+    public DataFormat format;
+
+    private List<Truck> trucks;
+    private List<Schedule> schedules;
+    private ObjectWriter truckWriter;
+    private ObjectWriter scheduleWriter;
+    private ObjectMapper mapper;
+    private byte[] truckBytes;
+    private byte[] scheduleBytes;
+
+    @Setup(Level.Trial)
+    public void build() {
+        trucks = new ArrayList<>();
+        schedules = new ArrayList<>();
+        String[] foodTypes = BenchmarkDatabase.FOOD_TYPES;
+        for (int i = 1; i <= rows; i++) {
+            Truck truck = new Truck("Truck " + i, foodTypes[i % foodTypes.length]);
+            truck.setId(i);
+            trucks.add(truck);
+
+            Location location = new Location("Location " + i % 50, (100 + i) + " Main St", "WI", 53703, "USA",
+                    43.07 + i * 1e-4, -89.40 - i * 1e-4);
+            location.setId(i % 50 + 1);
+            LocalDate date = BenchmarkDatabase.FIRST_DATE.plusDays(i % 90);
+            Schedule schedule = new Schedule(truck, location, date.getDayOfWeek().toString(), date,
+                    LocalTime.of(8, 0), LocalTime.of(16, 0));
+            schedule.setId(i);
+            schedules.add(schedule);
+        }
+        truckWriter = format.getMapper().writerFor(new TypeReference<List<Truck>>() { });
+        scheduleWriter = format.getMapper().writerFor(new TypeReference<List<Schedule>>() { });
+        mapper = format.getMapper();
+        try {
+            truckBytes = trucks();
+            scheduleBytes = schedules();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Benchmark
+    public byte[] trucks() throws JsonProcessingException {
+        return truckWriter.writeValueAsBytes(trucks);
+    }
+
+    @Benchmark
+    public byte[] schedules() throws JsonProcessingException {
+        return scheduleWriter.writeValueAsBytes(schedules);
+    }
+
+    @Benchmark
+    public JsonNode readTrucks() throws IOException {
+        return mapper.readTree(truckBytes);
+    }
+
+    @Benchmark
+    public JsonNode readSchedules() throws IOException {
+        return mapper.readTree(scheduleBytes);
+    }
+}
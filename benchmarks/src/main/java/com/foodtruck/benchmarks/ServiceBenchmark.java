@@ -0,0 +1,94 @@
+package com.foodtruck.benchmarks;
+
+import com.foodtruck.app.Service;
+import com.foodtruck.app.SwaggerConfig;
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Service} endpoints called in process through Jersey's {@link ApplicationHandler}, so the
+ * resource method, content negotiation, the kept response bodies and the body writers are all
+ * measured, without a server or sockets. The application is {@link SwaggerConfig}, as deployed.
+ * <p>
+ * Bodies the service keeps between requests are kept here too, so the page endpoints mostly measure
+ * the cached path; {@code truckById} spreads over every id and {@code schedule} over 90 dates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+    private static final URI BASE = URI.create("http://localhost/api/");
+
+    /** Number of trucks in the database */
+    @Param({"1000"})
+    public int trucks;
+
+    private ApplicationHandler handler;
+
+    @Setup(Level.Trial)
+    public void start() throws InterruptedException {
+        BenchmarkDatabase.seed(trucks);
+        handler = new ApplicationHandler(new SwaggerConfig());
+
+        // Measure the warm application, not its warm-up running alongside
+        while (!com.foodtruck.app.Warmup.isReady()) {
+            Thread.sleep(50);
+        }
+    }
+
+    @Benchmark
+    public int trucksPage() throws Exception {
+        return get("trucks");
+    }
+
+    @Benchmark
+    public int truckById() throws Exception {
+        return get("trucks/" + ThreadLocalRandom.current().nextInt(1, trucks + 1));
+    }
+
+    @Benchmark
+    public int schedule() throws Exception {
+        LocalDate date = BenchmarkDatabase.FIRST_DATE.plusDays(ThreadLocalRandom.current().nextInt(90));
+        return get("schedule?date=" + date);
+    }
+
+    @Benchmark
+    public int trucksOpen() throws Exception {
+        return get("trucks/open?at=" + BenchmarkDatabase.FIRST_DATE + "T09:00");
+    }
+
+    /**
+     * Sends a GET request and throws the body away.
+     *
+     * @param path Path and query under the application root
+     * @return The response status
+     */
+    private int get(String path) throws Exception {
+        ContainerRequest request = new ContainerRequest(BASE, BASE.resolve(path), "GET", null,
+                new MapPropertiesDelegate());
+        return handler.apply(request, OutputStream.nullOutputStream()).get(10, TimeUnit.SECONDS).getStatus();
+    }
+}
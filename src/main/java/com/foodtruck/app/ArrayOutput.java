@@ -0,0 +1,57 @@
+package com.foodtruck.app;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.foodtruck.json.DataFormat;
+
+import javax.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * An array response body written one row at a time straight to the response stream,
+ * so neither the whole body nor, when the rows come from a database cursor, the whole list
+ * is ever held in memory.
+ * <p>
+ * The rows are produced when Jersey writes the body, after the endpoint has returned. A failure
+ * then can no longer change the status, which has been sent, so the response is cut short instead.
+ * <p>
+ * MessagePack writes the length of an array before its items, so Jackson's MessagePack generator
+ * keeps the array until it is closed; the other formats write each row as it comes.
+ *
+ * @param <T> The type of the rows
+ */
+public class ArrayOutput<T> implements StreamingOutput {
+
+    private final ObjectWriter writer;
+    private final Consumer<Consumer<T>> rows;
+
+    /**
+     * @param format The format to write in
+     * @param type   The class of the rows, whose shared writer serializes each of them
+     * @param rows   Produces the rows, handing each to the given action, e.g. {@code list::forEach}
+     */
+    public ArrayOutput(DataFormat format, Class<? super T> type, Consumer<Consumer<T>> rows) {
+        this.writer = format.writerFor(type);
+        this.rows = rows;
+    }
+
+    @Override
+    public void write(OutputStream out) throws IOException {
+        try (JsonGenerator generator = writer.getFactory().createGenerator(out)) {
+            generator.writeStartArray();
+            rows.accept(row -> {
+                try {
+                    writer.writeValue(generator, row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
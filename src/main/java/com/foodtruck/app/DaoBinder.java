@@ -0,0 +1,16 @@
+package com.foodtruck.app;
+
+import com.foodtruck.persistence.DaoRegistry;
+import org.glassfish.jersey.internal.inject.AbstractBinder;
+
+/**
+ * Binds one {@link DaoRegistry} for the whole application, so the singleton resources are built
+ * with the same DAOs.
+ */
+public class DaoBinder extends AbstractBinder {
+
+    @Override
+    protected void configure() {
+        bind(new DaoRegistry()).to(DaoRegistry.class);
+    }
+}
@@ -0,0 +1,47 @@
+package com.foodtruck.app;
+
+import com.foodtruck.metrics.MetricRegistry;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import javax.inject.Singleton;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.Response;
+
+/**
+ * Latency and error metrics of the HTTP endpoints and DAO operations, for Prometheus to scrape.
+ */
+@Singleton
+@Path("/metrics")
+@Tag(name = "Statistics", description = "Runtime statistics for the API")
+public class MetricsService {
+
+    /** Content type of the Prometheus text exposition format */
+    public static final String PROMETHEUS_TEXT = "text/plain; version=0.0.4; charset=utf-8";
+
+    /**
+     * Writes every metric in the Prometheus text format.
+     *
+     * @return The metrics with HTTP 200
+     */
+    @GET
+    @Produces(PROMETHEUS_TEXT)
+    @Operation(
+            summary = "Get Prometheus metrics",
+            description = "Returns request and DAO latency histograms and error counts in the Prometheus text format",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Metrics retrieved successfully")
+            }
+    )
+    public Response getMetrics() {
+        CacheControl noStore = new CacheControl();
+        noStore.setNoStore(true);
+        return Response.ok(MetricRegistry.getInstance().toPrometheus())
+                .cacheControl(noStore)
+                .build();
+    }
+}
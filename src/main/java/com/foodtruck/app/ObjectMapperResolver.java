@@ -0,0 +1,20 @@
+package com.foodtruck.app;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodtruck.json.DataFormat;
+
+import javax.ws.rs.ext.ContextResolver;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Gives Jersey's Jackson provider the shared JSON mapper of {@link DataFormat}, so entities returned
+ * by the endpoints are written with the same configuration and serializer caches as streamed lists.
+ */
+@Provider
+public class ObjectMapperResolver implements ContextResolver<ObjectMapper> {
+
+    @Override
+    public ObjectMapper getContext(Class<?> type) {
+        return DataFormat.JSON.getMapper();
+    }
+}
@@ -0,0 +1,48 @@
+package com.foodtruck.app;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import javax.inject.Singleton;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+/**
+ * Readiness check for load balancers: a node only takes traffic once {@link Warmup} has finished.
+ */
+@Singleton
+@Path("/ready")
+@Tag(name = "Statistics", description = "Runtime statistics for the API")
+public class ReadinessService {
+
+    /**
+     * Reports whether this node has warmed up.
+     *
+     * @return HTTP 200 once warm, HTTP 503 while warming up
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(
+            summary = "Check readiness",
+            description = "Returns 200 once the database pool, caches and indexes are warm, 503 until then",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Ready for traffic"),
+                    @ApiResponse(responseCode = "503", description = "Still warming up")
+            }
+    )
+    public Response ready() {
+        CacheControl noStore = new CacheControl();
+        noStore.setNoStore(true);
+        boolean ready = Warmup.isReady();
+        return Response.status(ready ? Response.Status.OK : Response.Status.SERVICE_UNAVAILABLE)
+                .entity("{\"ready\":" + ready + "}")
+                .type(MediaType.APPLICATION_JSON)
+                .cacheControl(noStore)
+                .build();
+    }
+}
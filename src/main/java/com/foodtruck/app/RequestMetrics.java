@@ -0,0 +1,81 @@
+package com.foodtruck.app;
+
+import com.foodtruck.metrics.MetricRegistry;
+import com.foodtruck.metrics.Timer;
+import org.glassfish.jersey.server.ContainerResponse;
+import org.glassfish.jersey.server.model.Resource;
+import org.glassfish.jersey.server.model.ResourceMethod;
+import org.glassfish.jersey.server.monitoring.ApplicationEvent;
+import org.glassfish.jersey.server.monitoring.ApplicationEventListener;
+import org.glassfish.jersey.server.monitoring.RequestEvent;
+import org.glassfish.jersey.server.monitoring.RequestEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times every request into the {@link MetricRegistry} as {@code foodtruck_http_request}, labelled with
+ * the HTTP method and the path template of the resource method that answered, e.g. /trucks/{id}, so
+ * all ids share one series. Requests no resource method matched are counted under path "unmatched".
+ * <p>
+ * A request is timed until Jersey reports it finished, which is after the body has been written:
+ * most endpoints stream their rows while the body is written, after response filters have run.
+ * It counts as an error when it answered with a 5xx status, failed before there was a response, or
+ * failed while its body was written, e.g. a database error mid-stream after the 200 status went out;
+ * a 404 for a missing truck is an answer, not an error.
+ */
+public class RequestMetrics implements ApplicationEventListener {
+
+    /** Name of the metric family */
+    public static final String NAME = "foodtruck_http_request";
+
+    private static final String HELP = "Time spent answering HTTP requests";
+
+    /** Timer of each resource method, so a request only looks its timer up once it has one */
+    private final Map<ResourceMethod, Timer> timers = new ConcurrentHashMap<>();
+
+    private final Timer unmatched = timer("*", "unmatched");
+
+    @Override
+    public void onEvent(ApplicationEvent event) {
+        // Nothing to do at the application level
+    }
+
+    @Override
+    public RequestEventListener onRequest(RequestEvent requestEvent) {
+        long start = System.nanoTime();
+        return event -> {
+            if (event.getType() != RequestEvent.Type.FINISHED) return;
+            ResourceMethod method = event.getUriInfo().getMatchedResourceMethod();
+            Timer timer = method == null ? unmatched
+                    : timers.computeIfAbsent(method, m -> timer(m.getHttpMethod(), template(m)));
+            ContainerResponse response = event.getContainerResponse();
+            // Jersey calls any status outside 2xx unsuccessful, so judge by the status itself; a streamed
+            // body that threw after a 200 went out leaves the exception and an unwritten response
+            boolean failed = response == null || response.getStatus() >= 500
+                    || event.getException() != null && !event.isResponseWritten();
+            timer.record(System.nanoTime() - start, failed);
+        };
+    }
+
+    /**
+     * Builds the full path template of a resource method from the paths of its resource and their parents.
+     *
+     * @param method The resource method
+     * @return The template, e.g. /trucks/{id}
+     */
+    static String template(ResourceMethod method) {
+        StringBuilder path = new StringBuilder();
+        for (Resource resource = method.getParent(); resource != null; resource = resource.getParent()) {
+            String part = resource.getPath();
+            if (part != null && !part.isEmpty()) path.insert(0, part.startsWith("/") ? part : "/" + part);
+        }
+        String template = path.toString().replaceAll("/{2,}", "/");
+        if (template.length() > 1 && template.endsWith("/")) template = template.substring(0, template.length() - 1);
+        return template.isEmpty() ? "/" : template;
+    }
+
+    private static Timer timer(String method, String path) {
+        return MetricRegistry.getInstance().timer(NAME, HELP, "method", method, "path", path);
+    }
+}
@@ -0,0 +1,374 @@
+package com.foodtruck.app;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.annotation.Priority;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.Configuration;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Feature;
+import javax.ws.rs.core.FeatureContext;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses response bodies with gzip or deflate when the client's Accept-Encoding allows it.
+ * Bodies are compressed while they are written, so streamed bodies are never held in memory whole;
+ * bodies shorter than {@value #MIN_SIZE} bytes (default {@value #DEFAULT_MIN_SIZE}) are sent as they are.
+ * <p>
+ * Responses with an ETag are cacheable, so their compressed bytes are kept, up to {@value #CACHE_BYTES}
+ * bytes in total (default {@value #DEFAULT_CACHE_BYTES}), and sent again without compressing while the
+ * ETag is unchanged. A compressed response is a different representation, so its ETag gets the coding
+ * as a suffix ("...-gzip"); the suffix is removed from If-None-Match before the endpoint compares tags.
+ */
+public class ResponseCompression implements Feature {
+
+    /** Property holding the smallest body, in bytes, that is compressed */
+    public static final String MIN_SIZE = "foodtruck.compression.minSize";
+
+    /** Property holding the most compressed bytes kept for reuse */
+    public static final String CACHE_BYTES = "foodtruck.compression.cacheBytes";
+
+    /** Smallest body compressed when the property is absent; below about 1 KB gzip saves little */
+    static final int DEFAULT_MIN_SIZE = 1024;
+
+    /** Compressed bytes kept when the property is absent */
+    static final long DEFAULT_CACHE_BYTES = 16L * 1024 * 1024;
+
+    private static final String GZIP = "gzip";
+    private static final String DEFLATE = "deflate";
+
+    @Override
+    public boolean configure(FeatureContext context) {
+        Configuration configuration = context.getConfiguration();
+        context.register(new Filter(
+                (int) property(configuration, MIN_SIZE, DEFAULT_MIN_SIZE),
+                property(configuration, CACHE_BYTES, DEFAULT_CACHE_BYTES)));
+        return true;
+    }
+
+    private static long property(Configuration configuration, String name, long defaultValue) {
+        Object value = configuration.getProperty(name);
+        return value == null ? defaultValue : Long.parseLong(value.toString().trim());
+    }
+
+    /**
+     * Picks the coding to use from an Accept-Encoding header.
+     *
+     * @param acceptEncoding The header value, or null
+     * @return "gzip", "deflate", or null to send the body uncompressed
+     */
+    static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) return null;
+        double gzip = -1;
+        double deflate = -1;
+        double any = -1;
+        for (String part : acceptEncoding.split(",")) {
+            String[] pieces = part.trim().split(";");
+            String coding = pieces[0].trim().toLowerCase();
+            double quality = 1;
+            for (int i = 1; i < pieces.length; i++) {
+                String parameter = pieces[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (coding.equals(GZIP) || coding.equals("x-gzip")) gzip = quality;
+            else if (coding.equals(DEFLATE)) deflate = quality;
+            else if (coding.equals("*")) any = quality;
+        }
+        if (gzip < 0) gzip = any;
+        if (deflate < 0) deflate = any;
+        if (gzip <= 0 && deflate <= 0) return null;
+        return gzip >= deflate ? GZIP : DEFLATE;
+    }
+
+    /**
+     * Does the compression: removes coding suffixes from If-None-Match on the way in, picks the coding
+     * (or a body compressed before) once the response is known, and compresses the body as it is written.
+     */
+    @Priority(Priorities.ENTITY_CODER)
+    static class Filter implements ContainerRequestFilter, ContainerResponseFilter, WriterInterceptor {
+
+        /** Request property holding the coding suffix removed from If-None-Match */
+        private static final String REQUESTED_CODING = ResponseCompression.class.getName() + ".coding";
+
+        /** Request property holding the {@link Pending} compression of the response body */
+        private static final String PENDING = ResponseCompression.class.getName() + ".pending";
+
+        private final Logger logger = LogManager.getLogger(this.getClass());
+        private final int minSize;
+        private final CompressedBodies cache;
+
+        Filter(int minSize, long cacheBytes) {
+            this.minSize = minSize;
+            this.cache = new CompressedBodies(cacheBytes);
+        }
+
+        @Override
+        public void filter(ContainerRequestContext request) {
+            String ifNoneMatch = request.getHeaderString(HttpHeaders.IF_NONE_MATCH);
+            if (ifNoneMatch == null) return;
+            for (String coding : List.of(GZIP, DEFLATE)) {
+                String suffix = "-" + coding + "\"";
+                if (ifNoneMatch.contains(suffix)) {
+                    request.getHeaders().putSingle(HttpHeaders.IF_NONE_MATCH, ifNoneMatch.replace(suffix, "\""));
+                    request.setProperty(REQUESTED_CODING, coding);
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+            EntityTag tag = response.getEntityTag();
+            if (response.getStatus() == 304) {
+                // Answer with the tag of the representation the client holds
+                Object coding = request.getProperty(REQUESTED_CODING);
+                if (tag != null && coding != null) {
+                    response.getHeaders().putSingle(HttpHeaders.ETAG, encodedTag(tag, (String) coding));
+                    response.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                }
+                return;
+            }
+
+            Object entity = response.getEntity();
+            if (entity == null || response.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)) return;
+            // Bodies already in memory are known to be small; others are measured as they are written
+            if (entity instanceof String && ((String) entity).length() < minSize) return;
+            if (entity instanceof byte[] && ((byte[]) entity).length < minSize) return;
+
+            response.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            String coding = negotiate(request.getHeaderString(HttpHeaders.ACCEPT_ENCODING));
+            if (coding == null) return;
+
+            String key = null;
+            EntityTag codedTag = null;
+            if (tag != null) {
+                key = coding + " " + request.getUriInfo().getRequestUri() + " " + tag.getValue();
+                codedTag = encodedTag(tag, coding);
+                byte[] compressed = cache.get(key);
+                if (compressed != null) {
+                    // Sent without writing the body, so a streamed body never reads its rows
+                    response.setEntity(compressed, null, response.getMediaType());
+                    response.getHeaders().putSingle(HttpHeaders.CONTENT_ENCODING, coding);
+                    response.getHeaders().putSingle(HttpHeaders.ETAG, codedTag);
+                    return;
+                }
+            }
+            request.setProperty(PENDING, new Pending(coding, key, codedTag));
+        }
+
+        @Override
+        public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+            Pending pending = (Pending) context.getProperty(PENDING);
+            if (pending == null) {
+                context.proceed();
+                return;
+            }
+            CompressingStream out = new CompressingStream(context.getOutputStream(), context.getHeaders(),
+                    pending, minSize, pending.key == null ? 0 : cache.maxBytes);
+            context.setOutputStream(out);
+            context.proceed();
+            out.finish();
+
+            byte[] compressed = out.captured();
+            if (compressed != null) {
+                cache.put(pending.key, compressed);
+                logger.debug("Compressed " + out.written + " bytes to " + compressed.length + " bytes of " + pending.coding);
+            }
+        }
+
+        private static EntityTag encodedTag(EntityTag tag, String coding) {
+            return new EntityTag(tag.getValue() + "-" + coding, tag.isWeak());
+        }
+    }
+
+    /**
+     * The compression chosen for a response whose body has not been written yet.
+     */
+    private static class Pending {
+        private final String coding;
+        /** Where the compressed body is cached, or null when the response has no ETag */
+        private final String key;
+        /** The ETag of the compressed representation, or null */
+        private final EntityTag tag;
+
+        Pending(String coding, String key, EntityTag tag) {
+            this.coding = coding;
+            this.key = key;
+            this.tag = tag;
+        }
+    }
+
+    /**
+     * Holds back the first bytes of a body until there are enough to be worth compressing. A body that
+     * ends sooner is sent as it is; otherwise the coding headers are set, which is still possible since
+     * nothing has been sent, and the rest of the body is compressed as it arrives.
+     * The compressed bytes can also be kept, up to a size, for {@link CompressedBodies}.
+     */
+    static class CompressingStream extends OutputStream {
+
+        private final OutputStream target;
+        private final MultivaluedMap<String, Object> headers;
+        private final Pending pending;
+        private final int minSize;
+        private final long captureLimit;
+
+        /** The first bytes, until the body reaches minSize; null once compressing */
+        private ByteArrayOutputStream held;
+        private OutputStream compressor;
+        private ByteArrayOutputStream capture;
+        private long written;
+        private boolean finished;
+
+        CompressingStream(OutputStream target, MultivaluedMap<String, Object> headers, Pending pending,
+                          int minSize, long captureLimit) {
+            this.target = target;
+            this.headers = headers;
+            this.pending = pending;
+            this.minSize = minSize;
+            this.captureLimit = captureLimit;
+            this.held = new ByteArrayOutputStream(Math.min(minSize, 8192));
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            written += length;
+            if (held != null) {
+                held.write(bytes, offset, length);
+                if (held.size() >= minSize) startCompressing();
+            } else {
+                compressor.write(bytes, offset, length);
+            }
+        }
+
+        private void startCompressing() throws IOException {
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            headers.putSingle(HttpHeaders.CONTENT_ENCODING, pending.coding);
+            if (pending.tag != null) headers.putSingle(HttpHeaders.ETAG, pending.tag);
+
+            OutputStream sink = new FilterOutputStream(target) {
+                @Override
+                public void write(int b) throws IOException {
+                    write(new byte[]{(byte) b}, 0, 1);
+                }
+
+                @Override
+                public void write(byte[] bytes, int offset, int length) throws IOException {
+                    out.write(bytes, offset, length);
+                    if (capture != null) {
+                        if (capture.size() + length > captureLimit) capture = null;
+                        else capture.write(bytes, offset, length);
+                    }
+                }
+
+                @Override
+                public void close() {
+                    // The target is closed by CompressingStream
+                }
+            };
+            if (captureLimit > 0) capture = new ByteArrayOutputStream();
+            compressor = GZIP.equals(pending.coding) ? new GZIPOutputStream(sink) : new DeflaterOutputStream(sink);
+            held.writeTo(compressor);
+            held = null;
+        }
+
+        /**
+         * Writes out what is left of the body without closing the target.
+         */
+        void finish() throws IOException {
+            if (finished) return;
+            finished = true;
+            if (held != null) {
+                held.writeTo(target);
+                held = null;
+            } else {
+                compressor.close();
+            }
+        }
+
+        /**
+         * @return the whole compressed body, or null if it was not compressed, not kept, or too large to keep
+         */
+        byte[] captured() {
+            return finished && compressor != null && capture != null ? capture.toByteArray() : null;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // Held bytes wait for the decision; compressed bytes are flushed as the compressor fills up
+            if (held == null && !finished) compressor.flush();
+            target.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                finish();
+            } finally {
+                target.close();
+            }
+        }
+    }
+
+    /**
+     * Compressed bodies by coding, URI and ETag, least recently used dropped first once their total size
+     * passes the limit. Old ETags are never asked for again, so they age out on their own.
+     */
+    static class CompressedBodies {
+
+        final long maxBytes;
+        private final LinkedHashMap<String, byte[]> bodies = new LinkedHashMap<>(64, 0.75f, true);
+        private long bytes;
+
+        CompressedBodies(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized byte[] get(String key) {
+            return bodies.get(key);
+        }
+
+        synchronized void put(String key, byte[] body) {
+            if (body.length > maxBytes) return;
+            byte[] previous = bodies.put(key, body);
+            bytes += body.length - (previous == null ? 0 : previous.length);
+            Iterator<Map.Entry<String, byte[]>> eldest = bodies.entrySet().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                bytes -= eldest.next().getValue().length;
+                eldest.remove();
+            }
+        }
+
+        synchronized long size() {
+            return bytes;
+        }
+    }
+}
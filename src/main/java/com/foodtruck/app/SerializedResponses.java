@@ -0,0 +1,193 @@
+package com.foodtruck.app;
+
+import com.foodtruck.persistence.EntityChangeListener;
+import com.foodtruck.persistence.EntityChanges;
+import com.foodtruck.persistence.TableVersions;
+
+import javax.ws.rs.core.StreamingOutput;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bodies of the hottest read endpoints exactly as they were sent, keyed by endpoint, normalized
+ * query parameters and format, so repeating a read answers from memory without Hibernate or Jackson.
+ * <p>
+ * Each body remembers the {@link TableVersions} stamp it was read at. A committed write to any of the
+ * stamped tables drops it straight away, and a body whose stamp is no longer current is never sent,
+ * which covers a write that commits while the body is still being read. Bodies are kept up to
+ * {@value #DEFAULT_MAX_BYTES} bytes in total, least recently used dropped first.
+ */
+final class SerializedResponses {
+
+    /** Most bytes kept for all bodies together */
+    static final long DEFAULT_MAX_BYTES = 8L * 1024 * 1024;
+
+    private static final SerializedResponses INSTANCE = new SerializedResponses(DEFAULT_MAX_BYTES);
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, Body> bodies = new LinkedHashMap<>(64, 0.75f, true);
+    private final Set<Class<?>> tracked = ConcurrentHashMap.newKeySet();
+    private long bytes;
+
+    SerializedResponses(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the shared cache.
+     *
+     * @return the cache used by the endpoints
+     */
+    static SerializedResponses getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Looks up a body.
+     *
+     * @param key   The endpoint and its normalized parameters
+     * @param stamp The current versions of the tables the body is built from
+     * @return The body, or null if none was kept at these versions
+     */
+    synchronized Body get(String key, TableVersions.Stamp stamp) {
+        Body body = bodies.get(key);
+        return body != null && body.tag.equals(stamp.getTag()) ? body : null;
+    }
+
+    /**
+     * Keeps a body.
+     *
+     * @param key        The endpoint and its normalized parameters
+     * @param stamp      The versions of the tables, read before the body was
+     * @param bytes      The body as sent
+     * @param nextCursor The X-Next-Cursor header sent with it, or null
+     */
+    void put(String key, TableVersions.Stamp stamp, byte[] bytes, String nextCursor) {
+        if (bytes.length > maxBytes) return;
+        for (Class<?> type : stamp.getTypes()) {
+            if (tracked.add(type)) track(type);
+        }
+        add(key, new Body(bytes, nextCursor, stamp.getTag(), stamp.getTypes()));
+    }
+
+    /**
+     * Wraps a streamed body so a copy of what it writes is kept once it has been written completely.
+     *
+     * @param key        The endpoint and its normalized parameters
+     * @param stamp      The versions of the tables, read before the body is
+     * @param nextCursor The X-Next-Cursor header sent with the body, or null
+     * @param body       The streamed body
+     * @return The body to send instead
+     */
+    StreamingOutput caching(String key, TableVersions.Stamp stamp, String nextCursor, StreamingOutput body) {
+        return out -> {
+            ByteArrayOutputStream copy = new ByteArrayOutputStream();
+            body.write(new FilterOutputStream(out) {
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                    copy.write(b);
+                }
+
+                @Override
+                public void write(byte[] bytes, int offset, int length) throws IOException {
+                    out.write(bytes, offset, length);
+                    copy.write(bytes, offset, length);
+                }
+            });
+            put(key, stamp, copy.toByteArray(), nextCursor);
+        };
+    }
+
+    /**
+     * Drops every body.
+     */
+    synchronized void clear() {
+        bodies.clear();
+        bytes = 0;
+    }
+
+    /**
+     * @return the bytes kept for all bodies together
+     */
+    synchronized long size() {
+        return bytes;
+    }
+
+    private synchronized void add(String key, Body body) {
+        Body previous = bodies.put(key, body);
+        bytes += body.bytes.length - (previous == null ? 0 : previous.bytes.length);
+        Iterator<Map.Entry<String, Body>> eldest = bodies.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            bytes -= eldest.next().getValue().bytes.length;
+            eldest.remove();
+        }
+    }
+
+    private synchronized void dropAll(Class<?> type) {
+        Iterator<Body> all = bodies.values().iterator();
+        while (all.hasNext()) {
+            Body body = all.next();
+            if (body.types.contains(type)) {
+                bytes -= body.bytes.length;
+                all.remove();
+            }
+        }
+    }
+
+    /**
+     * Drops the bodies built from a table whenever it is written.
+     */
+    private <T> void track(Class<T> type) {
+        EntityChanges.register(type, new EntityChangeListener<T>() {
+            @Override
+            public void saved(T entity) {
+                dropAll(type);
+            }
+
+            @Override
+            public void deleted(T entity) {
+                dropAll(type);
+            }
+        });
+    }
+
+    /**
+     * One kept body and the headers that went with it.
+     */
+    static class Body {
+        private final byte[] bytes;
+        private final String nextCursor;
+        private final String tag;
+        private final List<Class<?>> types;
+
+        Body(byte[] bytes, String nextCursor, String tag, List<Class<?>> types) {
+            this.bytes = bytes;
+            this.nextCursor = nextCursor;
+            this.tag = tag;
+            this.types = types;
+        }
+
+        /**
+         * @return the body as sent; not to be modified
+         */
+        byte[] getBytes() {
+            return bytes;
+        }
+
+        /**
+         * @return the X-Next-Cursor header sent with the body, or null
+         */
+        String getNextCursor() {
+            return nextCursor;
+        }
+    }
+}
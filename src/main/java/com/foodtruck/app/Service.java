@@ -1,19 +1,60 @@
 package com.foodtruck.app;
 
+import com.foodtruck.dto.NearbyScheduleView;
+import com.foodtruck.dto.ScheduleView;
+import com.foodtruck.dto.TruckView;
 import com.foodtruck.entities.Location;
 import com.foodtruck.entities.Schedule;
 import com.foodtruck.entities.Truck;
+import com.foodtruck.index.GridIndex;
+import com.foodtruck.index.InvertedIndex;
+import com.foodtruck.index.LocationIndex;
+import com.foodtruck.index.ScheduleIndex;
+import com.foodtruck.index.TimeWindow;
+import com.foodtruck.index.TruckSearchIndex;
+import com.foodtruck.json.DataFormat;
+import com.foodtruck.json.DateTimeFormats;
+import com.foodtruck.persistence.DaoRegistry;
+import com.foodtruck.persistence.FieldProjection;
 import com.foodtruck.persistence.GenericDao;
+import com.foodtruck.persistence.Page;
+import com.foodtruck.persistence.Sort;
+import com.foodtruck.persistence.Specification;
+import com.foodtruck.persistence.StreamedPage;
+import com.foodtruck.persistence.TableVersions;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.parameters.RequestBody;
+import jakarta.persistence.Tuple;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import javax.inject.Inject;
+import javax.inject.Singleton;
 import javax.ws.rs.*;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.Variant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -22,92 +63,410 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 
 //Jackson imports
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * RESTful service providing endpoints to manage food truck information
  * All endpoints return JSON responses and use standard HTTP status codes for success and failure.
+ * Read endpoints also answer in CBOR, Smile or MessagePack when the Accept header asks for one of them.
+ * <p>
+ * One instance serves every request, so the service keeps no per-request state in fields.
  */
+@Singleton
 @Path("/")
 @Tag(name = "Food Truck API", description = "Operations for managing food trucks and schedules")
 public class Service {
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    /** Response header carrying the cursor of the next page on list endpoints */
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /** Response header listing the requested IDs that were not found, on multi-get requests */
+    static final String MISSING_IDS_HEADER = "X-Missing-Ids";
+
+    /** Largest number of IDs accepted by one multi-get request */
+    static final int MAX_IDS = 100;
+
+    /** Largest number of entities accepted by one bulk request */
+    static final int MAX_BULK_SIZE = 5000;
+
+    /** Radius of a distance search when none is given, in kilometers */
+    static final double DEFAULT_RADIUS_KM = 5;
+
+    /** Largest accepted radius of a distance search, in kilometers */
+    static final double MAX_RADIUS_KM = 100;
+
+    /** Number of locations whose schedules are loaded per query by a distance search */
+    private static final int NEAR_LOCATION_BATCH = 200;
+
+    /** The formats read endpoints answer in, JSON first so it is chosen when any format will do */
+    private static final List<Variant> FORMATS = Variant.mediaTypes(Arrays.stream(DataFormat.values())
+            .map(format -> MediaType.valueOf(format.getMediaType()))
+            .toArray(MediaType[]::new)).build();
+
     private final Logger logger = LogManager.getLogger(this.getClass());
 
-    private final GenericDao<Truck> truckDao = new GenericDao<>(Truck.class);
-    private final GenericDao<Location> locationDao = new GenericDao<>(Location.class);
-    private final GenericDao<Schedule> scheduleDao = new GenericDao<>(Schedule.class);
+    private final GenericDao<Truck> truckDao;
+    private final GenericDao<Location> locationDao;
+    private final GenericDao<Schedule> scheduleDao;
+
+    /** Loads schedules together with their truck and location */
+    private final GenericDao<Schedule> fullScheduleDao;
+
+    /** Bodies of {@link #getTruckById} and {@link #getSchedule} already sent */
+    private final SerializedResponses responses = SerializedResponses.getInstance();
+
+    /**
+     * The current request, for conditional GETs and content negotiation; null when the service is
+     * called outside Jersey. Jersey injects a proxy to whichever request the calling thread is serving.
+     */
+    @Context
+    private Request request;
+
+    /**
+     * Creates a service with DAOs of its own, for use outside Jersey.
+     */
+    public Service() {
+        this(new DaoRegistry());
+    }
+
+    /**
+     * Creates the service Jersey serves every request with.
+     *
+     * @param daos The application's shared DAOs
+     */
+    @Inject
+    public Service(DaoRegistry daos) {
+        this.truckDao = daos.get(Truck.class);
+        this.locationDao = daos.get(Location.class);
+        this.scheduleDao = daos.get(Schedule.class);
+        this.fullScheduleDao = daos.get(Schedule.class, Schedule.WITH_TRUCK_AND_LOCATION);
+    }
 
     // ----------------------------
     // FOOD TRUCK ENDPOINTS
     // ----------------------------
     /**
-     * Retrieves all food trucks.
+     * Retrieves one page of food trucks, ordered by ID.
+     * The trucks are written to the response as they are read from the database cursor.
+     * When more trucks exist, the cursor for the next page is returned in the X-Next-Cursor header.
+     * With ids, the given trucks are returned instead, in the order asked for; see {@link #byIds}.
      *
-     * @return JSON list of all {@link Truck} objects with HTTP 200, or error JSON with HTTP 500.
+     * @param limit  Maximum number of trucks to return (default 50, max 500).
+     * @param cursor Cursor from a previous response's X-Next-Cursor header, or null for the first page.
+     * @param fields Comma-separated fields to return, e.g. "id,name", or null for all; only those columns are read.
+     * @param ids    Comma-separated IDs of the trucks to return, e.g. "1,2,3", or null for a page of all trucks.
+     * @return JSON list of {@link Truck} objects with HTTP 200, HTTP 304 if unchanged since the client's copy,
+     *         or HTTP 400 for a bad limit, cursor, field or ID.
      */
     @GET
     @Path("/trucks")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, DataFormat.CBOR_TYPE, DataFormat.SMILE_TYPE, DataFormat.MSGPACK_TYPE})
     @Operation(
             summary = "Get all food trucks",
-            description = "Returns a list of all food trucks",
+            description = "Returns a page of food trucks. Follow the X-Next-Cursor header to get the next page. "
+                    + "With ids, returns those trucks in order and lists the IDs not found in the X-Missing-Ids header.",
             responses = {
-                    @ApiResponse(responseCode = "200", description = "List of trucks retrieved successfully")
+                    @ApiResponse(responseCode = "200", description = "List of trucks retrieved successfully"),
+                    @ApiResponse(responseCode = "304", description = "Not modified since the ETag or date sent"),
+                    @ApiResponse(responseCode = "400", description = "Invalid limit, cursor, field or ID")
             }
     )
-    public Response getAllTrucks() {
+    public Response getAllTrucks(
+            @Parameter(description = "Maximum number of trucks to return (default 50, max 500)") @QueryParam("limit") Integer limit,
+            @Parameter(description = "Cursor for the next page, from the X-Next-Cursor header") @QueryParam("cursor") String cursor,
+            @Parameter(description = "Fields to return, e.g. id,name (default all)") @QueryParam("fields") String fields,
+            @Parameter(description = "IDs of the trucks to return, e.g. 1,2,3 (at most 100)") @QueryParam("ids") String ids) {
+        DataFormat format = format();
         logger.debug("GET /trucks called");
-        List<Truck> trucks = truckDao.getAll();
-        logger.debug("Found " + trucks.size() + " trucks");
+        if (ids != null) {
+            if (limit != null || cursor != null || fields != null) {
+                return badRequest("ids cannot be combined with limit, cursor or fields");
+            }
+            return byIds(truckDao, ids, TruckView.class, TruckView::of, TableVersions.stamp(Truck.class), format);
+        }
+        if (limit != null && limit < 1) return badRequest("limit must be a positive number");
+        Integer afterId;
+        try {
+            afterId = Page.decodeCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            return badRequest("Invalid cursor");
+        }
+        FieldProjection<Truck> projection;
+        try {
+            projection = fieldsOf(fields, TruckView.FIELDS);
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+        TableVersions.Stamp stamp = TableVersions.stamp(Truck.class);
+        Response notModified = notModified(stamp, format);
+        if (notModified != null) return notModified;
 
+        int size = limit == null ? GenericDao.DEFAULT_PAGE_SIZE : limit;
+        StreamedPage<?> page;
+        ArrayOutput<?> body;
+        if (projection == null) {
+            StreamedPage<TruckView> trucks = truckDao.streamViewPage(TruckView.PROJECTION, null, afterId, size);
+            page = trucks;
+            body = new ArrayOutput<>(format, TruckView.class, trucks::forEach);
+        } else {
+            StreamedPage<Map<String, Object>> trucks = truckDao.streamViewPage(projection, null, afterId, size)
+                    .map(projection::toMap);
+            page = trucks;
+            body = new ArrayOutput<>(format, Map.class, trucks::forEach);
+        }
+        return versioned(Response.ok(body, format.getMediaType()), stamp, format)
+                .header(NEXT_CURSOR_HEADER, page.getNextCursor())
+                .build();
+    }
+
+    /**
+     * Retrieves the schedule entries at locations within a radius of a point, nearest first.
+     * Locations are found with the in-memory {@link LocationIndex}; their schedules are then loaded
+     * a batch of locations at a time, so only as many as needed for the limit are read.
+     *
+     * @param lat      Latitude of the search center in degrees.
+     * @param lon      Longitude of the search center in degrees.
+     * @param radius   Search radius in kilometers (default 5, max 100).
+     * @param date     Optional filter by date (YYYY-MM-DD).
+     * @param limit    Maximum number of entries to return (default 50, max 500).
+     * @return JSON list of schedule entries with a distanceKm field, nearest first, with HTTP 200,
+     *         HTTP 304 if unchanged since the client's copy,
+     *         or HTTP 400 for bad coordinates, radius, date or limit.
+     */
+    @GET
+    @Path("/trucks/near")
+    @Produces({MediaType.APPLICATION_JSON, DataFormat.CBOR_TYPE, DataFormat.SMILE_TYPE, DataFormat.MSGPACK_TYPE})
+    @Operation(
+            summary = "Find trucks near a point",
+            description = "Returns schedule entries at locations within a radius, ordered by distance",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Schedules retrieved successfully"),
+                    @ApiResponse(responseCode = "304", description = "Not modified since the ETag or date sent"),
+                    @ApiResponse(responseCode = "400", description = "Invalid coordinates, radius, date or limit")
+            }
+    )
+    public Response getTrucksNear(
+            @Parameter(description = "Latitude in degrees", required = true) @QueryParam("lat") Double lat,
+            @Parameter(description = "Longitude in degrees", required = true) @QueryParam("lon") Double lon,
+            @Parameter(description = "Radius in kilometers (default 5, max 100)") @QueryParam("radius") Double radius,
+            @Parameter(description = "Filter by date (YYYY-MM-DD)") @QueryParam("date") String date,
+            @Parameter(description = "Maximum number of entries to return (default 50, max 500)") @QueryParam("limit") Integer limit) {
+        DataFormat format = format();
+
+        if (lat == null || !(lat >= -90 && lat <= 90)) return badRequest("lat must be between -90 and 90");
+        if (lon == null || !(lon >= -180 && lon <= 180)) return badRequest("lon must be between -180 and 180");
+        if (radius != null && !(radius > 0 && radius <= MAX_RADIUS_KM)) {
+            return badRequest("radius must be greater than 0 and at most " + MAX_RADIUS_KM);
+        }
+        if (limit != null && limit < 1) return badRequest("limit must be a positive number");
+        LocalDate onDate;
         try {
-            String json = objectMapper.writeValueAsString(trucks);
-            return Response
-                    .ok(json, MediaType.APPLICATION_JSON)
-                    .build();
-        } catch (JsonProcessingException e) {
-            logger.error("Failed to serialize trucks to JSON", e);
-            return Response
-                    .serverError()
-                    .entity("{\"error\":\"Failed to serialize response\"}")
-                    .type(MediaType.APPLICATION_JSON)
-                    .build();
+            onDate = DateTimeFormats.parseDate(date);
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+
+        TableVersions.Stamp stamp = TableVersions.stamp(Schedule.class, Truck.class, Location.class);
+        Response notModified = notModified(stamp, format);
+        if (notModified != null) return notModified;
+
+        int max = Math.min(limit == null ? GenericDao.DEFAULT_PAGE_SIZE : limit, GenericDao.MAX_PAGE_SIZE);
+        List<GridIndex.Hit> hits = LocationIndex.getInstance().near(lat, lon, radius == null ? DEFAULT_RADIUS_KM : radius);
+
+        // Hits are nearest first, so each batch of locations is farther away than the one before
+        List<NearbyScheduleView> results = new ArrayList<>();
+        for (int start = 0; start < hits.size() && results.size() < max; start += NEAR_LOCATION_BATCH) {
+            Map<Integer, Double> distances = new HashMap<>();
+            for (GridIndex.Hit hit : hits.subList(start, Math.min(start + NEAR_LOCATION_BATCH, hits.size()))) {
+                distances.put(hit.getPoint().getId(), hit.getDistanceKm());
+            }
+            Specification<Schedule> filter = Specification.in("location.id", distances.keySet());
+            if (onDate != null) filter = filter.and(Specification.equal("date", onDate));
+
+            List<NearbyScheduleView> batch = new ArrayList<>();
+            for (ScheduleView schedule : scheduleDao.findView(ScheduleView.PROJECTION, filter, List.of(Sort.asc("id")), null)) {
+                batch.add(new NearbyScheduleView(schedule, distances.get(schedule.getLocation().getId())));
+            }
+            batch.sort(Comparator.comparingDouble(NearbyScheduleView::getDistanceKm));
+            results.addAll(batch);
         }
+        if (results.size() > max) results = results.subList(0, max);
+
+        return versioned(Response.ok(new ArrayOutput<>(format, NearbyScheduleView.class, results::forEach),
+                format.getMediaType()), stamp, format).build();
+    }
+
+    /**
+     * Retrieves the schedule entries that are open at an instant, ordered by ID.
+     * Open entries are found with the in-memory {@link ScheduleIndex}, so the lookup only looks at
+     * entries for that hour; the entries themselves are then loaded in one query.
+     *
+     * @param at    Timestamp to check (ISO-8601, e.g. 2026-05-07T12:30), default now.
+     * @param limit Maximum number of entries to return (default 50, max 500).
+     * @return JSON list of open schedule entries with HTTP 200, or HTTP 400 for a bad timestamp or limit.
+     */
+    @GET
+    @Path("/trucks/open")
+    @Produces({MediaType.APPLICATION_JSON, DataFormat.CBOR_TYPE, DataFormat.SMILE_TYPE, DataFormat.MSGPACK_TYPE})
+    @Operation(
+            summary = "Find trucks open at a time",
+            description = "Returns the schedule entries whose start and end times include the given timestamp",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Schedules retrieved successfully"),
+                    @ApiResponse(responseCode = "400", description = "Invalid timestamp or limit")
+            }
+    )
+    public Response getTrucksOpen(
+            @Parameter(description = "Timestamp, e.g. 2026-05-07T12:30 (default now)") @QueryParam("at") String at,
+            @Parameter(description = "Maximum number of entries to return (default 50, max 500)") @QueryParam("limit") Integer limit) {
+        DataFormat format = format();
+
+        if (limit != null && limit < 1) return badRequest("limit must be a positive number");
+        LocalDateTime when;
+        try {
+            when = DateTimeFormats.parseDateTime(at);
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+        if (when == null) when = LocalDateTime.now();
+
+        int max = Math.min(limit == null ? GenericDao.DEFAULT_PAGE_SIZE : limit, GenericDao.MAX_PAGE_SIZE);
+        List<Integer> ids = ScheduleIndex.getInstance().openAt(when).stream()
+                .map(TimeWindow::getId)
+                .sorted()
+                .limit(max)
+                .collect(Collectors.toList());
+
+        ArrayOutput<ScheduleView> open = new ArrayOutput<>(format, ScheduleView.class, action -> {
+            if (!ids.isEmpty()) {
+                scheduleDao.scrollView(ScheduleView.PROJECTION, Specification.in("id", ids), List.of(Sort.asc("id")), null, action);
+            }
+        });
+        return Response.ok(open, format.getMediaType()).header(HttpHeaders.VARY, HttpHeaders.ACCEPT).build();
+    }
+
+    /**
+     * Searches food trucks by name and food type, best match first.
+     * Results come from the in-memory {@link TruckSearchIndex} without a database query.
+     * When more matches exist, the cursor for the next page is returned in the X-Next-Cursor header.
+     *
+     * @param q      Search text, e.g. "tacos".
+     * @param limit  Maximum number of trucks to return (default 50, max 500).
+     * @param cursor Cursor from a previous response's X-Next-Cursor header, or null for the first page.
+     * @return JSON list of matching trucks with HTTP 200, HTTP 304 if unchanged since the client's copy,
+     *         or HTTP 400 for a missing query or a bad limit or cursor.
+     */
+    @GET
+    @Path("/trucks/search")
+    @Produces({MediaType.APPLICATION_JSON, DataFormat.CBOR_TYPE, DataFormat.SMILE_TYPE, DataFormat.MSGPACK_TYPE})
+    @Operation(
+            summary = "Search food trucks",
+            description = "Full-text search over truck names and food types, ranked by relevance. "
+                    + "Follow the X-Next-Cursor header to get the next page.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Matching trucks retrieved successfully"),
+                    @ApiResponse(responseCode = "304", description = "Not modified since the ETag or date sent"),
+                    @ApiResponse(responseCode = "400", description = "Missing query, invalid limit or cursor")
+            }
+    )
+    public Response searchTrucks(
+            @Parameter(description = "Search text", required = true) @QueryParam("q") String q,
+            @Parameter(description = "Maximum number of trucks to return (default 50, max 500)") @QueryParam("limit") Integer limit,
+            @Parameter(description = "Cursor for the next page, from the X-Next-Cursor header") @QueryParam("cursor") String cursor) {
+        DataFormat format = format();
+
+        if (q == null || q.isBlank()) return badRequest("q is required");
+        if (limit != null && limit < 1) return badRequest("limit must be a positive number");
+        // The cursor holds the rank of the last result returned
+        int offset;
+        try {
+            Integer last = Page.decodeCursor(cursor);
+            offset = last == null ? 0 : last;
+        } catch (IllegalArgumentException e) {
+            return badRequest("Invalid cursor");
+        }
+        if (offset < 0) return badRequest("Invalid cursor");
+        TableVersions.Stamp stamp = TableVersions.stamp(Truck.class);
+        Response notModified = notModified(stamp, format);
+        if (notModified != null) return notModified;
+
+        int max = Math.min(limit == null ? GenericDao.DEFAULT_PAGE_SIZE : limit, GenericDao.MAX_PAGE_SIZE);
+        TruckSearchIndex index = TruckSearchIndex.getInstance();
+        List<InvertedIndex.Hit> hits = index.search(q);
+        int end = Math.min(offset + max, hits.size());
+
+        List<TruckView> trucks = new ArrayList<>();
+        for (InvertedIndex.Hit hit : hits.subList(Math.min(offset, end), end)) {
+            TruckView truck = index.get(hit.getId());
+            if (truck != null) trucks.add(truck);
+        }
+        Page<TruckView> page = new Page<>(trucks, end < hits.size() ? end : null);
+
+        return versioned(Response.ok(new ArrayOutput<>(format, TruckView.class, page.getItems()::forEach),
+                format.getMediaType()), stamp, format)
+                .header(NEXT_CURSOR_HEADER, page.getNextCursor())
+                .build();
     }
 
     /**
      * Retrieves a single food truck by ID.
+     * The body is kept in {@link SerializedResponses} until the trucks table is written, so repeated
+     * reads of the same truck are answered without a query.
      *
-     * @param id ID of the truck to retrieve.
-     * @return JSON representation of the {@link Truck} with HTTP 200, or HTTP 404 if not found,
+     * @param id     ID of the truck to retrieve.
+     * @param fields Comma-separated fields to return, e.g. "id,name", or null for all; only those columns are read.
+     * @return JSON representation of the {@link Truck} with HTTP 200, HTTP 304 if unchanged since the
+     *         client's copy, HTTP 400 for an unknown field, HTTP 404 if not found,
      *         or error JSON with HTTP 500 on serialization error.
      */
     @GET
     @Path("/trucks/{id}")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, DataFormat.CBOR_TYPE, DataFormat.SMILE_TYPE, DataFormat.MSGPACK_TYPE})
     @Operation(
             summary = "Get a single food truck",
             description = "Returns a food truck by its ID",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Truck found"),
+                    @ApiResponse(responseCode = "304", description = "Not modified since the ETag or date sent"),
+                    @ApiResponse(responseCode = "400", description = "Unknown field"),
                     @ApiResponse(responseCode = "404", description = "Truck not found")
             }
     )
     public Response getTruckById(
             @Parameter(description = "ID of the truck", required = true)
-            @PathParam("id") int id) {
-        Truck truck = truckDao.getById(id);
+            @PathParam("id") int id,
+            @Parameter(description = "Fields to return, e.g. id,name (default all)") @QueryParam("fields") String fields) {
+        DataFormat format = format();
+        FieldProjection<Truck> projection;
+        try {
+            projection = fieldsOf(fields, TruckView.FIELDS);
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+        TableVersions.Stamp stamp = TableVersions.stamp(Truck.class);
+        Response notModified = notModified(stamp, format);
+        if (notModified != null) return notModified;
+
+        String key = "trucks/" + id + fieldsKey(projection) + formatKey(format);
+        SerializedResponses.Body cached = responses.get(key, stamp);
+        if (cached != null) return versioned(Response.ok(cached.getBytes(), format.getMediaType()), stamp, format).build();
+
+        Object truck;
+        if (projection == null) {
+            truck = truckDao.getById(id);
+        } else {
+            Tuple row = truckDao.getViewById(projection, id);
+            truck = row == null ? null : projection.toMap(row);
+        }
         if (truck == null) return Response.status(Response.Status.NOT_FOUND).build();
 
         try {
-            String json = objectMapper.writeValueAsString(truck);
-            return Response.ok(json, MediaType.APPLICATION_JSON).build();
+            byte[] body = format.writerFor(truck.getClass()).writeValueAsBytes(truck);
+            responses.put(key, stamp, body, null);
+            return versioned(Response.ok(body, format.getMediaType()), stamp, format).build();
         } catch (JsonProcessingException e) {
             logger.error("Failed to serialize truck", e);
             return Response.serverError()
-                    .entity("{\"error\":\"Failed to serialize response\"}")
+                    .entity(Map.of("error", "Failed to serialize response"))
                     .type(MediaType.APPLICATION_JSON)
                     .build();
         }
@@ -144,24 +503,48 @@ public class Service {
     public Response addTruck(
             @Parameter(description = "Truck object to add", required = true) Truck truck) {
         int id = truckDao.insert(truck);
-        Schedule created = scheduleDao.getById(id);
+        Truck created = truckDao.getById(id);
+        return created(created);
+    }
 
-        // Serialize + return
-        try {
-            String json = objectMapper.writeValueAsString(created);
-            return Response
-                    .status(Response.Status.CREATED)
-                    .entity(json)
-                    .type(MediaType.APPLICATION_JSON)
-                    .build();
+    /**
+     * Creates many food trucks in one transaction.
+     *
+     * @param trucks List of {@link Truck} objects to create.
+     * @return JSON object with the generated IDs, in request order, with HTTP 201,
+     *         or HTTP 400 if the list is empty or too large.
+     */
+    @POST
+    @Path("/trucks/bulk")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(
+            summary = "Add many food trucks",
+            description = "Creates up to 5000 food trucks in one transaction and returns their IDs",
+            responses = {
+                    @ApiResponse(responseCode = "201", description = "Trucks created successfully"),
+                    @ApiResponse(responseCode = "400", description = "Empty or oversized list")
+            },
+            requestBody = @RequestBody(
+                    description = "Truck objects to add",
+                    required = true,
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(
+                                    example = "[{\"name\":\"Thailand in a Truck\", \"foodType\":\"Thai\"}, " +
+                                            "{\"name\":\"Pasta Palace\", \"foodType\":\"Italian\"}]"
+                            )
+                    )
+            )
+    )
+    public Response addTrucks(
+            @Parameter(description = "Truck objects to add", required = true) List<Truck> trucks) {
+        if (trucks == null || trucks.isEmpty()) return badRequest("At least one truck is required");
+        if (trucks.size() > MAX_BULK_SIZE) return badRequest("At most " + MAX_BULK_SIZE + " trucks per request");
 
-        } catch (JsonProcessingException e) {
-            logger.error("Failed to serialize schedule", e);
-            return Response.serverError()
-                    .entity("{\"error\":\"Failed to serialize response\"}")
-                    .type(MediaType.APPLICATION_JSON)
-                    .build();
-        }
+        List<Integer> ids = truckDao.insertAll(trucks);
+        logger.debug("Bulk inserted " + ids.size() + " trucks");
+        return created(Map.of("ids", ids));
     }
 
     /**
@@ -212,16 +595,7 @@ public class Service {
             truckDao.update(existing);
 
             // 4. Return updated JSON
-            try {
-                String json = objectMapper.writeValueAsString(existing);
-                return Response.ok(json, MediaType.APPLICATION_JSON).build();
-            } catch (JsonProcessingException e) {
-                logger.error("Failed to serialize updated truck", e);
-                return Response.serverError()
-                        .entity("{\"error\":\"Failed to serialize response\"}")
-                        .type(MediaType.APPLICATION_JSON)
-                        .build();
-        }
+            return Response.ok(existing, MediaType.APPLICATION_JSON).build();
     }
 
     /**
@@ -255,55 +629,139 @@ public class Service {
     // ----------------------------
 
     /**
-     * Retrieves schedule entries.
+     * Retrieves one page of schedule entries, ordered by ID.
+     * All filters are applied in the database query; date filters use the (date, location_id) index.
+     * The entries are written to the response as they are read from the database cursor, and the JSON
+     * is kept in {@link SerializedResponses} until one of the tables is written, so the same page asked
+     * for again is answered without a query.
+     * When more entries exist, the cursor for the next page is returned in the X-Next-Cursor header.
+     * With ids, the given entries are returned instead, in the order asked for; see {@link #byIds}.
      *
      * @param date       Optional filter by date (YYYY-MM-DD).
+     * @param from       Optional first date of a date range, inclusive (YYYY-MM-DD).
+     * @param to         Optional last date of a date range, inclusive (YYYY-MM-DD).
      * @param locationId Optional filter by location ID.
+     * @param truckId    Optional filter by truck ID.
+     * @param limit      Maximum number of entries to return (default 50, max 500).
+     * @param cursor     Cursor from a previous response's X-Next-Cursor header, or null for the first page.
+     * @param fields     Comma-separated fields to return, e.g. "id,date,truck.name", or null for all; only
+     *                   those columns are read, and the truck or location is joined only if asked for.
+     * @param ids        Comma-separated IDs of the entries to return, e.g. "1,2,3", or null to filter and page.
      * @return List of {@link Schedule} entries matching the filters with HTTP 200,
-     *         or error JSON with HTTP 500 on serialization error.
+     *         HTTP 304 if unchanged since the client's copy,
+     *         or HTTP 400 for a bad date, limit, cursor, field or ID.
      */
     @GET
     @Path("/schedule")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, DataFormat.CBOR_TYPE, DataFormat.SMILE_TYPE, DataFormat.MSGPACK_TYPE})
     @Operation(
             summary = "Get schedule entries",
-            description = "Returns all schedules or filters by date or location_id",
+            description = "Returns a page of schedules, optionally filtered by date or a from/to date range, "
+                    + "location_id and truck_id. Follow the X-Next-Cursor header to get the next page. "
+                    + "With ids, returns those entries in order and lists the IDs not found in the X-Missing-Ids header.",
             responses = {
-                    @ApiResponse(responseCode = "200", description = "Schedules retrieved successfully")
+                    @ApiResponse(responseCode = "200", description = "Schedules retrieved successfully"),
+                    @ApiResponse(responseCode = "304", description = "Not modified since the ETag or date sent"),
+                    @ApiResponse(responseCode = "400", description = "Invalid date, limit, cursor, field or ID")
             }
     )
     public Response getSchedule(
             @Parameter(description = "Filter by date (YYYY-MM-DD)") @QueryParam("date") String date,
-            @Parameter(description = "Filter by location ID") @QueryParam("location_id") Integer locationId) {
-
-        List<Schedule> results;
-        // When entering the data for schedule, make sure you don't add a 0 in front of a single digit date or month
-        // e.g., use 2024-6-5 instead of 2024-06-05. Could also be validated better in CRUD operations, maybe.
-        //Also, I need more data to _fully_ test this endpoint's filtering logic.
-        if (date != null && locationId != null) {
-            // Filter by date first
-            results = scheduleDao.getByPropertyEqual("date", date);
-            // Then filter by location
-            results.removeIf(s -> s.getLocation() == null || s.getLocation().getId() != locationId);
-        } else if (date != null) {
-            results = scheduleDao.getByPropertyEqual("date", date);
-        } else if (locationId != null) {
-            results = scheduleDao.getAll();
-            results.removeIf(s -> s.getLocation() == null || s.getLocation().getId() != locationId);
-        } else {
-            results = scheduleDao.getAll();
+            @Parameter(description = "First date of a range, inclusive (YYYY-MM-DD)") @QueryParam("from") String from,
+            @Parameter(description = "Last date of a range, inclusive (YYYY-MM-DD)") @QueryParam("to") String to,
+            @Parameter(description = "Filter by location ID") @QueryParam("location_id") Integer locationId,
+            @Parameter(description = "Filter by truck ID") @QueryParam("truck_id") Integer truckId,
+            @Parameter(description = "Maximum number of entries to return (default 50, max 500)") @QueryParam("limit") Integer limit,
+            @Parameter(description = "Cursor for the next page, from the X-Next-Cursor header") @QueryParam("cursor") String cursor,
+            @Parameter(description = "Fields to return, e.g. id,date,truck.name (default all)") @QueryParam("fields") String fields,
+            @Parameter(description = "IDs of the entries to return, e.g. 1,2,3 (at most 100)") @QueryParam("ids") String ids) {
+        DataFormat format = format();
+
+        if (ids != null) {
+            if (date != null || from != null || to != null || locationId != null || truckId != null
+                    || limit != null || cursor != null || fields != null) {
+                return badRequest("ids cannot be combined with other parameters");
+            }
+            return byIds(fullScheduleDao, ids, ScheduleView.class, ScheduleView::of,
+                    TableVersions.stamp(Schedule.class, Truck.class, Location.class), format);
         }
 
+        if (limit != null && limit < 1) return badRequest("limit must be a positive number");
+        Integer afterId;
         try {
-            String json = objectMapper.writeValueAsString(results);
-            return Response.ok(json, MediaType.APPLICATION_JSON).build();
-        } catch (JsonProcessingException e) {
-            logger.error("Failed to serialize schedule list", e);
-            return Response.serverError()
-                    .entity("{\"error\":\"Failed to serialize schedule results\"}")
-                    .type(MediaType.APPLICATION_JSON)
+            afterId = Page.decodeCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            return badRequest("Invalid cursor");
+        }
+        FieldProjection<Schedule> projection;
+        try {
+            projection = fieldsOf(fields, ScheduleView.FIELDS);
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+
+        LocalDate onDate;
+        LocalDate fromDate;
+        LocalDate toDate;
+        try {
+            onDate = DateTimeFormats.parseDate(date);
+            fromDate = DateTimeFormats.parseDate(from);
+            toDate = DateTimeFormats.parseDate(to);
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+        if (fromDate != null && toDate != null && fromDate.isAfter(toDate)) {
+            return badRequest("from must not be after to");
+        }
+
+        Specification<Schedule> filter = null;
+        if (onDate != null) {
+            filter = Specification.equal("date", onDate);
+        }
+        if (fromDate != null || toDate != null) {
+            Specification<Schedule> inRange = Specification.range("date", fromDate, toDate);
+            filter = filter == null ? inRange : filter.and(inRange);
+        }
+        if (locationId != null) {
+            Specification<Schedule> byLocation = Specification.equal("location.id", locationId);
+            filter = filter == null ? byLocation : filter.and(byLocation);
+        }
+        if (truckId != null) {
+            Specification<Schedule> byTruck = Specification.equal("truck.id", truckId);
+            filter = filter == null ? byTruck : filter.and(byTruck);
+        }
+
+        TableVersions.Stamp stamp = TableVersions.stamp(Schedule.class, Truck.class, Location.class);
+        Response notModified = notModified(stamp, format);
+        if (notModified != null) return notModified;
+
+        int size = Math.min(limit == null ? GenericDao.DEFAULT_PAGE_SIZE : limit, GenericDao.MAX_PAGE_SIZE);
+        String key = "schedule?date=" + onDate + "&from=" + fromDate + "&to=" + toDate
+                + "&location_id=" + locationId + "&truck_id=" + truckId + "&limit=" + size + "&after=" + afterId
+                + fieldsKey(projection) + formatKey(format);
+        SerializedResponses.Body cached = responses.get(key, stamp);
+        if (cached != null) {
+            return versioned(Response.ok(cached.getBytes(), format.getMediaType()), stamp, format)
+                    .header(NEXT_CURSOR_HEADER, cached.getNextCursor())
                     .build();
         }
+
+        StreamedPage<?> page;
+        ArrayOutput<?> rows;
+        if (projection == null) {
+            StreamedPage<ScheduleView> schedules = scheduleDao.streamViewPage(ScheduleView.PROJECTION, filter, afterId, size);
+            page = schedules;
+            rows = new ArrayOutput<>(format, ScheduleView.class, schedules::forEach);
+        } else {
+            StreamedPage<Map<String, Object>> schedules = scheduleDao.streamViewPage(projection, filter, afterId, size)
+                    .map(projection::toMap);
+            page = schedules;
+            rows = new ArrayOutput<>(format, Map.class, schedules::forEach);
+        }
+        StreamingOutput body = responses.caching(key, stamp, page.getNextCursor(), rows);
+        return versioned(Response.ok(body, format.getMediaType()), stamp, format)
+                .header(NEXT_CURSOR_HEADER, page.getNextCursor())
+                .build();
     }
 
     /**
@@ -333,9 +791,9 @@ public class Service {
                                             "  \"truck\": { \"id\": 1 },\n" +
                                             "  \"location\": { \"id\": 1 },\n" +
                                             "  \"dayOfWeek\": \"Friday\",\n" +
-                                            "  \"date\": \"5/9/2026\",\n" +
-                                            "  \"startTime\": \"8:00am\",\n" +
-                                            "  \"endTime\": \"4:00pm\"\n" +
+                                            "  \"date\": \"2026-05-09\",\n" +
+                                            "  \"startTime\": \"08:00\",\n" +
+                                            "  \"endTime\": \"16:00\"\n" +
                                             "}"
                             )
                     )
@@ -344,7 +802,54 @@ public class Service {
     public Response addSchedule(
             @Parameter(description = "Schedule object to add", required = true) Schedule schedule) {
         int id = scheduleDao.insert(schedule);
-        return Response.status(Response.Status.CREATED).entity(scheduleDao.getById(id)).build();
+        Schedule created = fullScheduleDao.getById(id);
+        return Response.status(Response.Status.CREATED).entity(created).build();
+    }
+
+    /**
+     * Creates many schedule entries in one transaction.
+     *
+     * @param schedules List of {@link Schedule} objects to create.
+     * @return JSON object with the generated IDs, in request order, with HTTP 201,
+     *         or HTTP 400 if the list is empty or too large.
+     */
+    @POST
+    @Path("/schedule/bulk")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(
+            summary = "Add many schedule entries",
+            description = "Creates up to 5000 schedule entries in one transaction and returns their IDs",
+            responses = {
+                    @ApiResponse(responseCode = "201", description = "Schedules created successfully"),
+                    @ApiResponse(responseCode = "400", description = "Empty or oversized list")
+            },
+            requestBody = @RequestBody(
+                    description = "Schedule objects to add",
+                    required = true,
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(
+                                    example = "[{\n" +
+                                            "  \"truck\": { \"id\": 1 },\n" +
+                                            "  \"location\": { \"id\": 1 },\n" +
+                                            "  \"dayOfWeek\": \"Friday\",\n" +
+                                            "  \"date\": \"2026-05-09\",\n" +
+                                            "  \"startTime\": \"08:00\",\n" +
+                                            "  \"endTime\": \"16:00\"\n" +
+                                            "}]"
+                            )
+                    )
+            )
+    )
+    public Response addSchedules(
+            @Parameter(description = "Schedule objects to add", required = true) List<Schedule> schedules) {
+        if (schedules == null || schedules.isEmpty()) return badRequest("At least one schedule is required");
+        if (schedules.size() > MAX_BULK_SIZE) return badRequest("At most " + MAX_BULK_SIZE + " schedules per request");
+
+        List<Integer> ids = scheduleDao.insertAll(schedules);
+        logger.debug("Bulk inserted " + ids.size() + " schedules");
+        return created(Map.of("ids", ids));
     }
 
     /**
@@ -372,4 +877,160 @@ public class Service {
         scheduleDao.delete(existing);
         return Response.noContent().build();
     }
+
+    // ----------------------------
+    // HELPERS
+    // ----------------------------
+
+    /**
+     * Builds an HTTP 201 response with the given body, written as JSON by the Jackson provider.
+     *
+     * @param body The body to serialize
+     * @return The created response
+     */
+    private Response created(Object body) {
+        return Response.status(Response.Status.CREATED)
+                .entity(body)
+                .type(MediaType.APPLICATION_JSON)
+                .build();
+    }
+
+    /**
+     * Answers a multi-get: the entities with the given IDs, loaded together with
+     * {@link GenericDao#getByIds}, in the order asked for. IDs that were asked for more than once are
+     * returned once; IDs that were not found are left out and listed in the X-Missing-Ids header.
+     *
+     * @param dao    The DAO of the entities
+     * @param ids    The ids query parameter, e.g. "1,2,3"
+     * @param type   The class of the views written
+     * @param view   Makes the view of a loaded entity
+     * @param stamp  The versions of the tables the views are built from
+     * @param format The format to write in
+     * @return The found entities with HTTP 200, HTTP 304 if unchanged since the client's copy,
+     *         or HTTP 400 for a bad or missing ID or too many IDs
+     */
+    private <E, V> Response byIds(GenericDao<E> dao, String ids, Class<V> type, Function<E, V> view,
+                                  TableVersions.Stamp stamp, DataFormat format) {
+        Set<Integer> wanted = new LinkedHashSet<>();
+        for (String id : ids.split(",")) {
+            if (id.isBlank()) continue;
+            try {
+                wanted.add(Integer.parseInt(id.trim()));
+            } catch (NumberFormatException e) {
+                return badRequest("Invalid id: " + id.trim());
+            }
+        }
+        if (wanted.isEmpty()) return badRequest("ids must name at least one ID");
+        if (wanted.size() > MAX_IDS) return badRequest("ids must name at most " + MAX_IDS + " IDs");
+        Response notModified = notModified(stamp, format);
+        if (notModified != null) return notModified;
+
+        List<V> found = new ArrayList<>(wanted.size());
+        List<String> missing = new ArrayList<>();
+        Iterator<Integer> id = wanted.iterator();
+        for (E entity : dao.getByIds(wanted)) {
+            Integer next = id.next();
+            if (entity == null) {
+                missing.add(next.toString());
+            } else {
+                found.add(view.apply(entity));
+            }
+        }
+        return versioned(Response.ok(new ArrayOutput<>(format, type, found::forEach), format.getMediaType()), stamp, format)
+                .header(MISSING_IDS_HEADER, missing.isEmpty() ? null : String.join(",", missing))
+                .build();
+    }
+
+    /**
+     * Parses the fields query parameter of an endpoint.
+     *
+     * @param fields    The parameter, e.g. "id,name", or null
+     * @param available The fields the endpoint offers
+     * @return The projection of the requested fields, or null to return every field
+     * @throws IllegalArgumentException if a field is not offered
+     */
+    private static <T> FieldProjection<T> fieldsOf(String fields, List<String> available) {
+        if (fields == null || fields.isBlank()) return null;
+        return FieldProjection.parse(fields, available);
+    }
+
+    /**
+     * Describes the fields of a response for a {@link SerializedResponses} key.
+     *
+     * @param projection The requested fields, or null for all
+     * @return The key suffix, empty for all fields
+     */
+    private static String fieldsKey(FieldProjection<?> projection) {
+        return projection == null ? "" : "&fields=" + String.join(",", projection.getPaths());
+    }
+
+    /**
+     * Describes the format of a response for a {@link SerializedResponses} key.
+     *
+     * @param format The response format
+     * @return The key suffix, empty for JSON
+     */
+    private static String formatKey(DataFormat format) {
+        return format == DataFormat.JSON ? "" : "&format=" + format.name();
+    }
+
+    /**
+     * Chooses the format of a read response from the request's Accept header.
+     * JSON is chosen when the client accepts any format, and outside Jersey.
+     *
+     * @return The format to write the response in
+     */
+    private DataFormat format() {
+        Variant variant = request == null ? null : request.selectVariant(FORMATS);
+        if (variant == null) return DataFormat.JSON;
+        return DataFormat.of(variant.getMediaType().getType() + "/" + variant.getMediaType().getSubtype());
+    }
+
+    /**
+     * Answers a conditional GET from the versions of the tables a response is built from,
+     * before anything is read or serialized.
+     *
+     * @param stamp  The table versions, read before the tables are queried
+     * @param format The format the response would be written in
+     * @return HTTP 304 if the client's copy (If-None-Match or If-Modified-Since) is current, otherwise null
+     */
+    private Response notModified(TableVersions.Stamp stamp, DataFormat format) {
+        if (request == null) return null;
+        Response.ResponseBuilder unchanged = request.evaluatePreconditions(
+                new Date(stamp.getLastModified()), new EntityTag(stamp.getTag() + format.getTagSuffix()));
+        return unchanged == null ? null : versioned(unchanged, stamp, format).build();
+    }
+
+    /**
+     * Adds the ETag and Last-Modified headers for some table versions, and asks clients to
+     * revalidate before reusing the response. The ETag names the response format, and caches
+     * are told the body depends on the Accept header.
+     *
+     * @param response The response being built
+     * @param stamp    The table versions the body was read at
+     * @param format   The format the body is written in
+     * @return The response builder
+     */
+    private Response.ResponseBuilder versioned(Response.ResponseBuilder response, TableVersions.Stamp stamp,
+                                               DataFormat format) {
+        CacheControl revalidate = new CacheControl();
+        revalidate.setNoCache(true);
+        return response.tag(new EntityTag(stamp.getTag() + format.getTagSuffix()))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .lastModified(new Date(stamp.getLastModified()))
+                .cacheControl(revalidate);
+    }
+
+    /**
+     * Builds an HTTP 400 response with an error message in the usual error JSON shape.
+     *
+     * @param message The error message
+     * @return The error response
+     */
+    private Response badRequest(String message) {
+        return Response.status(Response.Status.BAD_REQUEST)
+                .entity(Map.of("error", message))
+                .type(MediaType.APPLICATION_JSON)
+                .build();
+    }
 }
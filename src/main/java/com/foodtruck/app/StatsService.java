@@ -0,0 +1,134 @@
+package com.foodtruck.app;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodtruck.json.DataFormat;
+import com.foodtruck.persistence.InstrumentedConnectionProvider;
+import com.foodtruck.persistence.SessionFactoryProvider;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import javax.inject.Singleton;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Read-only endpoints exposing runtime statistics for operations and tuning.
+ */
+@Singleton
+@Path("/stats")
+@Tag(name = "Statistics", description = "Runtime statistics for the API")
+public class StatsService {
+
+    private final ObjectMapper objectMapper = DataFormat.JSON.getMapper();
+    private final Logger logger = LogManager.getLogger(this.getClass());
+
+    /**
+     * Reports hit, miss and put counts for every second-level cache region and the query cache.
+     *
+     * @return JSON object keyed by region name with HTTP 200, or error JSON with HTTP 500.
+     */
+    @GET
+    @Path("/cache")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(
+            summary = "Get cache statistics",
+            description = "Returns hit/miss counts and ratios for the second-level and query caches",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Cache statistics retrieved successfully")
+            }
+    )
+    public Response getCacheStats() {
+        Statistics statistics = SessionFactoryProvider.getSessionFactory().getStatistics();
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(regionName);
+            regions.put(regionName, counts(region.getHitCount(), region.getMissCount(),
+                    region.getPutCount(), region.getElementCountInMemory()));
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("regions", regions);
+        body.put("queryCache", counts(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount(),
+                statistics.getQueryCachePutCount(), -1));
+
+        return toJson(body, "cache statistics");
+    }
+
+    /**
+     * Reports how busy the database connection pool is: current sizes, how long sessions waited for
+     * a connection and how long they kept it.
+     *
+     * @return JSON object with pool sizes and timing histograms with HTTP 200, HTTP 404 if the pool is not
+     * instrumented, or error JSON with HTTP 500.
+     */
+    @GET
+    @Path("/pool")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(
+            summary = "Get connection pool statistics",
+            description = "Returns busy/idle/pending connections and acquire and hold time histograms",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Pool statistics retrieved successfully"),
+                    @ApiResponse(responseCode = "404", description = "Connection pool is not instrumented")
+            }
+    )
+    public Response getPoolStats() {
+        return InstrumentedConnectionProvider.of(SessionFactoryProvider.getSessionFactory())
+                .map(pool -> toJson(pool.snapshot(), "pool statistics"))
+                .orElseGet(() -> Response.status(Response.Status.NOT_FOUND)
+                        .entity("{\"error\":\"Connection pool is not instrumented\"}")
+                        .type(MediaType.APPLICATION_JSON)
+                        .build());
+    }
+
+    /**
+     * Serializes a statistics body.
+     *
+     * @param body        The statistics
+     * @param description What the statistics are, for the error log
+     * @return HTTP 200 with the JSON, or error JSON with HTTP 500
+     */
+    private Response toJson(Object body, String description) {
+        try {
+            String json = objectMapper.writeValueAsString(body);
+            return Response.ok(json, MediaType.APPLICATION_JSON).build();
+        } catch (JsonProcessingException e) {
+            logger.error("Failed to serialize " + description, e);
+            return Response.serverError()
+                    .entity("{\"error\":\"Failed to serialize response\"}")
+                    .type(MediaType.APPLICATION_JSON)
+                    .build();
+        }
+    }
+
+    /**
+     * Builds the counters for one cache.
+     *
+     * @param hits     Number of cache hits
+     * @param misses   Number of cache misses
+     * @param puts     Number of cache puts
+     * @param elements Number of elements currently held, or a negative number if unknown
+     * @return Map of counter name to value
+     */
+    private Map<String, Object> counts(long hits, long misses, long puts, long elements) {
+        Map<String, Object> counts = new LinkedHashMap<>();
+        counts.put("hits", hits);
+        counts.put("misses", misses);
+        counts.put("puts", puts);
+        counts.put("hitRatio", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        if (elements >= 0) counts.put("elementsInMemory", elements);
+        return counts;
+    }
+}
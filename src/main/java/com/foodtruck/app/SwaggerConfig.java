@@ -28,15 +28,34 @@ public class SwaggerConfig extends ResourceConfig {
      * Default constructor
      */
     public SwaggerConfig() {
-        // Register your REST endpoints explicitly
+        // Register your REST endpoints explicitly; both are singletons, built once with the shared DAOs
         register(Service.class);
+        register(StatsService.class);
+        register(new DaoBinder());
+
+        // Warms up at deploy time; /ready answers 503 until it is done
+        register(Warmup.class);
+        register(ReadinessService.class);
+
+        // Times every request per endpoint; /metrics serves them and the DAO timings to Prometheus
+        register(RequestMetrics.class);
+        register(MetricsService.class);
+
+        // Runs the endpoints on virtual threads when foodtruck.virtualThreads is true
+        register(VirtualThreadRequests.class);
+
+        // gzip/deflate for JSON bodies of foodtruck.compression.minSize bytes or more
+        register(ResponseCompression.class);
 
         // Enable Jackson JSON for Jersey
         register(JacksonFeature.class);
+        // Shared ObjectMapper for the Jackson provider
+        register(ObjectMapperResolver.class);
 
         // Swagger / OpenAPI endpoint
         register(OpenApiResource.class);
-        packages("com.foodtruck.app"); // scans your services
+        // Registered by hand: Jersey 2.29's package scanning cannot read Java 21 class files
+        register(HelloWorld.class);
         register(OpenApiResource.class); // registers OpenAPI endpoint
     }
 }
@@ -0,0 +1,175 @@
+package com.foodtruck.app;
+
+import com.foodtruck.persistence.InstrumentedConnectionProvider;
+import com.foodtruck.persistence.SessionFactoryProvider;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.glassfish.jersey.server.ManagedAsyncExecutor;
+import org.glassfish.jersey.server.model.ModelProcessor;
+import org.glassfish.jersey.server.model.Resource;
+import org.glassfish.jersey.server.model.ResourceMethod;
+import org.glassfish.jersey.server.model.ResourceModel;
+import org.glassfish.jersey.spi.ExecutorServiceProvider;
+
+import javax.ws.rs.core.Configuration;
+import javax.ws.rs.core.Feature;
+import javax.ws.rs.core.FeatureContext;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opt-in mode that runs {@link Service} endpoints on virtual threads instead of container threads.
+ * Turned on by setting the {@value #ENABLED} property (a servlet init-param in web.xml) to true.
+ * <p>
+ * Each endpoint is made a Jersey managed-async method: the request is suspended, the container
+ * thread goes back to the pool, and the endpoint runs on a new virtual thread that resumes the request
+ * with its response. At most as many endpoints run at once as the connection pool has connections;
+ * the rest wait as parked virtual threads, which cost almost nothing, rather than in c3p0, where a
+ * waiting virtual thread would pin its carrier thread.
+ * <p>
+ * The limit only holds with MySQL Connector/J 9.0 or later. Older drivers run each query inside
+ * {@code synchronized} blocks, which pins the carrier thread for the whole round trip, so at most one
+ * query per core would run at once.
+ */
+public class VirtualThreadRequests implements Feature {
+
+    /** Property that turns the mode on */
+    public static final String ENABLED = "foodtruck.virtualThreads";
+
+    /** Concurrency limit when the connection pool size is unknown */
+    static final int DEFAULT_LIMIT = 20;
+
+    private static final Logger logger = LogManager.getLogger(VirtualThreadRequests.class);
+
+    @Override
+    public boolean configure(FeatureContext context) {
+        if (!isEnabled(context.getConfiguration())) return false;
+        context.register(ManagedAsyncService.class);
+        context.register(VirtualThreadExecutorProvider.class);
+        return true;
+    }
+
+    /**
+     * @param configuration The application configuration
+     * @return true if the {@value #ENABLED} property is set to true
+     */
+    static boolean isEnabled(Configuration configuration) {
+        Object enabled = configuration.getProperty(ENABLED);
+        return enabled != null && Boolean.parseBoolean(enabled.toString().trim());
+    }
+
+    /**
+     * Marks every {@link Service} resource method as managed-async, so Jersey suspends the request and
+     * calls the method through the {@link ManagedAsyncExecutor}. The methods keep returning a Response,
+     * which Jersey uses to resume the request.
+     */
+    public static class ManagedAsyncService implements ModelProcessor {
+
+        @Override
+        public ResourceModel processResourceModel(ResourceModel model, Configuration configuration) {
+            ResourceModel.Builder builder = new ResourceModel.Builder(false);
+            for (Resource resource : model.getResources()) builder.addResource(managedAsync(resource));
+            return builder.build();
+        }
+
+        @Override
+        public ResourceModel processSubResource(ResourceModel model, Configuration configuration) {
+            return model;
+        }
+
+        private Resource managedAsync(Resource resource) {
+            if (!resource.getHandlerClasses().contains(Service.class)) return resource;
+            Resource.Builder builder = Resource.builder(resource);
+            for (ResourceMethod method : resource.getResourceMethods()) {
+                if (method.getInvocable().getHandler().getHandlerClass() == Service.class) {
+                    builder.updateMethod(method).managedAsync().build();
+                }
+            }
+            for (Resource child : resource.getChildResources()) {
+                builder.replaceChildResource(child, managedAsync(child));
+            }
+            return builder.build();
+        }
+    }
+
+    /**
+     * Supplies the executor Jersey runs managed-async methods on: one virtual thread per request,
+     * limited to the size of the connection pool.
+     */
+    @ManagedAsyncExecutor
+    public static class VirtualThreadExecutorProvider implements ExecutorServiceProvider {
+
+        @Override
+        public ExecutorService getExecutorService() {
+            int limit = InstrumentedConnectionProvider.of(SessionFactoryProvider.getSessionFactory())
+                    .map(InstrumentedConnectionProvider::getMaxSize)
+                    .filter(size -> size > 0)
+                    .orElse(DEFAULT_LIMIT);
+            logger.info("Running endpoints on virtual threads, at most " + limit + " at once");
+            return new LimitedVirtualThreadExecutor(limit);
+        }
+
+        @Override
+        public void dispose(ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    /**
+     * Starts a virtual thread per task, but lets only a fixed number of tasks run at once.
+     * Tasks over the limit wait, parked, in the order they arrived.
+     */
+    static class LimitedVirtualThreadExecutor extends AbstractExecutorService {
+
+        private final ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+        private final Semaphore permits;
+
+        /**
+         * @param limit Most tasks to run at once
+         */
+        LimitedVirtualThreadExecutor(int limit) {
+            this.permits = new Semaphore(limit, true);
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            threads.execute(() -> {
+                permits.acquireUninterruptibly();
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+
+        @Override
+        public void shutdown() {
+            threads.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return threads.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return threads.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return threads.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return threads.awaitTermination(timeout, unit);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.foodtruck.app;
+
+import com.foodtruck.dto.ScheduleView;
+import com.foodtruck.dto.TruckView;
+import com.foodtruck.entities.Schedule;
+import com.foodtruck.entities.Truck;
+import com.foodtruck.index.LocationIndex;
+import com.foodtruck.index.ScheduleIndex;
+import com.foodtruck.index.TruckSearchIndex;
+import com.foodtruck.json.DataFormat;
+import com.foodtruck.persistence.DaoRegistry;
+import com.foodtruck.persistence.GenericDao;
+import com.foodtruck.persistence.InstrumentedConnectionProvider;
+import com.foodtruck.persistence.SessionFactoryProvider;
+import com.foodtruck.persistence.Sort;
+import com.foodtruck.persistence.Specification;
+import com.foodtruck.persistence.StreamedPage;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.glassfish.jersey.server.monitoring.ApplicationEvent;
+import org.glassfish.jersey.server.monitoring.ApplicationEventListener;
+import org.glassfish.jersey.server.monitoring.RequestEvent;
+import org.glassfish.jersey.server.monitoring.RequestEventListener;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warms the application up as soon as Jersey has started, which the servlet's load-on-startup makes
+ * deploy time, so the first requests are not the ones paying for it.
+ * <p>
+ * In the background it builds the session factory, opens the pool's minimum connections, loads the
+ * in-memory indexes, and then runs the hot reads {@value #ROUNDS} times (default {@value #DEFAULT_ROUNDS}),
+ * serializing their rows, so Hibernate's query plan cache is filled and the JIT has compiled the read
+ * path. Until all of that is done {@link ReadinessService} answers 503, which keeps load balancers
+ * from routing to a cold node. A failed warm-up, e.g. with the database down, is retried.
+ * <p>
+ * What is warmed (the session factory, the pool, the indexes, compiled code) is shared by the whole
+ * JVM, so the ready flag is too.
+ */
+public class Warmup implements ApplicationEventListener {
+
+    /** Property with the number of times to run the hot reads (a servlet init-param in web.xml) */
+    public static final String ROUNDS = "foodtruck.warmup.rounds";
+
+    /** Rounds when the property is not set */
+    public static final int DEFAULT_ROUNDS = 100;
+
+    /** Wait before retrying a failed warm-up */
+    static final long RETRY_SECONDS = 5;
+
+    private static final Logger logger = LogManager.getLogger(Warmup.class);
+
+    private static volatile boolean ready;
+
+    private final GenericDao<Truck> truckDao;
+    private final GenericDao<Schedule> scheduleDao;
+    private Thread thread;
+
+    /**
+     * Creates a warm-up with its own DAOs.
+     */
+    public Warmup() {
+        this(new DaoRegistry());
+    }
+
+    /**
+     * Creates a warm-up that runs its reads through the application's shared DAOs.
+     *
+     * @param daos The DAO registry
+     */
+    @Inject
+    public Warmup(DaoRegistry daos) {
+        truckDao = daos.get(Truck.class);
+        scheduleDao = daos.get(Schedule.class);
+    }
+
+    /**
+     * Returns true once a warm-up has finished.
+     *
+     * @return true if warm
+     */
+    public static boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Forgets that a warm-up finished, for tests.
+     */
+    static void reset() {
+        ready = false;
+    }
+
+    @Override
+    public void onEvent(ApplicationEvent event) {
+        switch (event.getType()) {
+            case INITIALIZATION_APP_FINISHED:
+                int rounds = rounds(event.getResourceConfig().getProperty(ROUNDS));
+                thread = new Thread(() -> runUntilWarm(rounds), "warmup");
+                thread.setDaemon(true);
+                thread.start();
+                break;
+            case DESTROY_FINISHED:
+                if (thread != null) thread.interrupt();
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public RequestEventListener onRequest(RequestEvent requestEvent) {
+        return null;
+    }
+
+    /**
+     * Warms up, retrying after a failure, until it succeeds or the application is stopped.
+     *
+     * @param rounds The number of times to run the hot reads
+     */
+    private void runUntilWarm(int rounds) {
+        while (!Thread.currentThread().isInterrupted()) {
+            long start = System.nanoTime();
+            try {
+                warmUp(rounds);
+                if (Thread.currentThread().isInterrupted()) return;
+                ready = true;
+                logger.info("Warmed up in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+                        + " ms (" + rounds + " rounds)");
+                return;
+            } catch (Exception e) {
+                logger.error("Warm-up failed, retrying in " + RETRY_SECONDS + " s", e);
+            }
+            try {
+                TimeUnit.SECONDS.sleep(RETRY_SECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Runs every warm-up step once.
+     *
+     * @param rounds The number of times to run the hot reads
+     * @throws SQLException if a pool connection cannot be opened
+     * @throws IOException  if a row cannot be serialized
+     */
+    void warmUp(int rounds) throws SQLException, IOException {
+        openPool();
+
+        LocationIndex.getInstance().load();
+        ScheduleIndex.getInstance().load();
+        TruckSearchIndex.getInstance().load();
+
+        for (int i = 0; i < rounds && !Thread.currentThread().isInterrupted(); i++) {
+            readHotPaths();
+        }
+    }
+
+    /**
+     * Checks out the pool's minimum number of connections at once, so they are all open and
+     * validated, then hands them back.
+     *
+     * @throws SQLException if a connection cannot be opened
+     */
+    private void openPool() throws SQLException {
+        InstrumentedConnectionProvider pool =
+                InstrumentedConnectionProvider.of(SessionFactoryProvider.getSessionFactory()).orElse(null);
+        if (pool == null) return;
+
+        List<Connection> connections = new ArrayList<>();
+        try {
+            for (int i = 0; i < Math.max(1, pool.getMinSize()); i++) {
+                connections.add(pool.getConnection());
+            }
+        } finally {
+            for (Connection connection : connections) {
+                pool.closeConnection(connection);
+            }
+        }
+    }
+
+    /**
+     * Runs the queries behind the busiest endpoints: the first truck and schedule pages, a truck by
+     * id, several trucks by id, and schedules by id as the open-trucks endpoint reads them.
+     *
+     * @throws IOException if a row cannot be serialized
+     */
+    private void readHotPaths() throws IOException {
+        List<Integer> truckIds = new ArrayList<>();
+        StreamedPage<TruckView> trucks = truckDao.streamViewPage(TruckView.PROJECTION, null, null,
+                GenericDao.DEFAULT_PAGE_SIZE);
+        write(TruckView.class, trucks.map(truck -> {
+            truckIds.add(truck.getId());
+            return truck;
+        }));
+
+        List<Integer> scheduleIds = new ArrayList<>();
+        StreamedPage<ScheduleView> schedules = scheduleDao.streamViewPage(ScheduleView.PROJECTION, null, null,
+                GenericDao.DEFAULT_PAGE_SIZE);
+        write(ScheduleView.class, schedules.map(schedule -> {
+            scheduleIds.add(schedule.getId());
+            return schedule;
+        }));
+
+        if (!truckIds.isEmpty()) {
+            truckDao.getById(truckIds.get(0));
+            truckDao.getByIds(truckIds);
+        }
+        if (!scheduleIds.isEmpty()) {
+            scheduleDao.scrollView(ScheduleView.PROJECTION, Specification.in("id", scheduleIds),
+                    List.of(Sort.asc("id")), null, schedule -> { });
+        }
+    }
+
+    /**
+     * Serializes a page the way the endpoints do, and throws the bytes away.
+     *
+     * @param type The view class
+     * @param page The page
+     * @throws IOException if a row cannot be serialized
+     */
+    private <T> void write(Class<T> type, StreamedPage<T> page) throws IOException {
+        new ArrayOutput<T>(DataFormat.JSON, type, page::forEach).write(OutputStream.nullOutputStream());
+    }
+
+    /**
+     * @param property The {@value #ROUNDS} property, or null
+     * @return the number of rounds it asks for, or {@value #DEFAULT_ROUNDS} if unset
+     */
+    static int rounds(Object property) {
+        return property == null ? DEFAULT_ROUNDS : Integer.parseInt(property.toString().trim());
+    }
+}
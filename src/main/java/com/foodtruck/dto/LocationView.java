@@ -0,0 +1,130 @@
+package com.foodtruck.dto;
+
+import com.foodtruck.entities.Location;
+
+/**
+ * Read-only view of a location, built from selected columns instead of a {@link Location} entity.
+ * Serializes to the same JSON as the entity.
+ */
+public class LocationView {
+
+    /** Unique identifier for the location */
+    private final int id;
+
+    /** Name of the location */
+    private final String name;
+
+    /** Street address of the location */
+    private final String address;
+
+    /** State where the location is situated */
+    private final String state;
+
+    /** Zip code of the location */
+    private final int zip;
+
+    /** Country of the location */
+    private final String country;
+
+    /** Latitude coordinate of the location */
+    private final Double latitude;
+
+    /** Longitude coordinate of the location */
+    private final Double longitude;
+
+    /**
+     * Constructor that sets all variables
+     *
+     * @param id - location id
+     * @param name - location name
+     * @param address - location address
+     * @param state - location state
+     * @param zip - location zip
+     * @param country - location country
+     * @param latitude - location latitude
+     * @param longitude - location longitude
+     */
+    public LocationView(int id, String name, String address, String state, int zip, String country,
+                        Double latitude, Double longitude) {
+        this.id = id;
+        this.name = name;
+        this.address = address;
+        this.state = state;
+        this.zip = zip;
+        this.country = country;
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    /**
+     * Getter for location id
+     *
+     * @return id
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Getter for location name
+     *
+     * @return name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Getter for address
+     *
+     * @return address
+     */
+    public String getAddress() {
+        return address;
+    }
+
+    /**
+     * Getter for state
+     *
+     * @return state
+     */
+    public String getState() {
+        return state;
+    }
+
+    /**
+     * Getter for zip
+     *
+     * @return zip
+     */
+    public int getZip() {
+        return zip;
+    }
+
+    /**
+     * Getter for country
+     *
+     * @return country
+     */
+    public String getCountry() {
+        return country;
+    }
+
+    /**
+     * Getter for latitude
+     *
+     * @return latitude
+     */
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    /**
+     * Getter for longitude
+     *
+     * @return longitude
+     */
+    public Double getLongitude() {
+        return longitude;
+    }
+}
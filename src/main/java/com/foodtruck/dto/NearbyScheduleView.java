@@ -0,0 +1,46 @@
+package com.foodtruck.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+/**
+ * A schedule entry found by a distance search, with how far its location is from the search center.
+ * Serializes as the schedule's JSON plus a "distanceKm" field.
+ */
+public class NearbyScheduleView {
+
+    /** The schedule entry */
+    private final ScheduleView schedule;
+
+    /** Distance from the search center to the schedule's location, in kilometers */
+    private final double distanceKm;
+
+    /**
+     * Constructor that sets all variables
+     *
+     * @param schedule - the schedule entry
+     * @param distanceKm - distance in kilometers
+     */
+    public NearbyScheduleView(ScheduleView schedule, double distanceKm) {
+        this.schedule = schedule;
+        this.distanceKm = distanceKm;
+    }
+
+    /**
+     * Getter for the schedule entry
+     *
+     * @return schedule
+     */
+    @JsonUnwrapped
+    public ScheduleView getSchedule() {
+        return schedule;
+    }
+
+    /**
+     * Getter for the distance from the search center
+     *
+     * @return distance in kilometers
+     */
+    public double getDistanceKm() {
+        return distanceKm;
+    }
+}
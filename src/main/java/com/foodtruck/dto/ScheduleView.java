@@ -0,0 +1,161 @@
+package com.foodtruck.dto;
+
+import com.foodtruck.entities.Location;
+import com.foodtruck.entities.Schedule;
+import com.foodtruck.entities.Truck;
+import com.foodtruck.persistence.Projection;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import jakarta.persistence.criteria.Join;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Read-only view of a schedule entry with its truck and location, selected in one joined query
+ * instead of loading {@link Schedule}, {@link Truck} and {@link Location} entities.
+ * Serializes to the same JSON as the entity.
+ */
+public class ScheduleView {
+
+    /** Selects a ScheduleView from the schedules row joined to its truck and location */
+    public static final Projection<Schedule, ScheduleView> PROJECTION = Projection.of(ScheduleView.class,
+            (root, builder) -> {
+                Join<Schedule, Truck> truck = root.join("truck");
+                Join<Schedule, Location> location = root.join("location");
+                return builder.construct(ScheduleView.class,
+                        root.get("id"),
+                        truck.get("id"), truck.get("name"), truck.get("foodType"),
+                        location.get("id"), location.get("name"), location.get("address"), location.get("state"),
+                        location.get("zip"), location.get("country"), location.get("latitude"), location.get("longitude"),
+                        root.get("dayOfWeek"), root.get("date"), root.get("startTime"), root.get("endTime"));
+            });
+
+    /** Fields that can be asked for with a "fields" query parameter, in the order they are written */
+    public static final List<String> FIELDS = List.of("id",
+            "truck.id", "truck.name", "truck.foodType",
+            "location.id", "location.name", "location.address", "location.state",
+            "location.zip", "location.country", "location.latitude", "location.longitude",
+            "dayOfWeek", "date", "startTime", "endTime");
+
+    /** Unique identifier for the schedule */
+    private final int id;
+
+    /** Truck assigned to this schedule */
+    private final TruckView truck;
+
+    /** Location assigned to this schedule */
+    private final LocationView location;
+
+    /** Day of the week for this schedule (e.g., Monday) */
+    private final String dayOfWeek;
+
+    /** Date for this schedule */
+    @JsonSerialize(using = ToStringSerializer.class)
+    private final LocalDate date;
+
+    /** Start time for this schedule */
+    @JsonSerialize(using = ToStringSerializer.class)
+    private final LocalTime startTime;
+
+    /** End time for this schedule */
+    @JsonSerialize(using = ToStringSerializer.class)
+    private final LocalTime endTime;
+
+    /**
+     * Constructor used by {@link #PROJECTION}, taking the flat columns of the joined row.
+     */
+    public ScheduleView(int id,
+                        int truckId, String truckName, String foodType,
+                        int locationId, String locationName, String address, String state,
+                        int zip, String country, Double latitude, Double longitude,
+                        String dayOfWeek, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        this.id = id;
+        this.truck = new TruckView(truckId, truckName, foodType);
+        this.location = new LocationView(locationId, locationName, address, state, zip, country, latitude, longitude);
+        this.dayOfWeek = dayOfWeek;
+        this.date = date;
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+
+    /**
+     * Copies the fields of a loaded schedule entry, whose truck and location must be loaded too.
+     *
+     * @param schedule The schedule entity
+     * @return The view of the schedule entry
+     */
+    public static ScheduleView of(Schedule schedule) {
+        Truck truck = schedule.getTruck();
+        Location location = schedule.getLocation();
+        return new ScheduleView(schedule.getId(),
+                truck.getId(), truck.getName(), truck.getFoodType(),
+                location.getId(), location.getName(), location.getAddress(), location.getState(),
+                location.getZip(), location.getCountry(), location.getLatitude(), location.getLongitude(),
+                schedule.getDayOfWeek(), schedule.getDate(), schedule.getStartTime(), schedule.getEndTime());
+    }
+
+    /**
+     * Getter for id
+     *
+     * @return id
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Getter for truck
+     *
+     * @return truck
+     */
+    public TruckView getTruck() {
+        return truck;
+    }
+
+    /**
+     * Getter for location
+     *
+     * @return location
+     */
+    public LocationView getLocation() {
+        return location;
+    }
+
+    /**
+     * Getter for day of the week
+     *
+     * @return day of the week
+     */
+    public String getDayOfWeek() {
+        return dayOfWeek;
+    }
+
+    /**
+     * Getter for date
+     *
+     * @return date
+     */
+    public LocalDate getDate() {
+        return date;
+    }
+
+    /**
+     * Getter for start time
+     *
+     * @return startTime
+     */
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Getter for end time
+     *
+     * @return endTime
+     */
+    public LocalTime getEndTime() {
+        return endTime;
+    }
+}
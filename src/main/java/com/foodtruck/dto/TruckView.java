@@ -0,0 +1,80 @@
+package com.foodtruck.dto;
+
+import com.foodtruck.entities.Truck;
+import com.foodtruck.persistence.Projection;
+
+import java.util.List;
+
+/**
+ * Read-only view of a food truck, selected column by column instead of loading a {@link Truck} entity.
+ * Serializes to the same JSON as the entity.
+ */
+public class TruckView {
+
+    /** Selects a TruckView straight from the food_trucks columns */
+    public static final Projection<Truck, TruckView> PROJECTION = Projection.of(TruckView.class,
+            (root, builder) -> builder.construct(TruckView.class,
+                    root.get("id"), root.get("name"), root.get("foodType")));
+
+    /** Fields that can be asked for with a "fields" query parameter, in the order they are written */
+    public static final List<String> FIELDS = List.of("id", "name", "foodType");
+
+    /** Unique identifier for the truck */
+    private final int id;
+
+    /** Name of the food truck */
+    private final String name;
+
+    /** Type of food served by the truck */
+    private final String foodType;
+
+    /**
+     * Constructor that sets all variables
+     *
+     * @param id - truck id
+     * @param name - truck name
+     * @param foodType - truck food type
+     */
+    public TruckView(int id, String name, String foodType) {
+        this.id = id;
+        this.name = name;
+        this.foodType = foodType;
+    }
+
+    /**
+     * Copies the fields of a loaded truck.
+     *
+     * @param truck The truck entity
+     * @return The view of the truck
+     */
+    public static TruckView of(Truck truck) {
+        return new TruckView(truck.getId(), truck.getName(), truck.getFoodType());
+    }
+
+    /**
+     * Getter for the truck id
+     *
+     * @return id
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Getter for the truck name
+     *
+     * @return name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Getter for the truck's food type
+     *
+     * @return foodType
+     */
+    public String getFoodType() {
+        return foodType;
+    }
+}
@@ -3,6 +3,8 @@ package com.foodtruck.entities;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.GenericGenerator;
 
 import java.util.List;
@@ -10,9 +12,12 @@ import java.util.List;
 /**
  * This entity maps to the "locations" table in the database.
  * A location can have multiple schedules associated with it.
+ * Locations rarely change, so they are kept in the second-level cache (see ehcache.xml).
  */
 @Entity
-@Table(name = "locations")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "locations")
+@Table(name = "locations", indexes = @Index(name = "idx_locations_lat_lon", columnList = "latitude, longitude"))
 public class Location {
 
     /** Unique identifier for the location */
@@ -1,17 +1,37 @@
 package com.foodtruck.entities;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.foodtruck.json.DateTimeFormats;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import org.hibernate.annotations.GenericGenerator;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
+
 /**
  * This entity maps to the "schedules" table in the database.
  * Each schedule links a Truck to a Location and includes day, date, and start/end times.
+ * The truck and location are loaded lazily; queries that need them should fetch
+ * the {@link #WITH_TRUCK_AND_LOCATION} graph so everything comes back in one joined select.
+ * Date and times are typed columns written as ISO-8601 in JSON; see {@link DateTimeFormats} for accepted input.
  */
 @Entity
-@Table(name = "schedules")
+@Table(name = "schedules", indexes = @Index(name = "idx_schedules_date_location", columnList = "date, location_id"))
+@NamedEntityGraph(
+        name = Schedule.WITH_TRUCK_AND_LOCATION,
+        attributeNodes = {
+                @NamedAttributeNode("truck"),
+                @NamedAttributeNode("location")
+        }
+)
 public class Schedule {
 
+    /** Name of the entity graph that fetches the truck and location with the schedule */
+    public static final String WITH_TRUCK_AND_LOCATION = "Schedule.withTruckAndLocation";
+
     /** Unique identifier for the schedule */
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO, generator="native")
@@ -20,12 +40,12 @@ public class Schedule {
     private int id;
 
     /** Truck assigned to this schedule */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "truck_id")
     private Truck truck;
 
     /** Location assigned to this schedule */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "location_id")
     private Location location;
 
@@ -35,15 +55,24 @@ public class Schedule {
 
     /** Date for this schedule  */
     @Column(name = "date")
-    private String date;
+    @JsonSerialize(using = ToStringSerializer.class)
+    @JsonDeserialize(using = DateTimeFormats.DateDeserializer.class)
+    @Schema(type = "string", format = "date", example = "2026-05-07")
+    private LocalDate date;
 
     /** Start time for this schedule  */
     @Column(name = "start_time")
-    private String startTime;
+    @JsonSerialize(using = ToStringSerializer.class)
+    @JsonDeserialize(using = DateTimeFormats.TimeDeserializer.class)
+    @Schema(type = "string", example = "08:00")
+    private LocalTime startTime;
 
     /** End time for this schedule */
     @Column(name = "end_time")
-    private String endTime;
+    @JsonSerialize(using = ToStringSerializer.class)
+    @JsonDeserialize(using = DateTimeFormats.TimeDeserializer.class)
+    @Schema(type = "string", example = "16:00")
+    private LocalTime endTime;
 
     /**
      * Default constructor
@@ -63,7 +92,7 @@ public class Schedule {
      * @param startTime - state time
      * @param endTime - end time
      */
-    public Schedule(Truck truck, Location location, String dayOfWeek, String date, String startTime, String endTime ) {
+    public Schedule(Truck truck, Location location, String dayOfWeek, LocalDate date, LocalTime startTime, LocalTime endTime) {
         this.truck = truck;
         this.location = location;
         this.dayOfWeek = dayOfWeek;
@@ -139,16 +168,16 @@ public class Schedule {
      *
      * @return date
      */
-    public String getDate() {
+    public LocalDate getDate() {
         return date;
     }
 
     /**
      * Setter for date
      *
-     * @param date - a date (e.g. 5/7/2026)
+     * @param date - a date (e.g. 2026-05-07)
      */
-    public void setDate(String date) {
+    public void setDate(LocalDate date) {
         this.date = date;
     }
 
@@ -157,16 +186,16 @@ public class Schedule {
      *
      * @return startTime
      */
-    public String getStartTime() {
+    public LocalTime getStartTime() {
         return startTime;
     }
 
     /**
      * Setter for start time
      *
-     * @param startTime - start time (e.g. 8:00am)
+     * @param startTime - start time (e.g. 08:00)
      */
-    public void setStartTime(String startTime) {
+    public void setStartTime(LocalTime startTime) {
         this.startTime = startTime;
     }
 
@@ -175,16 +204,16 @@ public class Schedule {
      *
      * @return endTime
      */
-    public String getEndTime() {
+    public LocalTime getEndTime() {
         return endTime;
     }
 
     /**
      * Setter for end time
      *
-     * @param endTime - end time (e.g. 4:00pm)
+     * @param endTime - end time (e.g. 16:00)
      */
-    public void setEndTime(String endTime) {
+    public void setEndTime(LocalTime endTime) {
         this.endTime = endTime;
     }
 
@@ -3,6 +3,8 @@ package com.foodtruck.entities;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.GenericGenerator;
 
 import java.util.List;
@@ -11,8 +13,11 @@ import java.util.List;
 /**
  * This entity maps to the "food_trucks" table in the database.
  * Each truck can have multiple schedules associated with it.
+ * Trucks rarely change, so they are kept in the second-level cache (see ehcache.xml).
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "trucks")
 @Table(name = "food_trucks")
 public class Truck {
 
@@ -0,0 +1,90 @@
+package com.foodtruck.index;
+
+/**
+ * A latitude/longitude rectangle that contains every point within a radius of a center.
+ * It is a cheap prefilter: points inside the box still need an exact distance check.
+ */
+public class BoundingBox {
+
+    private final double minLatitude;
+    private final double maxLatitude;
+    private final double minLongitude;
+    private final double maxLongitude;
+
+    private BoundingBox(double minLatitude, double maxLatitude, double minLongitude, double maxLongitude) {
+        this.minLatitude = minLatitude;
+        this.maxLatitude = maxLatitude;
+        this.minLongitude = minLongitude;
+        this.maxLongitude = maxLongitude;
+    }
+
+    /**
+     * Builds the box around a circle.
+     * Near the poles or across the 180th meridian the box widens to all longitudes,
+     * which is never wrong, just less selective.
+     *
+     * @param lat      Latitude of the center in degrees
+     * @param lon      Longitude of the center in degrees
+     * @param radiusKm Radius in kilometers
+     * @return The bounding box
+     */
+    public static BoundingBox around(double lat, double lon, double radiusKm) {
+        double dLat = Math.toDegrees(radiusKm / GeoPoint.EARTH_RADIUS_KM);
+        double minLat = Math.max(-90, lat - dLat);
+        double maxLat = Math.min(90, lat + dLat);
+
+        double cos = Math.cos(Math.toRadians(Math.max(Math.abs(minLat), Math.abs(maxLat))));
+        double dLon = cos <= 0 ? 180 : Math.toDegrees(radiusKm / (GeoPoint.EARTH_RADIUS_KM * cos));
+        if (dLon >= 180 || lon - dLon < -180 || lon + dLon > 180) {
+            return new BoundingBox(minLat, maxLat, -180, 180);
+        }
+        return new BoundingBox(minLat, maxLat, lon - dLon, lon + dLon);
+    }
+
+    /**
+     * Returns true if a point lies inside the box, edges included.
+     *
+     * @param point The point
+     * @return true if inside
+     */
+    public boolean contains(GeoPoint point) {
+        return point.getLatitude() >= minLatitude && point.getLatitude() <= maxLatitude
+                && point.getLongitude() >= minLongitude && point.getLongitude() <= maxLongitude;
+    }
+
+    /**
+     * Getter for the southern edge
+     *
+     * @return minimum latitude
+     */
+    public double getMinLatitude() {
+        return minLatitude;
+    }
+
+    /**
+     * Getter for the northern edge
+     *
+     * @return maximum latitude
+     */
+    public double getMaxLatitude() {
+        return maxLatitude;
+    }
+
+    /**
+     * Getter for the western edge
+     *
+     * @return minimum longitude
+     */
+    public double getMinLongitude() {
+        return minLongitude;
+    }
+
+    /**
+     * Getter for the eastern edge
+     *
+     * @return maximum longitude
+     */
+    public double getMaxLongitude() {
+        return maxLongitude;
+    }
+}
@@ -0,0 +1,75 @@
+package com.foodtruck.index;
+
+/**
+ * A location's id and coordinates, as kept in the spatial index.
+ */
+public class GeoPoint {
+
+    /** Mean radius of the earth in kilometers */
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    /** Id of the location */
+    private final int id;
+
+    /** Latitude in degrees */
+    private final double latitude;
+
+    /** Longitude in degrees */
+    private final double longitude;
+
+    /**
+     * Constructor that sets all variables; also used by {@link LocationIndex#POINTS}.
+     *
+     * @param id        - location id
+     * @param latitude  - latitude in degrees
+     * @param longitude - longitude in degrees
+     */
+    public GeoPoint(int id, Double latitude, Double longitude) {
+        this.id = id;
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    /**
+     * Getter for id
+     *
+     * @return id
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Getter for latitude
+     *
+     * @return latitude
+     */
+    public double getLatitude() {
+        return latitude;
+    }
+
+    /**
+     * Getter for longitude
+     *
+     * @return longitude
+     */
+    public double getLongitude() {
+        return longitude;
+    }
+
+    /**
+     * Great-circle distance to a coordinate, using the haversine formula.
+     *
+     * @param lat Latitude in degrees
+     * @param lon Longitude in degrees
+     * @return Distance in kilometers
+     */
+    public double distanceKm(double lat, double lon) {
+        double dLat = Math.toRadians(lat - latitude);
+        double dLon = Math.toRadians(lon - longitude);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(latitude)) * Math.cos(Math.toRadians(lat))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
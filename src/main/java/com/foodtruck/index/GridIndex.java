@@ -0,0 +1,178 @@
+package com.foodtruck.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory spatial index that buckets points into a fixed grid of latitude/longitude cells.
+ * A radius search only visits the cells under the query's {@link BoundingBox}, so its cost depends on
+ * how many points are nearby, not on how many are indexed.
+ * Reads are lock-free; writes are serialized.
+ */
+public class GridIndex {
+
+    /** Default cell size; 0.01 degrees is about 1.1 km north to south */
+    public static final double DEFAULT_CELL_DEGREES = 0.01;
+
+    /** Cells across the full longitude range, used to build cell keys */
+    private final long columns;
+
+    private final double cellDegrees;
+
+    /** Points by cell key, then by id */
+    private final Map<Long, Map<Integer, GeoPoint>> cells = new ConcurrentHashMap<>();
+
+    /** Every point by id, to find a point's old cell when it moves or is removed */
+    private final Map<Integer, GeoPoint> points = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an index with {@link #DEFAULT_CELL_DEGREES} cells.
+     */
+    public GridIndex() {
+        this(DEFAULT_CELL_DEGREES);
+    }
+
+    /**
+     * Creates an index.
+     *
+     * @param cellDegrees Width and height of a cell in degrees
+     */
+    public GridIndex(double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+        this.columns = (long) Math.ceil(360 / cellDegrees) + 1;
+    }
+
+    /**
+     * Adds a point, replacing any point with the same id.
+     *
+     * @param point The point
+     */
+    public synchronized void put(GeoPoint point) {
+        remove(point.getId());
+        points.put(point.getId(), point);
+        cells.computeIfAbsent(key(point.getLatitude(), point.getLongitude()), k -> new ConcurrentHashMap<>())
+                .put(point.getId(), point);
+    }
+
+    /**
+     * Removes the point with an id, if present.
+     *
+     * @param id The point id
+     */
+    public synchronized void remove(int id) {
+        GeoPoint old = points.remove(id);
+        if (old == null) return;
+        long key = key(old.getLatitude(), old.getLongitude());
+        Map<Integer, GeoPoint> cell = cells.get(key);
+        if (cell != null) {
+            cell.remove(id);
+            if (cell.isEmpty()) cells.remove(key);
+        }
+    }
+
+    /**
+     * Number of points in the index.
+     *
+     * @return size
+     */
+    public int size() {
+        return points.size();
+    }
+
+    /**
+     * Finds the points within a radius, nearest first.
+     *
+     * @param lat      Latitude of the center in degrees
+     * @param lon      Longitude of the center in degrees
+     * @param radiusKm Radius in kilometers
+     * @return The matching points with their distances, nearest first
+     */
+    public List<Hit> near(double lat, double lon, double radiusKm) {
+        BoundingBox box = BoundingBox.around(lat, lon, radiusKm);
+        long firstRow = row(box.getMinLatitude());
+        long lastRow = row(box.getMaxLatitude());
+        long firstColumn = column(box.getMinLongitude());
+        long lastColumn = column(box.getMaxLongitude());
+
+        List<Hit> hits = new ArrayList<>();
+        // Wide searches touch more cells than there are points, so walk the points instead
+        if ((lastRow - firstRow + 1) * (lastColumn - firstColumn + 1) > cells.size()) {
+            for (Map<Integer, GeoPoint> cell : cells.values()) collect(cell, box, lat, lon, radiusKm, hits);
+        } else {
+            for (long row = firstRow; row <= lastRow; row++) {
+                for (long column = firstColumn; column <= lastColumn; column++) {
+                    Map<Integer, GeoPoint> cell = cells.get(row * columns + column);
+                    if (cell != null) collect(cell, box, lat, lon, radiusKm, hits);
+                }
+            }
+        }
+        hits.sort(Comparator.comparingDouble(Hit::getDistanceKm));
+        return hits;
+    }
+
+    /**
+     * Adds the points of one cell that are within the radius.
+     * The box check is a few comparisons and skips the trigonometry for most points outside the circle.
+     */
+    private static void collect(Map<Integer, GeoPoint> cell, BoundingBox box, double lat, double lon, double radiusKm,
+                                List<Hit> hits) {
+        for (GeoPoint point : cell.values()) {
+            if (!box.contains(point)) continue;
+            double distance = point.distanceKm(lat, lon);
+            if (distance <= radiusKm) hits.add(new Hit(point, distance));
+        }
+    }
+
+    private long key(double lat, double lon) {
+        return row(lat) * columns + column(lon);
+    }
+
+    private long row(double lat) {
+        return (long) Math.floor((lat + 90) / cellDegrees);
+    }
+
+    private long column(double lon) {
+        return (long) Math.floor((lon + 180) / cellDegrees);
+    }
+
+    /**
+     * A point found by a radius search, with its distance from the center.
+     */
+    public static class Hit {
+
+        private final GeoPoint point;
+        private final double distanceKm;
+
+        /**
+         * Creates a hit.
+         *
+         * @param point      The point
+         * @param distanceKm Distance from the center in kilometers
+         */
+        public Hit(GeoPoint point, double distanceKm) {
+            this.point = point;
+            this.distanceKm = distanceKm;
+        }
+
+        /**
+         * Getter for the point
+         *
+         * @return point
+         */
+        public GeoPoint getPoint() {
+            return point;
+        }
+
+        /**
+         * Getter for the distance from the center
+         *
+         * @return distance in kilometers
+         */
+        public double getDistanceKm() {
+            return distanceKm;
+        }
+    }
+}
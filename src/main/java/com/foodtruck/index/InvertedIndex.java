@@ -0,0 +1,172 @@
+package com.foodtruck.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * In-memory full-text index: for every term, the documents that contain it and how much it counts in each.
+ * A search only reads the postings of the query's terms, so its cost depends on how many documents
+ * match, not on how many are indexed.
+ * Reads are lock-free; writes are serialized.
+ *
+ * <p>Ranking is TF-IDF: a term counts more the more often it appears in a short field of a document,
+ * the higher that field is weighted, and the fewer documents contain it.</p>
+ *
+ * @param <D> The document type
+ */
+public class InvertedIndex<D> {
+
+    /** Weight of each field, by field name */
+    private final Map<String, Double> fieldWeights;
+
+    /** Extracts the text of each field from a document */
+    private final Function<D, Map<String, String>> fields;
+
+    /** Documents by id */
+    private final Map<Integer, D> documents = new ConcurrentHashMap<>();
+
+    /** Distinct terms of each document, to find its postings when it changes or is removed */
+    private final Map<Integer, Set<String>> termsByDocument = new ConcurrentHashMap<>();
+
+    /** For every term, the weight of the term in each document that contains it */
+    private final Map<String, Map<Integer, Double>> postings = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an index.
+     *
+     * @param fieldWeights Weight of each field, by field name
+     * @param fields       Extracts the text of each field from a document; missing fields are skipped
+     */
+    public InvertedIndex(Map<String, Double> fieldWeights, Function<D, Map<String, String>> fields) {
+        this.fieldWeights = fieldWeights;
+        this.fields = fields;
+    }
+
+    /**
+     * Adds a document, replacing any document with the same id.
+     *
+     * @param id       The document id
+     * @param document The document
+     */
+    public synchronized void put(int id, D document) {
+        remove(id);
+        Map<String, Double> weights = new HashMap<>();
+        for (Map.Entry<String, String> field : fields.apply(document).entrySet()) {
+            List<String> terms = TextAnalyzer.terms(field.getValue());
+            if (terms.isEmpty()) continue;
+            Map<String, Integer> counts = new HashMap<>();
+            for (String term : terms) counts.merge(term, 1, Integer::sum);
+            double fieldWeight = fieldWeights.getOrDefault(field.getKey(), 1.0) / Math.sqrt(terms.size());
+            counts.forEach((term, count) -> weights.merge(term, fieldWeight * (1 + Math.log(count)), Double::sum));
+        }
+
+        documents.put(id, document);
+        termsByDocument.put(id, weights.keySet());
+        weights.forEach((term, weight) ->
+                postings.computeIfAbsent(term, k -> new ConcurrentHashMap<>()).put(id, weight));
+    }
+
+    /**
+     * Removes the document with an id, if present.
+     *
+     * @param id The document id
+     */
+    public synchronized void remove(int id) {
+        documents.remove(id);
+        Set<String> terms = termsByDocument.remove(id);
+        if (terms == null) return;
+        for (String term : terms) {
+            Map<Integer, Double> documentWeights = postings.get(term);
+            if (documentWeights != null) {
+                documentWeights.remove(id);
+                if (documentWeights.isEmpty()) postings.remove(term);
+            }
+        }
+    }
+
+    /**
+     * Gets a document by id.
+     *
+     * @param id The document id
+     * @return The document, or null if it is not indexed
+     */
+    public D get(int id) {
+        return documents.get(id);
+    }
+
+    /**
+     * Number of documents in the index.
+     *
+     * @return size
+     */
+    public int size() {
+        return documents.size();
+    }
+
+    /**
+     * Finds the documents that contain any of the query's terms, best match first.
+     *
+     * @param query The query text
+     * @return The matching documents' ids and scores, by descending score, then ascending id
+     */
+    public List<Hit> search(String query) {
+        Map<Integer, Double> scores = new HashMap<>();
+        int total = Math.max(1, documents.size());
+        for (String term : new LinkedHashSet<>(TextAnalyzer.terms(query))) {
+            Map<Integer, Double> documentWeights = postings.get(term);
+            if (documentWeights == null) continue;
+            double idf = Math.log(1 + (double) total / documentWeights.size());
+            documentWeights.forEach((id, weight) -> scores.merge(id, idf * weight, Double::sum));
+        }
+
+        List<Hit> hits = new ArrayList<>(scores.size());
+        scores.forEach((id, score) -> hits.add(new Hit(id, score)));
+        hits.sort(Comparator.comparingDouble(Hit::getScore).reversed().thenComparingInt(Hit::getId));
+        return hits;
+    }
+
+    /**
+     * A document found by a search, with its relevance score.
+     */
+    public static class Hit {
+
+        private final int id;
+        private final double score;
+
+        /**
+         * Creates a hit.
+         *
+         * @param id    The document id
+         * @param score The relevance score; higher is better
+         */
+        public Hit(int id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        /**
+         * Getter for the document id
+         *
+         * @return id
+         */
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * Getter for the relevance score
+         *
+         * @return score
+         */
+        public double getScore() {
+            return score;
+        }
+    }
+}
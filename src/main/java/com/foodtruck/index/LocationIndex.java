@@ -0,0 +1,117 @@
+package com.foodtruck.index;
+
+import com.foodtruck.entities.Location;
+import com.foodtruck.persistence.GenericDao;
+import com.foodtruck.persistence.Projection;
+import com.foodtruck.persistence.Specification;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Spatial index over the coordinates of every {@link Location}, for "what is near me" queries.
+ * Until it is loaded, searches fall back to a bounding-box query in SQL.
+ */
+public class LocationIndex extends SyncedIndex<Location, GeoPoint, GridIndex> {
+
+    /** Selects just the id and coordinates of a location */
+    static final Projection<Location, GeoPoint> POINTS = Projection.of(GeoPoint.class,
+            (root, builder) -> builder.construct(GeoPoint.class,
+                    root.get("id"), root.get("latitude"), root.get("longitude")));
+
+    private static final LocationIndex INSTANCE = new LocationIndex(new GenericDao<>(Location.class));
+
+    private final GenericDao<Location> locationDao;
+
+    /**
+     * Creates an index and subscribes it to location writes.
+     *
+     * @param locationDao DAO used to load the locations
+     */
+    LocationIndex(GenericDao<Location> locationDao) {
+        super(Location.class);
+        this.locationDao = locationDao;
+    }
+
+    /**
+     * Gets the shared index.
+     *
+     * @return the location index
+     */
+    public static LocationIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Finds locations within a radius, nearest first.
+     * While the index is cold this starts loading it in the background and answers from the database.
+     *
+     * @param lat      Latitude of the center in degrees
+     * @param lon      Longitude of the center in degrees
+     * @param radiusKm Radius in kilometers
+     * @return The matching locations with their distances, nearest first
+     */
+    public List<GridIndex.Hit> near(double lat, double lon, double radiusKm) {
+        GridIndex ready = loadedOrNull();
+        if (ready != null) return ready.near(lat, lon, radiusKm);
+        return nearFromDatabase(lat, lon, radiusKm);
+    }
+
+    @Override
+    protected GridIndex newIndex() {
+        return new GridIndex();
+    }
+
+    @Override
+    protected List<GeoPoint> readAll() {
+        return locationDao.findView(POINTS,
+                (root, builder) -> builder.and(builder.isNotNull(root.get("latitude")),
+                        builder.isNotNull(root.get("longitude"))),
+                List.of(), null);
+    }
+
+    @Override
+    protected GeoPoint valueOf(Location location) {
+        if (location.getLatitude() == null || location.getLongitude() == null) return null;
+        return new GeoPoint(location.getId(), location.getLatitude(), location.getLongitude());
+    }
+
+    @Override
+    protected int idOf(Location location) {
+        return location.getId();
+    }
+
+    @Override
+    protected int valueId(GeoPoint point) {
+        return point.getId();
+    }
+
+    @Override
+    protected void put(GridIndex index, GeoPoint point) {
+        index.put(point);
+    }
+
+    @Override
+    protected void remove(GridIndex index, int id) {
+        index.remove(id);
+    }
+
+    /**
+     * Answers a search with a bounding-box query, then checks the exact distance of each candidate.
+     */
+    private List<GridIndex.Hit> nearFromDatabase(double lat, double lon, double radiusKm) {
+        BoundingBox box = BoundingBox.around(lat, lon, radiusKm);
+        Specification<Location> inBox = Specification.<Location, Double>range("latitude",
+                        box.getMinLatitude(), box.getMaxLatitude())
+                .and(Specification.range("longitude", box.getMinLongitude(), box.getMaxLongitude()));
+
+        List<GridIndex.Hit> hits = new ArrayList<>();
+        for (GeoPoint point : locationDao.findView(POINTS, inBox, List.of(), null)) {
+            double distance = point.distanceKm(lat, lon);
+            if (distance <= radiusKm) hits.add(new GridIndex.Hit(point, distance));
+        }
+        hits.sort(Comparator.comparingDouble(GridIndex.Hit::getDistanceKm));
+        return hits;
+    }
+}
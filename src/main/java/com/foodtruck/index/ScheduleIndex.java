@@ -0,0 +1,92 @@
+package com.foodtruck.index;
+
+import com.foodtruck.entities.Schedule;
+import com.foodtruck.persistence.GenericDao;
+import com.foodtruck.persistence.Projection;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Index of when every {@link Schedule} entry is open, for "who is serving right now" queries.
+ * The first query waits for the index to load.
+ */
+public class ScheduleIndex extends SyncedIndex<Schedule, TimeWindow, TimeBucketIndex> {
+
+    /** Selects just the id, date and times of a schedule entry */
+    static final Projection<Schedule, TimeWindow> WINDOWS = Projection.of(TimeWindow.class,
+            (root, builder) -> builder.construct(TimeWindow.class,
+                    root.get("id"), root.get("date"), root.get("startTime"), root.get("endTime")));
+
+    private static final ScheduleIndex INSTANCE = new ScheduleIndex(new GenericDao<>(Schedule.class));
+
+    private final GenericDao<Schedule> scheduleDao;
+
+    /**
+     * Creates an index and subscribes it to schedule writes.
+     *
+     * @param scheduleDao DAO used to load the schedules
+     */
+    ScheduleIndex(GenericDao<Schedule> scheduleDao) {
+        super(Schedule.class);
+        this.scheduleDao = scheduleDao;
+    }
+
+    /**
+     * Gets the shared index.
+     *
+     * @return the schedule index
+     */
+    public static ScheduleIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Finds the schedule entries open at an instant.
+     *
+     * @param at The instant, in the schedules' local time
+     * @return The open windows, in no particular order
+     */
+    public List<TimeWindow> openAt(LocalDateTime at) {
+        return loaded().openAt(at);
+    }
+
+    @Override
+    protected TimeBucketIndex newIndex() {
+        return new TimeBucketIndex();
+    }
+
+    @Override
+    protected List<TimeWindow> readAll() {
+        return scheduleDao.findView(WINDOWS,
+                (root, builder) -> builder.and(builder.isNotNull(root.get("date")),
+                        builder.isNotNull(root.get("startTime")), builder.isNotNull(root.get("endTime"))),
+                List.of(), null);
+    }
+
+    @Override
+    protected TimeWindow valueOf(Schedule schedule) {
+        if (schedule.getDate() == null || schedule.getStartTime() == null || schedule.getEndTime() == null) return null;
+        return new TimeWindow(schedule.getId(), schedule.getDate(), schedule.getStartTime(), schedule.getEndTime());
+    }
+
+    @Override
+    protected int idOf(Schedule schedule) {
+        return schedule.getId();
+    }
+
+    @Override
+    protected int valueId(TimeWindow window) {
+        return window.getId();
+    }
+
+    @Override
+    protected void put(TimeBucketIndex index, TimeWindow window) {
+        index.put(window);
+    }
+
+    @Override
+    protected void remove(TimeBucketIndex index, int id) {
+        index.remove(id);
+    }
+}
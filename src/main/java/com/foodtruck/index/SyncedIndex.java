@@ -0,0 +1,225 @@
+package com.foodtruck.index;
+
+import com.foodtruck.persistence.EntityChangeListener;
+import com.foodtruck.persistence.EntityChanges;
+import com.foodtruck.persistence.GenericDao;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Base class for in-memory indexes over an entity table.
+ * The index is filled from the database on first use and kept in sync afterwards through
+ * {@link EntityChanges}, so it sees every write made through {@link GenericDao}.
+ * Writes that commit while a load is running are applied to the new index and win over the loaded rows.
+ *
+ * @param <T> The entity type
+ * @param <V> The value kept in the index for one entity
+ * @param <I> The index structure
+ */
+public abstract class SyncedIndex<T, V, I> implements EntityChangeListener<T> {
+
+    /** Every index created, so tests can reset them all */
+    private static final List<SyncedIndex<?, ?, ?>> instances = new CopyOnWriteArrayList<>();
+
+    private final Logger logger = LogManager.getLogger(this.getClass());
+
+    /** The loaded index, or null while cold */
+    private volatile I index;
+
+    /** The index being loaded, or null if no load is running */
+    private I loading;
+
+    /** The running load, or null if no load is running */
+    private CompletableFuture<Void> loadTask;
+
+    /** Ids written while {@link #loading} is filled; the loaded rows for these are older and skipped */
+    private final Set<Integer> touchedWhileLoading = new HashSet<>();
+
+    /**
+     * Creates an index and subscribes it to writes of the entity type.
+     *
+     * @param type The entity class
+     */
+    protected SyncedIndex(Class<T> type) {
+        EntityChanges.register(type, this);
+        instances.add(this);
+    }
+
+    /**
+     * Drops every index, so each reloads on next use.
+     * Needed after tables are changed without going through Hibernate.
+     */
+    public static void clearAll() {
+        for (SyncedIndex<?, ?, ?> instance : instances) instance.clear();
+    }
+
+    /** @return a new, empty index structure */
+    protected abstract I newIndex();
+
+    /** @return the values for every entity that belongs in the index, read from the database */
+    protected abstract List<V> readAll();
+
+    /**
+     * Converts an entity that was just written.
+     *
+     * @param entity The entity
+     * @return The value to index, or null if the entity should not be in the index
+     */
+    protected abstract V valueOf(T entity);
+
+    /**
+     * @param entity The entity
+     * @return the entity's id
+     */
+    protected abstract int idOf(T entity);
+
+    /**
+     * @param value A value
+     * @return the id of the entity the value came from
+     */
+    protected abstract int valueId(V value);
+
+    /**
+     * Adds a value to an index structure, replacing any value with the same id.
+     *
+     * @param index The index structure
+     * @param value The value
+     */
+    protected abstract void put(I index, V value);
+
+    /**
+     * Removes the value with an id from an index structure, if present.
+     *
+     * @param index The index structure
+     * @param id    The entity id
+     */
+    protected abstract void remove(I index, int id);
+
+    /**
+     * Returns the loaded index without waiting.
+     * While the index is cold this starts loading it in the background and returns null.
+     *
+     * @return The index, or null if it is not loaded yet
+     */
+    protected I loadedOrNull() {
+        I ready = index;
+        if (ready == null) startLoading();
+        return ready;
+    }
+
+    /**
+     * Returns the index, loading it first if needed.
+     *
+     * @return The index
+     * @throws IllegalStateException if the load failed
+     */
+    protected I loaded() {
+        I ready = index;
+        if (ready != null) return ready;
+        load();
+        ready = index;
+        if (ready == null) throw new IllegalStateException(getClass().getSimpleName() + " could not be loaded");
+        return ready;
+    }
+
+    /**
+     * Returns true once the index is loaded.
+     *
+     * @return true if loaded
+     */
+    public boolean isLoaded() {
+        return index != null;
+    }
+
+    /**
+     * Loads the index, waiting until it is done.
+     * If a load is already running this waits for that one instead of starting another.
+     */
+    public void load() {
+        startLoading().join();
+    }
+
+    /**
+     * Drops the index, so the next use reloads it.
+     */
+    public synchronized void clear() {
+        index = null;
+        loading = null;
+        loadTask = null;
+    }
+
+    @Override
+    public synchronized void saved(T entity) {
+        V value = valueOf(entity);
+        if (value == null) {
+            deleted(entity);
+            return;
+        }
+        if (index != null) put(index, value);
+        if (loading != null) {
+            put(loading, value);
+            touchedWhileLoading.add(valueId(value));
+        }
+    }
+
+    @Override
+    public synchronized void deleted(T entity) {
+        int id = idOf(entity);
+        if (index != null) remove(index, id);
+        if (loading != null) {
+            remove(loading, id);
+            touchedWhileLoading.add(id);
+        }
+    }
+
+    /**
+     * Starts loading the index in the background unless it is loaded or already loading.
+     *
+     * @return The running load, or a completed future if the index is loaded
+     */
+    private synchronized CompletableFuture<Void> startLoading() {
+        if (index != null) return CompletableFuture.completedFuture(null);
+        if (loadTask == null) {
+            I fresh = newIndex();
+            loading = fresh;
+            touchedWhileLoading.clear();
+            loadTask = CompletableFuture.runAsync(() -> fill(fresh));
+        }
+        return loadTask;
+    }
+
+    /**
+     * Reads every value into a new index and, unless the index was cleared meanwhile, starts using it.
+     *
+     * @param fresh The index to fill, already receiving writes that happen during the load
+     */
+    private void fill(I fresh) {
+        try {
+            List<V> values = readAll();
+            synchronized (this) {
+                if (loading != fresh) return;
+                for (V value : values) {
+                    if (!touchedWhileLoading.contains(valueId(value))) put(fresh, value);
+                }
+                index = fresh;
+                loading = null;
+                loadTask = null;
+            }
+            logger.info("Loaded " + values.size() + " rows into " + getClass().getSimpleName());
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                if (loading == fresh) {
+                    loading = null;
+                    loadTask = null;
+                }
+            }
+            logger.error("Failed to load " + getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.foodtruck.index;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Turns text into search terms: lowercase, accents removed, split on anything that is not a letter
+ * or digit, common stop words dropped, and plurals reduced to their singular ("Tacos" becomes "taco").
+ * Documents and queries go through the same analysis, so "burger" finds "Burgers".
+ */
+public final class TextAnalyzer {
+
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}']+");
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "the", "of", "n", "on", "in", "at", "to");
+
+    private TextAnalyzer() {
+    }
+
+    /**
+     * Splits text into terms.
+     *
+     * @param text The text, may be null
+     * @return The terms in order, possibly with repeats
+     */
+    public static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) return terms;
+        String normalized = ACCENTS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        for (String token : SEPARATORS.split(normalized)) {
+            if (token.endsWith("'s")) token = token.substring(0, token.length() - 2);
+            token = token.replace("'", "");
+            if (token.isEmpty() || STOP_WORDS.contains(token)) continue;
+            terms.add(stem(token));
+        }
+        return terms;
+    }
+
+    /**
+     * Minimal English plural stemmer that brings a plural and its singular to the same term:
+     * "tacos" to "taco", "pastries" to "pastry", "sandwiches" to "sandwich", "potatoes" to "potato",
+     * and "cookies" and "cookie" both to "cooky". "bus" and "glass" stay.
+     *
+     * @param word A lowercase word
+     * @return The stem
+     */
+    static String stem(String word) {
+        int length = word.length();
+        if (length < 3) return word;
+        // "-ie" ends the same way as "-ies" so "pie" meets "pies" at "py", as "pastry" meets "pastries"
+        if (word.endsWith("ie") && isConsonant(word.charAt(length - 3))) return word.substring(0, length - 2) + "y";
+        if (word.charAt(length - 1) != 's') return word;
+        char beforeS = word.charAt(length - 2);
+        if (beforeS == 'u' || beforeS == 's') return word;
+        if (beforeS == 'e' && length > 3) {
+            String stem = word.substring(0, length - 2);
+            if (stem.endsWith("ch") || stem.endsWith("sh") || stem.endsWith("ss") || stem.endsWith("x")) return stem;
+            // "potatoes" and "heroes" lose "es", short words like "shoes" and "toes" only "s"
+            if (stem.endsWith("o")) return stem.length() > 3 ? stem : word.substring(0, length - 1);
+            char third = word.charAt(length - 3);
+            if (third == 'i' && isConsonant(word.charAt(length - 4))) return word.substring(0, length - 3) + "y";
+            if (third == 'i' || third == 'a' || third == 'e') return word;
+        }
+        return word.substring(0, length - 1);
+    }
+
+    private static boolean isConsonant(char c) {
+        return c != 'a' && c != 'e' && c != 'i' && c != 'o' && c != 'u';
+    }
+}
@@ -0,0 +1,89 @@
+package com.foodtruck.index;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of time windows, bucketed by hour.
+ * Each window is listed under every hour it overlaps, so finding the windows open at an instant
+ * only looks at the windows of that one hour, however many windows are indexed in total.
+ * Reads are lock-free; writes are serialized.
+ */
+public class TimeBucketIndex {
+
+    /** Windows by epoch hour, then by id */
+    private final Map<Long, Map<Integer, TimeWindow>> buckets = new ConcurrentHashMap<>();
+
+    /** Every window by id, to find a window's old buckets when it changes or is removed */
+    private final Map<Integer, TimeWindow> windows = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a window, replacing any window with the same id.
+     *
+     * @param window The window
+     */
+    public synchronized void put(TimeWindow window) {
+        remove(window.getId());
+        windows.put(window.getId(), window);
+        for (long hour = hourOf(window.getStart()); hour <= lastHourOf(window); hour++) {
+            buckets.computeIfAbsent(hour, k -> new ConcurrentHashMap<>()).put(window.getId(), window);
+        }
+    }
+
+    /**
+     * Removes the window with an id, if present.
+     *
+     * @param id The window id
+     */
+    public synchronized void remove(int id) {
+        TimeWindow old = windows.remove(id);
+        if (old == null) return;
+        for (long hour = hourOf(old.getStart()); hour <= lastHourOf(old); hour++) {
+            Map<Integer, TimeWindow> bucket = buckets.get(hour);
+            if (bucket != null) {
+                bucket.remove(id);
+                if (bucket.isEmpty()) buckets.remove(hour);
+            }
+        }
+    }
+
+    /**
+     * Number of windows in the index.
+     *
+     * @return size
+     */
+    public int size() {
+        return windows.size();
+    }
+
+    /**
+     * Finds the windows open at an instant.
+     *
+     * @param at The instant
+     * @return The open windows, in no particular order
+     */
+    public List<TimeWindow> openAt(LocalDateTime at) {
+        Map<Integer, TimeWindow> bucket = buckets.get(hourOf(at));
+        List<TimeWindow> open = new ArrayList<>();
+        if (bucket == null) return open;
+        for (TimeWindow window : bucket.values()) {
+            if (window.contains(at)) open.add(window);
+        }
+        return open;
+    }
+
+    /**
+     * The last hour a window overlaps; the end itself is exclusive.
+     */
+    private static long lastHourOf(TimeWindow window) {
+        return hourOf(window.getEnd().minusNanos(1));
+    }
+
+    private static long hourOf(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 3600);
+    }
+}
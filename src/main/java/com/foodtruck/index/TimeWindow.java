@@ -0,0 +1,72 @@
+package com.foodtruck.index;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * The time a schedule entry is open, as kept in the {@link TimeBucketIndex}.
+ * An end time at or before the start time means the window runs past midnight into the next day.
+ */
+public class TimeWindow {
+
+    /** Id of the schedule entry */
+    private final int id;
+
+    /** When the window opens, inclusive */
+    private final LocalDateTime start;
+
+    /** When the window closes, exclusive */
+    private final LocalDateTime end;
+
+    /**
+     * Constructor used by {@link ScheduleIndex#WINDOWS}, taking the columns of a schedule entry.
+     *
+     * @param id        - schedule id
+     * @param date      - the date the window opens
+     * @param startTime - opening time
+     * @param endTime   - closing time
+     */
+    public TimeWindow(int id, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        this.id = id;
+        this.start = date.atTime(startTime);
+        this.end = endTime.isAfter(startTime) ? date.atTime(endTime) : date.plusDays(1).atTime(endTime);
+    }
+
+    /**
+     * Getter for id
+     *
+     * @return id
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Getter for the opening time
+     *
+     * @return start
+     */
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    /**
+     * Getter for the closing time
+     *
+     * @return end
+     */
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    /**
+     * Returns true if the window is open at an instant.
+     *
+     * @param at The instant
+     * @return true if the window has opened and not yet closed
+     */
+    public boolean contains(LocalDateTime at) {
+        return !at.isBefore(start) && at.isBefore(end);
+    }
+}
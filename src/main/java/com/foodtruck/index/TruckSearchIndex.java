@@ -0,0 +1,103 @@
+package com.foodtruck.index;
+
+import com.foodtruck.dto.TruckView;
+import com.foodtruck.entities.Truck;
+import com.foodtruck.persistence.GenericDao;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Full-text index over the name and food type of every {@link Truck}.
+ * A match in the name counts twice as much as a match in the food type.
+ * The first search waits for the index to load.
+ */
+public class TruckSearchIndex extends SyncedIndex<Truck, TruckView, InvertedIndex<TruckView>> {
+
+    /** Weight of each searchable field */
+    private static final Map<String, Double> FIELD_WEIGHTS = Map.of("name", 2.0, "foodType", 1.0);
+
+    private static final TruckSearchIndex INSTANCE = new TruckSearchIndex(new GenericDao<>(Truck.class));
+
+    private final GenericDao<Truck> truckDao;
+
+    /**
+     * Creates an index and subscribes it to truck writes.
+     *
+     * @param truckDao DAO used to load the trucks
+     */
+    TruckSearchIndex(GenericDao<Truck> truckDao) {
+        super(Truck.class);
+        this.truckDao = truckDao;
+    }
+
+    /**
+     * Gets the shared index.
+     *
+     * @return the truck search index
+     */
+    public static TruckSearchIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Finds the trucks matching a query, best match first.
+     *
+     * @param query The query text, e.g. "tacos"
+     * @return The matching trucks' ids and scores
+     */
+    public List<InvertedIndex.Hit> search(String query) {
+        return loaded().search(query);
+    }
+
+    /**
+     * Gets an indexed truck.
+     *
+     * @param id The truck id
+     * @return The truck, or null if it is not indexed
+     */
+    public TruckView get(int id) {
+        return loaded().get(id);
+    }
+
+    @Override
+    protected InvertedIndex<TruckView> newIndex() {
+        return new InvertedIndex<>(FIELD_WEIGHTS, truck -> {
+            Map<String, String> fields = new HashMap<>();
+            fields.put("name", truck.getName());
+            fields.put("foodType", truck.getFoodType());
+            return fields;
+        });
+    }
+
+    @Override
+    protected List<TruckView> readAll() {
+        return truckDao.findView(TruckView.PROJECTION, null, List.of(), null);
+    }
+
+    @Override
+    protected TruckView valueOf(Truck truck) {
+        return TruckView.of(truck);
+    }
+
+    @Override
+    protected int idOf(Truck truck) {
+        return truck.getId();
+    }
+
+    @Override
+    protected int valueId(TruckView truck) {
+        return truck.getId();
+    }
+
+    @Override
+    protected void put(InvertedIndex<TruckView> index, TruckView truck) {
+        index.put(truck.getId(), truck);
+    }
+
+    @Override
+    protected void remove(InvertedIndex<TruckView> index, int id) {
+        index.remove(id);
+    }
+}
@@ -0,0 +1,105 @@
+package com.foodtruck.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The formats API responses can be written in: JSON, and the binary CBOR, Smile and MessagePack
+ * encodings of the same data model, for clients that ask for them in their Accept header.
+ * <p>
+ * Each format has one configured {@link ObjectMapper}, and an {@link ObjectWriter} per response type
+ * built from it. Mappers and writers are thread-safe and costly to set up, and they cache serializers,
+ * so they are shared instead of created per request. All mappers are configured alike, so a response
+ * carries the same fields in every format.
+ * <p>
+ * Writers never close or flush the stream they write to after each value, so rows can be written
+ * one after another into the same response stream.
+ */
+public enum DataFormat {
+    JSON("application/json", "", new JsonFactory()),
+    CBOR(DataFormat.CBOR_TYPE, "-cbor", new CBORFactory()),
+    SMILE(DataFormat.SMILE_TYPE, "-smile", new SmileFactory()),
+    MSGPACK(DataFormat.MSGPACK_TYPE, "-msgpack", new MessagePackFactory());
+
+    /** Media type of CBOR (RFC 8949) */
+    public static final String CBOR_TYPE = "application/cbor";
+
+    /** Media type of Jackson's Smile */
+    public static final String SMILE_TYPE = "application/x-jackson-smile";
+
+    /** Media type of MessagePack */
+    public static final String MSGPACK_TYPE = "application/x-msgpack";
+
+    private final String mediaType;
+    private final String tagSuffix;
+    private final ObjectMapper mapper;
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    DataFormat(String mediaType, String tagSuffix, JsonFactory factory) {
+        this.mediaType = mediaType;
+        this.tagSuffix = tagSuffix;
+        this.mapper = new ObjectMapper(factory)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Getter for the media type
+     *
+     * @return the Content-Type of responses in this format
+     */
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Getter for the ETag suffix. The same data has a different body in each format,
+     * so each format needs its own entity tag.
+     *
+     * @return what to append to an entity tag for this format; empty for JSON
+     */
+    public String getTagSuffix() {
+        return tagSuffix;
+    }
+
+    /**
+     * Getter for the shared mapper
+     *
+     * @return the mapper responses in this format are written with
+     */
+    public ObjectMapper getMapper() {
+        return mapper;
+    }
+
+    /**
+     * Returns the shared writer for a type.
+     *
+     * @param type The class of the values to write
+     * @return A writer whose serializer for the type is looked up once
+     */
+    public ObjectWriter writerFor(Class<?> type) {
+        return writers.computeIfAbsent(type, mapper::writerFor);
+    }
+
+    /**
+     * Finds the format of a media type.
+     *
+     * @param mediaType A media type without parameters, e.g. "application/cbor"
+     * @return The format, or JSON if the type is not one of the others
+     */
+    public static DataFormat of(String mediaType) {
+        for (DataFormat format : values()) {
+            if (format.mediaType.equalsIgnoreCase(mediaType)) return format;
+        }
+        return JSON;
+    }
+}
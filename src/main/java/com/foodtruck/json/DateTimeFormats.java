@@ -0,0 +1,141 @@
+package com.foodtruck.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parsing for the schedule dates and times accepted by the API.
+ * Values are written as ISO-8601 ("2026-05-07", "08:00"), but the older
+ * formats that were stored as strings ("5/7/2026", "8:00am") are still accepted on input.
+ */
+public final class DateTimeFormats {
+
+    /** Accepted date formats, tried in order; "uuuu-M-d" also covers ISO dates */
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+            DateTimeFormatter.ofPattern("uuuu-M-d"),
+            DateTimeFormatter.ofPattern("M/d/uuuu"));
+
+    /** Accepted time formats, tried in order */
+    private static final List<DateTimeFormatter> TIME_FORMATS = List.of(
+            DateTimeFormatter.ISO_LOCAL_TIME,
+            DateTimeFormatter.ofPattern("H:mm"),
+            new DateTimeFormatterBuilder().parseCaseInsensitive()
+                    .appendPattern("h:mm[ ]a").toFormatter(Locale.US));
+
+    private DateTimeFormats() {
+    }
+
+    /**
+     * Parses a date in any accepted format.
+     *
+     * @param text The date, e.g. "2026-05-07" or "5/7/2026"
+     * @return The date, or null if the text is null or blank
+     * @throws IllegalArgumentException if the text is not a valid date
+     */
+    public static LocalDate parseDate(String text) {
+        if (text == null || text.isBlank()) return null;
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(text.trim(), format);
+            } catch (DateTimeParseException ignored) {
+                // try the next format
+            }
+        }
+        throw new IllegalArgumentException("Invalid date: " + text);
+    }
+
+    /**
+     * Parses a time of day in any accepted format.
+     *
+     * @param text The time, e.g. "08:00" or "8:00am"
+     * @return The time, or null if the text is null or blank
+     * @throws IllegalArgumentException if the text is not a valid time
+     */
+    public static LocalTime parseTime(String text) {
+        if (text == null || text.isBlank()) return null;
+        for (DateTimeFormatter format : TIME_FORMATS) {
+            try {
+                return LocalTime.parse(text.trim(), format);
+            } catch (DateTimeParseException ignored) {
+                // try the next format
+            }
+        }
+        throw new IllegalArgumentException("Invalid time: " + text);
+    }
+
+    /**
+     * Parses an ISO-8601 timestamp, e.g. "2026-05-07T12:30".
+     * A timestamp with an offset ("2026-05-07T17:30Z") is converted to the server's local time,
+     * which is the time zone schedules are entered in.
+     *
+     * @param text The timestamp
+     * @return The local date and time, or null if the text is null or blank
+     * @throws IllegalArgumentException if the text is not a valid timestamp
+     */
+    public static LocalDateTime parseDateTime(String text) {
+        if (text == null || text.isBlank()) return null;
+        try {
+            return LocalDateTime.parse(text.trim());
+        } catch (DateTimeParseException ignored) {
+            // try with an offset
+        }
+        try {
+            return OffsetDateTime.parse(text.trim()).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid timestamp: " + text);
+        }
+    }
+
+    /**
+     * Reads a {@link LocalDate} from a JSON string with {@link #parseDate(String)}.
+     */
+    public static class DateDeserializer extends StdScalarDeserializer<LocalDate> {
+
+        public DateDeserializer() {
+            super(LocalDate.class);
+        }
+
+        @Override
+        public LocalDate deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            String text = parser.getValueAsString();
+            try {
+                return parseDate(text);
+            } catch (IllegalArgumentException e) {
+                return (LocalDate) context.handleWeirdStringValue(LocalDate.class, text, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reads a {@link LocalTime} from a JSON string with {@link #parseTime(String)}.
+     */
+    public static class TimeDeserializer extends StdScalarDeserializer<LocalTime> {
+
+        public TimeDeserializer() {
+            super(LocalTime.class);
+        }
+
+        @Override
+        public LocalTime deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            String text = parser.getValueAsString();
+            try {
+                return parseTime(text);
+            } catch (IllegalArgumentException e) {
+                return (LocalTime) context.handleWeirdStringValue(LocalTime.class, text, e.getMessage());
+            }
+        }
+    }
+}
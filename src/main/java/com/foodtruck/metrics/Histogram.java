@@ -0,0 +1,146 @@
+package com.foodtruck.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts durations into fixed buckets, for latency distributions that are cheap to record
+ * from many threads at once. Percentiles are estimated as the upper bound of the bucket they fall in.
+ */
+public class Histogram {
+
+    /** Default bucket upper bounds in milliseconds, from under a millisecond to ten seconds */
+    public static final double[] DEFAULT_BOUNDS_MS =
+            {0.5, 1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    /** Upper bounds of the buckets in nanoseconds; one more bucket holds everything above the last */
+    private final long[] boundsNanos;
+    private final double[] boundsMs;
+    private final LongAdder[] buckets;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Creates a histogram with the {@link #DEFAULT_BOUNDS_MS default buckets}.
+     */
+    public Histogram() {
+        this(DEFAULT_BOUNDS_MS);
+    }
+
+    /**
+     * Creates a histogram with the given buckets.
+     *
+     * @param boundsMs Bucket upper bounds in milliseconds, ascending
+     */
+    public Histogram(double... boundsMs) {
+        this.boundsMs = boundsMs.clone();
+        this.boundsNanos = new long[boundsMs.length];
+        for (int i = 0; i < boundsMs.length; i++) {
+            boundsNanos[i] = (long) (boundsMs[i] * TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        this.buckets = new LongAdder[boundsMs.length + 1];
+        for (int i = 0; i < buckets.length; i++) buckets[i] = new LongAdder();
+    }
+
+    /**
+     * Records one duration.
+     *
+     * @param nanos The duration in nanoseconds
+     */
+    public void record(long nanos) {
+        int bucket = 0;
+        while (bucket < boundsNanos.length && nanos > boundsNanos[bucket]) bucket++;
+        buckets[bucket].increment();
+        count.increment();
+        sumNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    /**
+     * @return the number of durations recorded
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return the sum of every duration recorded, in milliseconds
+     */
+    public double getSumMs() {
+        return sumNanos.sum() / 1e6;
+    }
+
+    /**
+     * @return the bucket upper bounds in milliseconds, not counting the last, unbounded bucket
+     */
+    public double[] getBoundsMs() {
+        return boundsMs.clone();
+    }
+
+    /**
+     * Gets the number of durations at or below each bucket's upper bound.
+     *
+     * @return Cumulative counts, one per bound plus a last one for every duration recorded
+     */
+    public long[] getCumulativeCounts() {
+        long[] cumulative = new long[buckets.length];
+        long running = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            running += buckets[i].sum();
+            cumulative[i] = running;
+        }
+        return cumulative;
+    }
+
+    /**
+     * Summarizes the histogram for JSON output.
+     *
+     * @return count, mean, max and estimated p50/p95/p99 in milliseconds, plus the count per bucket
+     */
+    public Map<String, Object> snapshot() {
+        long[] cumulative = getCumulativeCounts();
+        long total = cumulative[cumulative.length - 1];
+        double maxMs = maxNanos.get() / 1e6;
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", total);
+        summary.put("meanMs", total == 0 ? 0.0 : round(getSumMs() / total));
+        summary.put("maxMs", round(maxMs));
+        summary.put("p50Ms", percentile(cumulative, 0.50, maxMs));
+        summary.put("p95Ms", percentile(cumulative, 0.95, maxMs));
+        summary.put("p99Ms", percentile(cumulative, 0.99, maxMs));
+
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < buckets.length; i++) {
+            String label = i < boundsMs.length ? "<=" + format(boundsMs[i]) : ">" + format(boundsMs[i - 1]);
+            counts.put(label, buckets[i].sum());
+        }
+        summary.put("buckets", counts);
+        return summary;
+    }
+
+    /**
+     * Estimates a percentile as the upper bound of the bucket it falls in, capped at the maximum seen.
+     */
+    private double percentile(long[] cumulative, double quantile, double maxMs) {
+        long total = cumulative[cumulative.length - 1];
+        if (total == 0) return 0.0;
+        long rank = (long) Math.ceil(quantile * total);
+        for (int i = 0; i < boundsMs.length; i++) {
+            if (cumulative[i] >= rank) return round(Math.min(boundsMs[i], maxMs));
+        }
+        return round(maxMs);
+    }
+
+    private static double round(double ms) {
+        return Math.round(ms * 1000) / 1000.0;
+    }
+
+    private static String format(double ms) {
+        return ms == Math.rint(ms) ? Long.toString((long) ms) : Double.toString(ms);
+    }
+}
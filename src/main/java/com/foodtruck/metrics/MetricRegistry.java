@@ -0,0 +1,118 @@
+package com.foodtruck.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * The application's {@link Timer timers}, grouped into named families and told apart by labels, and
+ * written out in the Prometheus text exposition format.
+ * <p>
+ * Each family becomes a histogram {@code <name>_duration_seconds} and a counter {@code <name>_errors_total}.
+ * Callers look a timer up once and keep it, so recording never goes through the registry.
+ */
+public class MetricRegistry {
+
+    private static final MetricRegistry instance = new MetricRegistry();
+
+    /** Families by name, sorted so the output is stable */
+    private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+
+    /**
+     * Returns the registry shared by the whole application.
+     *
+     * @return the registry
+     */
+    public static MetricRegistry getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns the timer for a label set in a family, creating both as needed.
+     *
+     * @param name   The family name, e.g. foodtruck_http_request
+     * @param help   What the family times, for the HELP lines
+     * @param labels Label names and values, alternating
+     * @return The timer, the same one on every call with the same name and labels
+     */
+    public Timer timer(String name, String help, String... labels) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i + 1 < labels.length; i += 2) {
+            if (text.length() > 0) text.append(',');
+            text.append(labels[i]).append("=\"").append(escape(labels[i + 1])).append('"');
+        }
+        return families.computeIfAbsent(name, n -> new Family(help)).timers
+                .computeIfAbsent(text.toString(), t -> new Timer());
+    }
+
+    /**
+     * Writes every timer in the Prometheus text format, version 0.0.4.
+     *
+     * @return the text
+     */
+    public String toPrometheus() {
+        StringBuilder out = new StringBuilder();
+        for (Map.Entry<String, Family> family : families.entrySet()) {
+            String name = family.getKey();
+            String help = escapeHelp(family.getValue().help);
+
+            String duration = name + "_duration_seconds";
+            out.append("# HELP ").append(duration).append(' ').append(help).append(", in seconds\n");
+            out.append("# TYPE ").append(duration).append(" histogram\n");
+            for (Map.Entry<String, Timer> timer : family.getValue().timers.entrySet()) {
+                writeHistogram(out, duration, timer.getKey(), timer.getValue().getLatency());
+            }
+
+            String errors = name + "_errors_total";
+            out.append("# HELP ").append(errors).append(' ').append(help).append(" that failed\n");
+            out.append("# TYPE ").append(errors).append(" counter\n");
+            for (Map.Entry<String, Timer> timer : family.getValue().timers.entrySet()) {
+                out.append(errors).append(braces(timer.getKey())).append(' ')
+                        .append(timer.getValue().getErrors()).append('\n');
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Writes the bucket, sum and count lines of one histogram. The count is taken from the buckets,
+     * so it always matches the +Inf bucket even while other threads record.
+     */
+    private static void writeHistogram(StringBuilder out, String name, String labels, Histogram histogram) {
+        double[] bounds = histogram.getBoundsMs();
+        long[] cumulative = histogram.getCumulativeCounts();
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        for (int i = 0; i < bounds.length; i++) {
+            out.append(name).append("_bucket{").append(prefix).append("le=\"").append(bounds[i] / 1000)
+                    .append("\"} ").append(cumulative[i]).append('\n');
+        }
+        long count = cumulative[cumulative.length - 1];
+        out.append(name).append("_bucket{").append(prefix).append("le=\"+Inf\"} ").append(count).append('\n');
+        out.append(name).append("_sum").append(braces(labels)).append(' ').append(histogram.getSumMs() / 1000).append('\n');
+        out.append(name).append("_count").append(braces(labels)).append(' ').append(count).append('\n');
+    }
+
+    private static String braces(String labels) {
+        return labels.isEmpty() ? "" : "{" + labels + "}";
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    /**
+     * The timers of one family, by their rendered label set.
+     */
+    private static class Family {
+        private final String help;
+        private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+        Family(String help) {
+            this.help = help;
+        }
+    }
+}
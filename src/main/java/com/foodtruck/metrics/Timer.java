@@ -0,0 +1,38 @@
+package com.foodtruck.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Times one kind of operation: a {@link Histogram} of how long each call took and a count of the
+ * calls that failed. Recording takes no locks, so any number of threads can share a timer.
+ */
+public class Timer {
+
+    private final Histogram latency = new Histogram();
+    private final LongAdder errors = new LongAdder();
+
+    /**
+     * Records one call.
+     *
+     * @param nanos  How long it took, in nanoseconds
+     * @param failed true if it failed
+     */
+    public void record(long nanos, boolean failed) {
+        latency.record(nanos);
+        if (failed) errors.increment();
+    }
+
+    /**
+     * @return the histogram of call durations
+     */
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return the number of calls that failed
+     */
+    public long getErrors() {
+        return errors.sum();
+    }
+}
@@ -0,0 +1,40 @@
+package com.foodtruck.persistence;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link GenericDao} per entity type, and per entity graph, shared by everything that asks for it.
+ * A GenericDao keeps no state between calls, since each call opens its own session, so one instance
+ * can serve any number of threads at once. Sharing it saves building its logger, session factory
+ * lookup and projections on every request.
+ */
+public class DaoRegistry {
+
+    private final Map<String, GenericDao<?>> daos = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the shared DAO for a type.
+     *
+     * @param type The class of the entity
+     * @return The DAO, created on first use
+     */
+    public <T> GenericDao<T> get(Class<T> type) {
+        return get(type, null);
+    }
+
+    /**
+     * Returns the shared DAO for a type whose reads load an entity graph, like {@link GenericDao#fetching}.
+     *
+     * @param type      The class of the entity
+     * @param graphName The name of an entity graph declared on the entity, or null for none
+     * @return The DAO, created on first use
+     */
+    @SuppressWarnings("unchecked")
+    public <T> GenericDao<T> get(Class<T> type, String graphName) {
+        String key = graphName == null ? type.getName() : type.getName() + "#" + graphName;
+        return (GenericDao<T>) daos.computeIfAbsent(key, k -> graphName == null
+                ? new GenericDao<>(type)
+                : new GenericDao<>(type).fetching(graphName));
+    }
+}
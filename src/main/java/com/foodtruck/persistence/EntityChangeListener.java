@@ -0,0 +1,25 @@
+package com.foodtruck.persistence;
+
+/**
+ * Receives entity writes after their transaction has committed.
+ * Register listeners with {@link EntityChanges#register(Class, EntityChangeListener)};
+ * they are called on the thread that committed, so they should return quickly.
+ *
+ * @param <T> The entity type
+ */
+public interface EntityChangeListener<T> {
+
+    /**
+     * Called after an entity was inserted or updated.
+     *
+     * @param entity The entity as it was written
+     */
+    void saved(T entity);
+
+    /**
+     * Called after an entity was deleted.
+     *
+     * @param entity The entity that was deleted
+     */
+    void deleted(T entity);
+}
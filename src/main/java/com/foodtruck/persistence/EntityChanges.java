@@ -0,0 +1,118 @@
+package com.foodtruck.persistence;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.Hibernate;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Forwards committed inserts, updates and deletes from Hibernate to {@link EntityChangeListener}s.
+ * This is how in-memory indexes stay in sync with everything written through {@link GenericDao}.
+ * It is installed on the session factory by {@link SessionFactoryProvider}.
+ * Rows changed outside Hibernate (plain SQL, ON DELETE CASCADE) produce no events.
+ */
+public class EntityChanges implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    /** The listener instance installed on the session factory */
+    static final EntityChanges INSTANCE = new EntityChanges();
+
+    private static final Logger logger = LogManager.getLogger(EntityChanges.class);
+
+    /** Listeners by entity class */
+    private static final Map<Class<?>, List<EntityChangeListener<?>>> listeners = new ConcurrentHashMap<>();
+
+    private EntityChanges() {
+    }
+
+    /**
+     * Registers a listener for writes to one entity type.
+     *
+     * @param type     The entity class
+     * @param listener The listener
+     */
+    public static <T> void register(Class<T> type, EntityChangeListener<? super T> listener) {
+        listeners.computeIfAbsent(type, key -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * Removes a listener registered with {@link #register(Class, EntityChangeListener)}.
+     *
+     * @param type     The entity class
+     * @param listener The listener
+     */
+    public static <T> void unregister(Class<T> type, EntityChangeListener<? super T> listener) {
+        List<EntityChangeListener<?>> registered = listeners.get(type);
+        if (registered != null) registered.remove(listener);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        dispatch(event.getEntity(), true);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        dispatch(event.getEntity(), true);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        dispatch(event.getEntity(), false);
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // nothing was published before the commit, so there is nothing to undo
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // nothing was published before the commit, so there is nothing to undo
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // nothing was published before the commit, so there is nothing to undo
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return true;
+    }
+
+    /**
+     * Calls the listeners registered for the entity's class.
+     * A failing listener is logged and does not affect the others or the caller.
+     *
+     * @param entity The entity that was written
+     * @param saved  true for an insert or update, false for a delete
+     */
+    @SuppressWarnings("unchecked")
+    private void dispatch(Object entity, boolean saved) {
+        List<EntityChangeListener<?>> registered = listeners.get(Hibernate.getClass(entity));
+        if (registered == null) return;
+        for (EntityChangeListener<?> listener : registered) {
+            try {
+                if (saved) {
+                    ((EntityChangeListener<Object>) listener).saved(entity);
+                } else {
+                    ((EntityChangeListener<Object>) listener).deleted(entity);
+                }
+            } catch (RuntimeException e) {
+                logger.error("Entity change listener failed for " + entity.getClass().getSimpleName(), e);
+            }
+        }
+    }
+}
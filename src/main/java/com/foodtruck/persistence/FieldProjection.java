@@ -0,0 +1,113 @@
+package com.foodtruck.persistence;
+
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Selects only the columns a caller asked for, e.g. through a "fields" query parameter, so the
+ * other columns are never read. Dotted paths select columns of an association ("truck.name"); an
+ * association is joined only when one of its columns, other than its id, is asked for.
+ * Rows come back as tuples and are turned into nested maps with {@link #toMap(Tuple)}.
+ *
+ * @param <T> The entity type the query starts from
+ */
+public class FieldProjection<T> implements Projection<T, Tuple> {
+
+    /** The selected property paths, in output order */
+    private final List<String> paths;
+
+    private FieldProjection(List<String> paths) {
+        this.paths = paths;
+    }
+
+    /**
+     * Parses a comma-separated list of fields against the fields a response offers.
+     * A field that names an association ("truck") selects every offered path under it.
+     *
+     * @param fields    The requested fields, e.g. "id,date,truck.name"
+     * @param available The property paths that may be selected, in the order they are written
+     * @return The projection of the requested fields, in the order of {@code available}
+     * @throws IllegalArgumentException if a field is not offered, or no field is given
+     */
+    public static <T> FieldProjection<T> parse(String fields, List<String> available) {
+        Set<String> requested = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) continue;
+            boolean known = false;
+            for (String path : available) {
+                if (path.equals(name) || path.startsWith(name + ".")) {
+                    requested.add(path);
+                    known = true;
+                }
+            }
+            if (!known) throw new IllegalArgumentException("Unknown field: " + name);
+        }
+        if (requested.isEmpty()) throw new IllegalArgumentException("fields must name at least one field");
+
+        List<String> paths = new ArrayList<>(requested.size());
+        for (String path : available) {
+            if (requested.contains(path)) paths.add(path);
+        }
+        return new FieldProjection<>(paths);
+    }
+
+    /**
+     * Getter for the selected paths
+     *
+     * @return the property paths selected, in output order
+     */
+    public List<String> getPaths() {
+        return paths;
+    }
+
+    @Override
+    public Class<Tuple> getResultType() {
+        return Tuple.class;
+    }
+
+    @Override
+    public Selection<Tuple> select(Root<T> root, CriteriaBuilder builder) {
+        Selection<?>[] columns = new Selection<?>[paths.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = Specification.path(root, paths.get(i));
+        }
+        return builder.tuple(columns);
+    }
+
+    /**
+     * Turns a selected row into the JSON shape of the full response, with only the selected fields:
+     * "truck.name" becomes {"truck": {"name": ...}}. Dates and times are written as ISO-8601 strings,
+     * as the views write them.
+     *
+     * @param row A row selected with this projection
+     * @return The fields of the row, nested by path
+     */
+    public Map<String, Object> toMap(Tuple row) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (int i = 0; i < paths.size(); i++) {
+            Object value = row.get(i);
+            if (value instanceof TemporalAccessor) value = value.toString();
+
+            String[] parts = paths.get(i).split("\\.");
+            Map<String, Object> target = result;
+            for (int depth = 0; depth < parts.length - 1; depth++) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> child = (Map<String, Object>) target.computeIfAbsent(parts[depth], k -> new LinkedHashMap<>());
+                target = child;
+            }
+            target.put(parts[parts.length - 1], value);
+        }
+        return result;
+    }
+}
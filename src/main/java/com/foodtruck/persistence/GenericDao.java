@@ -1,24 +1,60 @@
 package com.foodtruck.persistence;
 
+import com.foodtruck.metrics.MetricRegistry;
+import com.foodtruck.metrics.Timer;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
-import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Root;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.hibernate.CacheMode;
+import org.hibernate.MultiIdentifierLoadAccess;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
 import org.hibernate.Transaction;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.graph.GraphSemantic;
+import org.hibernate.graph.RootGraph;
+import org.hibernate.jpa.SpecHints;
+import org.hibernate.query.Query;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * A generic DAO for CRUD operations on any entity type.
+ * <p>
+ * Every operation is timed into the {@link MetricRegistry} as {@code foodtruck_dao_operation}, labelled
+ * with the entity and the operation. Convenience methods such as {@link #getAll()} count as the
+ * operation they call, and the scroll operations include the time the caller's action takes per row.
  *
  * @param <T> The entity type
  */
 public class GenericDao<T> {
 
+    /** Page size used when the caller does not ask for one */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    /** Hard upper bound on the page size, whatever the caller asks for */
+    public static final int MAX_PAGE_SIZE = 500;
+
+    /** Rows fetched per JDBC round trip when scrolling */
+    public static final int DEFAULT_FETCH_SIZE = 500;
+
+    /** Rows flushed per batch when hibernate.jdbc.batch_size is not set */
+    public static final int DEFAULT_BATCH_SIZE = 50;
+
     /** Class type of the entity */
     private final Class<T> type;
 
@@ -28,13 +64,58 @@ public class GenericDao<T> {
     /** Hibernate SessionFactory for opening sessions */
     private final SessionFactory sessionFactory = SessionFactoryProvider.getSessionFactory();
 
+    /**
+     * Whether query results for this type go in the query cache. Only entities that live in the
+     * second-level cache qualify: a cached query only stores ids, so for any other entity a cache
+     * hit would load every row with its own select.
+     */
+    private final boolean cacheQueries;
+
+    /** Name of the entity graph applied to reads, or null to use the mapped fetch types */
+    private final String graphName;
+
+    /** Selects the entity itself */
+    private final Projection<T, T> entities;
+
+    /** Timer of each operation, shared by every DAO of the same entity */
+    private final Map<Operation, Timer> timers = new EnumMap<>(Operation.class);
+
     /**
      * Constructs a GenericDao for the given entity type.
      *
      * @param type The class of the entity
      */
     public GenericDao(Class<T> type) {
+        this(type, null);
+    }
+
+    /**
+     * Constructs a GenericDao for the given entity type that loads reads with an entity graph.
+     *
+     * @param type      The class of the entity
+     * @param graphName The name of the entity graph, or null for none
+     */
+    private GenericDao(Class<T> type, String graphName) {
         this.type = type;
+        this.graphName = graphName;
+        this.entities = Projection.of(type, (root, builder) -> root);
+        this.cacheQueries = type.isAnnotationPresent(Cacheable.class);
+        for (Operation operation : Operation.values()) {
+            timers.put(operation, MetricRegistry.getInstance().timer("foodtruck_dao_operation",
+                    "Time spent in GenericDao operations", "entity", type.getSimpleName(), "operation", operation.name()));
+        }
+    }
+
+    /**
+     * Returns a DAO whose reads load the given named entity graph, so the associations in the graph
+     * are join-fetched in the same select instead of being left lazy.
+     * For example {@code scheduleDao.fetching(Schedule.WITH_TRUCK_AND_LOCATION).getPage(...)}.
+     *
+     * @param graphName The name of an entity graph declared on the entity
+     * @return A DAO for the same type that applies the graph to every read
+     */
+    public GenericDao<T> fetching(String graphName) {
+        return new GenericDao<>(type, graphName);
     }
 
     // ----------------------------
@@ -48,12 +129,43 @@ public class GenericDao<T> {
      * @return The entity instance, or null if not found
      */
     public T getById(int id) {
-        Session session = getSession();
-        try {
-            return session.get(type, id);
-        } finally {
-            session.close();
-        }
+        return timed(Operation.getById, () -> {
+            Session session = getReadOnlySession();
+            try {
+                if (graphName == null) {
+                    return session.get(type, id);
+                }
+                return session.byId(type).with(graph(session), GraphSemantic.LOAD).load(id);
+            } finally {
+                session.close();
+            }
+        });
+    }
+
+    /**
+     * Retrieves several entities by their IDs in one session.
+     * Entities already in the second-level cache are taken from it; the rest are loaded with a single
+     * IN query, instead of a session and a select per ID.
+     *
+     * @param ids The IDs of the entities
+     * @return The entities in the order of {@code ids}, with null where no entity has the ID
+     */
+    public List<T> getByIds(Collection<Integer> ids) {
+        if (ids.isEmpty()) return new ArrayList<>();
+        return timed(Operation.getByIds, () -> {
+            Session session = getReadOnlySession();
+            try {
+                // Multi-load only looks in the second-level cache when a cache mode is given
+                MultiIdentifierLoadAccess<T> load = session.byMultipleIds(type)
+                        .with(CacheMode.NORMAL)
+                        .enableOrderedReturn(true)
+                        .withBatchSize(ids.size());
+                if (graphName != null) load = load.with(graph(session), GraphSemantic.LOAD);
+                return load.multiLoad(new ArrayList<>(ids));
+            } finally {
+                session.close();
+            }
+        });
     }
 
     /**
@@ -63,26 +175,63 @@ public class GenericDao<T> {
      * @return The generated ID of the entity, if retrievable
      */
     public int insert(T entity) {
-        Session session = getSession();
-        Transaction tx = session.beginTransaction();
-        try {
-            session.persist(entity);
-            tx.commit();
+        return timed(Operation.insert, () -> {
+            Session session = getSession();
+            Transaction tx = session.beginTransaction();
+            try {
+                session.persist(entity);
+                tx.commit();
+                return idOf(entity);
+            } catch (Exception e) {
+                if (tx.isActive()) tx.rollback();
+                throw e;
+            } finally {
+                session.close();
+            }
+        });
+    }
 
-            int id = 0;
+    /**
+     * Inserts many entities in a single transaction.
+     * The session is flushed and cleared every hibernate.jdbc.batch_size entities, so the
+     * inserts go out in JDBC batches and the persistence context never holds more than one batch.
+     * Entities with IDENTITY ids still get one round trip per row (Hibernate needs each generated
+     * id straight away), but they share one connection and one commit instead of one each.
+     *
+     * @param entities The entities to persist
+     * @return The generated IDs, in the same order as the entities
+     */
+    public List<Integer> insertAll(Collection<? extends T> entities) {
+        return timed(Operation.insertAll, () -> {
+            int batchSize = sessionFactory.unwrap(SessionFactoryImplementor.class)
+                    .getSessionFactoryOptions().getJdbcBatchSize();
+            if (batchSize < 1) batchSize = DEFAULT_BATCH_SIZE;
+
+            List<Integer> ids = new ArrayList<>(entities.size());
+            Session session = getSession();
+            Transaction tx = session.beginTransaction();
             try {
-                var method = entity.getClass().getMethod("getId");
-                id = (int) method.invoke(entity);
+                int count = 0;
+                for (T entity : entities) {
+                    session.persist(entity);
+                    if (++count % batchSize == 0) {
+                        session.flush();
+                        session.clear();
+                    }
+                }
+                tx.commit();
+
+                for (T entity : entities) {
+                    ids.add(idOf(entity));
+                }
+                return ids;
             } catch (Exception e) {
-                logger.warn("Could not retrieve ID for entity of type {}", type.getSimpleName());
+                if (tx.isActive()) tx.rollback();
+                throw e;
+            } finally {
+                session.close();
             }
-            return id;
-        } catch (Exception e) {
-            if (tx.isActive()) tx.rollback();
-            throw e;
-        } finally {
-            session.close();
-        }
+        });
     }
 
     /**
@@ -91,17 +240,19 @@ public class GenericDao<T> {
      * @param entity The entity with updated values
      */
     public void update(T entity) {
-        Session session = getSession();
-        Transaction tx = session.beginTransaction();
-        try {
-            session.merge(entity);
-            tx.commit();
-        } catch (Exception e) {
-            if (tx.isActive()) tx.rollback();
-            throw e;
-        } finally {
-            session.close();
-        }
+        timed(Operation.update, () -> {
+            Session session = getSession();
+            Transaction tx = session.beginTransaction();
+            try {
+                session.merge(entity);
+                tx.commit();
+            } catch (Exception e) {
+                if (tx.isActive()) tx.rollback();
+                throw e;
+            } finally {
+                session.close();
+            }
+        });
     }
 
     /**
@@ -110,30 +261,255 @@ public class GenericDao<T> {
      * @param entity The entity to delete
      */
     public void delete(T entity) {
-        Session session = getSession();
-        Transaction tx = session.beginTransaction();
-        try {
-            session.delete(entity);
-            tx.commit();
-        } catch (Exception e) {
-            if (tx.isActive()) tx.rollback();
-            throw e;
-        } finally {
-            session.close();
-        }
+        timed(Operation.delete, () -> {
+            Session session = getSession();
+            Transaction tx = session.beginTransaction();
+            try {
+                session.delete(entity);
+                tx.commit();
+            } catch (Exception e) {
+                if (tx.isActive()) tx.rollback();
+                throw e;
+            } finally {
+                session.close();
+            }
+        });
     }
 
+    /**
+     * Retrieves every entity of this type.
+     *
+     * @return List of all entities
+     */
     public List<T> getAll() {
-        Session session = getSession();
-        try {
-            CriteriaBuilder builder = session.getCriteriaBuilder();
-            CriteriaQuery<T> criteria = builder.createQuery(type);
-            Root<T> root = criteria.from(type);
-            criteria.select(root);
-            return session.createQuery(criteria).getResultList();
-        } finally {
-            session.close();
-        }
+        return find(null, List.of(), null);
+    }
+
+    // ----------------------------
+    // Queries
+    // ----------------------------
+
+    /**
+     * Retrieves the entities matching a filter, sorted and limited, in a single SQL statement.
+     *
+     * @param spec   The filter, or null to match everything
+     * @param orders The ORDER BY terms, in priority order
+     * @param limit  The maximum number of rows, or null for no limit
+     * @return List of matching entities
+     */
+    public List<T> find(Specification<T> spec, List<Sort> orders, Integer limit) {
+        return timed(Operation.find, () -> {
+            Session session = getReadOnlySession();
+            try {
+                Query<T> query = session.createQuery(criteria(session.getCriteriaBuilder(), entities, spec, orders))
+                        .setCacheable(cacheQueries);
+                applyGraph(session, query);
+                if (limit != null) query.setMaxResults(limit);
+                return query.getResultList();
+            } finally {
+                session.close();
+            }
+        });
+    }
+
+    // ----------------------------
+    // Paging and streaming
+    // ----------------------------
+
+    /**
+     * Retrieves one page of entities ordered by id, starting after the given id.
+     * Uses a keyset (seek) query so every page costs the same no matter how deep it is.
+     *
+     * @param afterId The id to continue after, or null for the first page
+     * @param limit   The page size, clamped to {@link #MAX_PAGE_SIZE}
+     * @return The page, with a cursor if more rows exist
+     */
+    public Page<T> getPage(Integer afterId, int limit) {
+        return getPage(null, afterId, limit);
+    }
+
+    /**
+     * Retrieves one page of the entities matching a filter, ordered by id, starting after the given id.
+     *
+     * @param spec    The filter, or null to match everything
+     * @param afterId The id to continue after, or null for the first page
+     * @param limit   The page size, clamped to {@link #MAX_PAGE_SIZE}
+     * @return The page, with a cursor if more rows exist
+     */
+    public Page<T> getPage(Specification<T> spec, Integer afterId, int limit) {
+        int size = pageSize(limit);
+        // Fetch one extra row to find out whether there is a next page
+        return toPage(find(seek(spec, afterId), List.of(Sort.asc("id")), size + 1), size);
+    }
+
+    /**
+     * Streams every entity through the given action without holding the whole table in memory.
+     *
+     * @param fetchSize The number of rows fetched per round trip, at least 1
+     * @param action    The action to run for each entity
+     * @throws IllegalArgumentException if fetchSize is less than 1
+     */
+    public void scroll(int fetchSize, Consumer<? super T> action) {
+        scroll(null, fetchSize, action);
+    }
+
+    /**
+     * Streams the entities matching a filter through the given action, in id order, without holding
+     * them all in memory. Rows are read through a forward-only cursor and the session is cleared every
+     * {@code fetchSize} rows so the persistence context stays small.
+     * On MySQL the fetch size only takes effect with {@code useCursorFetch=true} on the JDBC URL.
+     *
+     * @param spec      The filter, or null to match everything
+     * @param fetchSize The number of rows fetched per round trip, at least 1
+     * @param action    The action to run for each entity
+     * @throws IllegalArgumentException if fetchSize is less than 1
+     */
+    public void scroll(Specification<T> spec, int fetchSize, Consumer<? super T> action) {
+        if (fetchSize < 1) throw new IllegalArgumentException("fetchSize must be at least 1, was " + fetchSize);
+        timed(Operation.scroll, () -> {
+            Session session = getReadOnlySession();
+            try {
+                Query<T> query = session.createQuery(criteria(session.getCriteriaBuilder(), entities, spec, List.of(Sort.asc("id"))));
+                applyGraph(session, query);
+                try (ScrollableResults<T> results = query
+                        .setFetchSize(fetchSize)
+                        .scroll(ScrollMode.FORWARD_ONLY)) {
+                    int count = 0;
+                    while (results.next()) {
+                        action.accept(results.get());
+                        if (++count % fetchSize == 0) {
+                            session.clear();
+                        }
+                    }
+                }
+            } finally {
+                session.close();
+            }
+        });
+    }
+
+    // ----------------------------
+    // Read-only projections
+    // ----------------------------
+
+    /**
+     * Retrieves one entity as a read-only view.
+     *
+     * @param projection The columns to select and the view to build from them
+     * @param id         The ID of the entity
+     * @return The view, or null if not found
+     */
+    public <R> R getViewById(Projection<T, R> projection, int id) {
+        List<R> rows = findView(projection, Specification.equal("id", id), List.of(), 1);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * Retrieves read-only views of the entities matching a filter, sorted and limited.
+     * The query runs in a {@link StatelessSession} and selects only the projected columns, so no
+     * entities, persistence context or dirty-checking snapshots are created.
+     *
+     * @param projection The columns to select and the view to build from them
+     * @param spec       The filter, or null to match everything
+     * @param orders     The ORDER BY terms, in priority order
+     * @param limit      The maximum number of rows, or null for no limit
+     * @return List of views
+     */
+    public <R> List<R> findView(Projection<T, R> projection, Specification<T> spec, List<Sort> orders, Integer limit) {
+        return timed(Operation.findView, () -> {
+            StatelessSession session = sessionFactory.openStatelessSession();
+            try {
+                Query<R> query = session.createQuery(criteria(session.getCriteriaBuilder(), projection, spec, orders));
+                if (limit != null) query.setMaxResults(limit);
+                return query.getResultList();
+            } finally {
+                session.close();
+            }
+        });
+    }
+
+    /**
+     * Retrieves one page of read-only views of the entities matching a filter, ordered by id.
+     * The view type must expose the id through a getId method.
+     *
+     * @param projection The columns to select and the view to build from them
+     * @param spec       The filter, or null to match everything
+     * @param afterId    The id to continue after, or null for the first page
+     * @param limit      The page size, clamped to {@link #MAX_PAGE_SIZE}
+     * @return The page, with a cursor if more rows exist
+     */
+    public <R> Page<R> getViewPage(Projection<T, R> projection, Specification<T> spec, Integer afterId, int limit) {
+        int size = pageSize(limit);
+        return toPage(findView(projection, seek(spec, afterId), List.of(Sort.asc("id")), size + 1), size);
+    }
+
+    /**
+     * Streams read-only views of the entities matching a filter through the given action, sorted and
+     * limited, without holding them in memory. Rows are read through a forward-only cursor in a
+     * {@link StatelessSession}, which keeps its connection until the last row has been handled.
+     *
+     * @param projection The columns to select and the view to build from them
+     * @param spec       The filter, or null to match everything
+     * @param orders     The ORDER BY terms, in priority order
+     * @param limit      The maximum number of rows, or null for no limit
+     * @param action     The action to run for each view
+     */
+    public <R> void scrollView(Projection<T, R> projection, Specification<T> spec, List<Sort> orders, Integer limit,
+                               Consumer<? super R> action) {
+        timed(Operation.scrollView, () -> {
+            StatelessSession session = sessionFactory.openStatelessSession();
+            try {
+                Query<R> query = session.createQuery(criteria(session.getCriteriaBuilder(), projection, spec, orders));
+                if (limit != null) query.setMaxResults(limit);
+                try (ScrollableResults<R> results = query
+                        .setFetchSize(limit == null ? DEFAULT_FETCH_SIZE : Math.min(limit, DEFAULT_FETCH_SIZE))
+                        .scroll(ScrollMode.FORWARD_ONLY)) {
+                    while (results.next()) {
+                        action.accept(results.get());
+                    }
+                }
+            } finally {
+                session.close();
+            }
+        });
+    }
+
+    /**
+     * Retrieves one page of read-only views like {@link #getViewPage}, but reads the rows only when
+     * the page is consumed, one at a time from a cursor. A first query over the ids alone finds where
+     * the page ends, so the cursor of the next page is known up front and the rows are read with
+     * "id > afterId AND id &lt;= lastId" without the extra row.
+     *
+     * @param projection The columns to select and the view to build from them
+     * @param spec       The filter, or null to match everything
+     * @param afterId    The id to continue after, or null for the first page
+     * @param limit      The page size, clamped to {@link #MAX_PAGE_SIZE}
+     * @return The page, with a cursor if more rows exist
+     */
+    public <R> StreamedPage<R> streamViewPage(Projection<T, R> projection, Specification<T> spec,
+                                              Integer afterId, int limit) {
+        int size = pageSize(limit);
+        Specification<T> page = seek(spec, afterId);
+
+        // The last id of the page and the first of the next, if the page is full; the rows themselves
+        // are timed as scrollView when the page is consumed
+        List<Integer> ends = timed(Operation.streamViewPage, () -> {
+            StatelessSession session = sessionFactory.openStatelessSession();
+            try {
+                Projection<T, Integer> ids = Projection.of(Integer.class, (root, builder) -> root.<Integer>get("id"));
+                return session.createQuery(criteria(session.getCriteriaBuilder(), ids, page, List.of(Sort.asc("id"))))
+                        .setFirstResult(size - 1)
+                        .setMaxResults(2)
+                        .getResultList();
+            } finally {
+                session.close();
+            }
+        });
+
+        Integer lastId = ends.size() == 2 ? ends.get(0) : null;
+        Specification<T> rows = lastId == null ? page
+                : and(page, (root, builder) -> builder.le(root.get("id"), lastId));
+        return new StreamedPage<>(lastId, action -> scrollView(projection, rows, List.of(Sort.asc("id")), size, action));
     }
 
     // ----------------------------
@@ -148,16 +524,7 @@ public class GenericDao<T> {
      * @return List of matching entities
      */
     public List<T> getByPropertyEqual(String propertyName, String value) {
-        Session session = getSession();
-        try {
-            CriteriaBuilder builder = session.getCriteriaBuilder();
-            CriteriaQuery<T> criteria = builder.createQuery(type);
-            Root<T> root = criteria.from(type);
-            criteria.select(root).where(builder.equal(root.get(propertyName), value));
-            return session.createQuery(criteria).getResultList();
-        } finally {
-            session.close();
-        }
+        return find(Specification.equal(propertyName, value), List.of(), null);
     }
 
     /**
@@ -168,23 +535,160 @@ public class GenericDao<T> {
      * @return List of matching entities
      */
     public List<T> getByPropertyLike(String propertyName, String value) {
-        Session session = getSession();
-        try {
-            CriteriaBuilder builder = session.getCriteriaBuilder();
-            CriteriaQuery<T> criteria = builder.createQuery(type);
-            Root<T> root = criteria.from(type);
-            Expression<String> path = root.get(propertyName);
-            criteria.select(root).where(builder.like(path, "%" + value + "%"));
-            return session.createQuery(criteria).getResultList();
-        } finally {
-            session.close();
-        }
+        return find(Specification.like(propertyName, "%" + value + "%"), List.of(), null);
     }
 
     // ----------------------------
     // Helper
     // ----------------------------
 
+    /**
+     * Builds a criteria query over this entity type with the given selection, filter and order.
+     *
+     * @param builder    The criteria builder of the session that will run the query
+     * @param projection What to select from the root
+     * @param spec       The filter, or null to match everything
+     * @param orders     The ORDER BY terms
+     * @return The criteria query
+     */
+    private <R> CriteriaQuery<R> criteria(CriteriaBuilder builder, Projection<T, R> projection,
+                                          Specification<T> spec, List<Sort> orders) {
+        CriteriaQuery<R> criteria = builder.createQuery(projection.getResultType());
+        Root<T> root = criteria.from(type);
+        criteria.select(projection.select(root, builder));
+        if (spec != null) {
+            criteria.where(spec.toPredicate(root, builder));
+        }
+        List<Order> orderBy = new ArrayList<>(orders.size());
+        for (Sort sort : orders) {
+            Path<?> path = Specification.path(root, sort.getPropertyName());
+            orderBy.add(sort.isAscending() ? builder.asc(path) : builder.desc(path));
+        }
+        criteria.orderBy(orderBy);
+        return criteria;
+    }
+
+    /**
+     * Runs an operation and records how long it took, and whether it threw, in its timer.
+     *
+     * @param operation The operation being run
+     * @param call      The operation's work
+     * @return What the work returned
+     */
+    private <R> R timed(Operation operation, Supplier<R> call) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            R result = call.get();
+            failed = false;
+            return result;
+        } finally {
+            timers.get(operation).record(System.nanoTime() - start, failed);
+        }
+    }
+
+    /**
+     * Runs an operation that returns nothing and records it like {@link #timed(Operation, Supplier)}.
+     *
+     * @param operation The operation being run
+     * @param call      The operation's work
+     */
+    private void timed(Operation operation, Runnable call) {
+        timed(operation, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    /**
+     * Adds the keyset condition "id > afterId" to a filter.
+     *
+     * @param spec    The filter, or null
+     * @param afterId The id to continue after, or null for the first page
+     * @return The filter for the requested page
+     */
+    private Specification<T> seek(Specification<T> spec, Integer afterId) {
+        if (afterId == null) return spec;
+        return and(spec, (root, builder) -> builder.gt(root.get("id"), afterId));
+    }
+
+    /**
+     * Turns the rows of a page query, which asked for one row more than the page size, into a page.
+     *
+     * @param rows The rows returned, at most size + 1
+     * @param size The page size
+     * @return The page, with a cursor if the extra row was there
+     */
+    private <E> Page<E> toPage(List<E> rows, int size) {
+        if (rows.size() <= size) {
+            return new Page<>(rows, null);
+        }
+        List<E> items = rows.subList(0, size);
+        return new Page<>(items, idOf(items.get(size - 1)));
+    }
+
+    /**
+     * Applies this DAO's entity graph, if any, to a query as a load graph.
+     *
+     * @param session The session the query belongs to
+     * @param query   The query
+     */
+    private void applyGraph(Session session, Query<T> query) {
+        if (graphName != null) {
+            query.setHint(SpecHints.HINT_SPEC_LOAD_GRAPH, graph(session));
+        }
+    }
+
+    /**
+     * Looks up this DAO's entity graph.
+     *
+     * @param session The session to look the graph up in
+     * @return The entity graph
+     */
+    @SuppressWarnings("unchecked")
+    private RootGraph<T> graph(Session session) {
+        return (RootGraph<T>) session.getEntityGraph(graphName);
+    }
+
+    /**
+     * Combines two filters, either of which may be null.
+     *
+     * @param first  The first filter
+     * @param second The second filter
+     * @return The combined filter, or null if both are null
+     */
+    private static <T> Specification<T> and(Specification<T> first, Specification<T> second) {
+        if (first == null) return second;
+        return first.and(second);
+    }
+
+    /**
+     * Clamps a requested page size to the range 1..{@link #MAX_PAGE_SIZE}.
+     *
+     * @param limit The requested page size
+     * @return The page size to use
+     */
+    private int pageSize(int limit) {
+        if (limit < 1) return DEFAULT_PAGE_SIZE;
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Reads the id of an entity through its getId method.
+     *
+     * @param entity The entity
+     * @return The id, or 0 if it could not be read
+     */
+    private int idOf(Object entity) {
+        try {
+            var method = entity.getClass().getMethod("getId");
+            return (int) method.invoke(entity);
+        } catch (Exception e) {
+            logger.warn("Could not retrieve ID for entity of type {}", type.getSimpleName());
+            return 0;
+        }
+    }
+
     /**
      * Opens a new Hibernate session.
      *
@@ -193,4 +697,23 @@ public class GenericDao<T> {
     private Session getSession() {
         return sessionFactory.openSession();
     }
+
+    /**
+     * Opens a new Hibernate session for reads. Entities it loads are read-only, so Hibernate keeps
+     * no snapshot of them for dirty checking. They can still be passed to {@link #update(Object)}.
+     *
+     * @return A read-only session from the SessionFactory
+     */
+    private Session getReadOnlySession() {
+        Session session = sessionFactory.openSession();
+        session.setDefaultReadOnly(true);
+        return session;
+    }
+
+    /**
+     * The operations timed separately, named as the metrics label them.
+     */
+    private enum Operation {
+        getById, getByIds, insert, insertAll, update, delete, find, scroll, findView, scrollView, streamViewPage
+    }
 }
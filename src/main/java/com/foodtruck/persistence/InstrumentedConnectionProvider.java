@@ -0,0 +1,213 @@
+package com.foodtruck.persistence;
+
+import com.foodtruck.metrics.Histogram;
+import com.mchange.v2.c3p0.PooledDataSource;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.SessionFactory;
+import org.hibernate.c3p0.internal.C3P0ConnectionProvider;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The c3p0 connection pool, timing how long sessions wait for a connection and how long they keep it.
+ * A wait longer than {@value #SLOW_ACQUIRE_SETTING} milliseconds (default {@value #DEFAULT_SLOW_ACQUIRE_MS})
+ * is logged as a warning naming the {@link GenericDao} method that asked for the connection.
+ * It is installed by {@link SessionFactoryProvider}.
+ */
+public class InstrumentedConnectionProvider extends C3P0ConnectionProvider {
+
+    /** Setting for the acquire time, in milliseconds, above which a warning is logged */
+    public static final String SLOW_ACQUIRE_SETTING = "foodtruck.pool.slow_acquire_ms";
+
+    /** Acquire time above which a warning is logged when the setting is absent */
+    public static final long DEFAULT_SLOW_ACQUIRE_MS = 250;
+
+    private static final Logger logger = LogManager.getLogger(InstrumentedConnectionProvider.class);
+
+    /** Time from asking the pool for a connection to getting it */
+    private final Histogram acquireTime = new Histogram();
+
+    /** Time from getting a connection to giving it back */
+    private final Histogram holdTime = new Histogram();
+
+    /** When each connection currently handed out was acquired, in nanoseconds */
+    private final Map<Connection, Long> checkedOut = new ConcurrentHashMap<>();
+
+    private final LongAdder slowAcquires = new LongAdder();
+    private final LongAdder failedAcquires = new LongAdder();
+
+    private long slowAcquireNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_SLOW_ACQUIRE_MS);
+    private int minSize;
+    private int maxSize;
+
+    /**
+     * Finds the provider behind a session factory.
+     *
+     * @param sessionFactory The session factory
+     * @return The provider, or empty if the factory uses a different connection provider
+     */
+    public static Optional<InstrumentedConnectionProvider> of(SessionFactory sessionFactory) {
+        ConnectionProvider provider = sessionFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(ConnectionProvider.class);
+        return provider instanceof InstrumentedConnectionProvider
+                ? Optional.of((InstrumentedConnectionProvider) provider)
+                : Optional.empty();
+    }
+
+    @Override
+    public void configure(Map<String, Object> props) {
+        super.configure(props);
+        Object slowMs = props.get(SLOW_ACQUIRE_SETTING);
+        if (slowMs != null) slowAcquireNanos = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(slowMs.toString().trim()));
+        Object min = props.get("hibernate.c3p0.min_size");
+        if (min != null) minSize = Integer.parseInt(min.toString().trim());
+        Object max = props.get("hibernate.c3p0.max_size");
+        if (max != null) maxSize = Integer.parseInt(max.toString().trim());
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        Connection connection;
+        try {
+            connection = super.getConnection();
+        } catch (SQLException | RuntimeException e) {
+            acquireTime.record(System.nanoTime() - start);
+            failedAcquires.increment();
+            throw e;
+        }
+        long acquired = System.nanoTime();
+        long waited = acquired - start;
+        acquireTime.record(waited);
+        checkedOut.put(connection, acquired);
+        if (waited > slowAcquireNanos) {
+            slowAcquires.increment();
+            logger.warn("Waited " + TimeUnit.NANOSECONDS.toMillis(waited) + " ms for a connection in "
+                    + caller() + " (" + poolState() + ")");
+        }
+        return connection;
+    }
+
+    @Override
+    public void closeConnection(Connection connection) throws SQLException {
+        Long acquired = checkedOut.remove(connection);
+        if (acquired != null) holdTime.record(System.nanoTime() - acquired);
+        super.closeConnection(connection);
+    }
+
+    /**
+     * Summarizes the pool for JSON output.
+     *
+     * @return the current pool sizes, the acquire and hold time histograms and the slow and failed acquire counts
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("maxSize", maxSize);
+        PooledDataSource pool = pool();
+        try {
+            if (pool != null) {
+                snapshot.put("total", pool.getNumConnectionsDefaultUser());
+                snapshot.put("busy", pool.getNumBusyConnectionsDefaultUser());
+                snapshot.put("idle", pool.getNumIdleConnectionsDefaultUser());
+                snapshot.put("pending", pool.getNumThreadsAwaitingCheckoutDefaultUser());
+            }
+        } catch (SQLException e) {
+            logger.warn("Could not read the connection pool sizes", e);
+        }
+        snapshot.put("checkedOut", checkedOut.size());
+        snapshot.put("slowAcquireThresholdMs", TimeUnit.NANOSECONDS.toMillis(slowAcquireNanos));
+        snapshot.put("slowAcquires", slowAcquires.sum());
+        snapshot.put("failedAcquires", failedAcquires.sum());
+        snapshot.put("acquireTime", acquireTime.snapshot());
+        snapshot.put("holdTime", holdTime.snapshot());
+        return snapshot;
+    }
+
+    /**
+     * @return the fewest connections the pool keeps open, or 0 if not configured
+     */
+    public int getMinSize() {
+        return minSize;
+    }
+
+    /**
+     * @return the most connections the pool opens, or 0 if not configured
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return the histogram of time spent waiting for a connection
+     */
+    public Histogram getAcquireTime() {
+        return acquireTime;
+    }
+
+    /**
+     * @return the histogram of time connections were kept before being given back
+     */
+    public Histogram getHoldTime() {
+        return holdTime;
+    }
+
+    /**
+     * @return the c3p0 pool, or null before it is configured
+     */
+    private PooledDataSource pool() {
+        DataSource dataSource = unwrap(DataSource.class);
+        return dataSource instanceof PooledDataSource ? (PooledDataSource) dataSource : null;
+    }
+
+    /**
+     * Describes how full the pool is, for the slow acquire warning.
+     */
+    private String poolState() {
+        PooledDataSource pool = pool();
+        if (pool == null) return "pool not started";
+        try {
+            return "busy " + pool.getNumBusyConnectionsDefaultUser() + "/" + maxSize
+                    + ", " + pool.getNumThreadsAwaitingCheckoutDefaultUser() + " waiting";
+        } catch (SQLException e) {
+            return "pool size unavailable";
+        }
+    }
+
+    /**
+     * Finds the {@link GenericDao} method on the current stack and whatever called it.
+     * Only walked for slow acquires, so the cost does not matter.
+     *
+     * @return e.g. "GenericDao.findView called from Service.getSchedule", or "unknown caller"
+     */
+    static String caller() {
+        String dao = GenericDao.class.getName();
+        return StackWalker.getInstance().walk(frames -> {
+            StackWalker.StackFrame daoFrame = null;
+            for (StackWalker.StackFrame frame : (Iterable<StackWalker.StackFrame>) frames::iterator) {
+                boolean inDao = frame.getClassName().equals(dao);
+                if (inDao) {
+                    daoFrame = frame;
+                } else if (daoFrame != null) {
+                    return describe(daoFrame) + " called from " + describe(frame);
+                }
+            }
+            return daoFrame != null ? describe(daoFrame) : "unknown caller";
+        });
+    }
+
+    private static String describe(StackWalker.StackFrame frame) {
+        String className = frame.getClassName();
+        return className.substring(className.lastIndexOf('.') + 1) + "." + frame.getMethodName();
+    }
+}
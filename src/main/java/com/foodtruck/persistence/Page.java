@@ -0,0 +1,89 @@
+package com.foodtruck.persistence;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * One page of a keyset (seek) query ordered by id.
+ * The cursor is an opaque token that encodes the last id of this page,
+ * so the next page can start with "WHERE id > ?" instead of an OFFSET scan.
+ * Ranked results that are already in memory (search) encode their position in the ranking instead.
+ *
+ * @param <T> The type of the items on the page
+ */
+public class Page<T> {
+
+    /** Items on this page, in ascending id order */
+    private final List<T> items;
+
+    /** Id of the last row on this page, or null if this is the last page */
+    private final Integer lastId;
+
+    /**
+     * Creates a page.
+     *
+     * @param items  The items on this page
+     * @param lastId The id (or ranked position) to continue after, or null if there are no more rows
+     */
+    public Page(List<T> items, Integer lastId) {
+        this.items = items;
+        this.lastId = lastId;
+    }
+
+    /**
+     * Getter for the items on this page
+     *
+     * @return items
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Returns true if another page can be requested with {@link #getNextCursor()}.
+     *
+     * @return true if there are more rows
+     */
+    public boolean hasNext() {
+        return lastId != null;
+    }
+
+    /**
+     * Getter for the cursor of the next page
+     *
+     * @return the next page cursor, or null if this is the last page
+     */
+    public String getNextCursor() {
+        return lastId == null ? null : encodeCursor(lastId);
+    }
+
+    /**
+     * Encodes an id as an opaque cursor token.
+     *
+     * @param id The last id that was returned
+     * @return The cursor token
+     */
+    public static String encodeCursor(int id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("id:" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor token back into the id to continue after.
+     *
+     * @param cursor The cursor token, may be null
+     * @return The id to continue after, or null if no cursor was given
+     * @throws IllegalArgumentException if the cursor is not a valid token
+     */
+    public static Integer decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) return null;
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith("id:")) throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            return Integer.parseInt(decoded.substring(3));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
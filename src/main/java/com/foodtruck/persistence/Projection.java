@@ -0,0 +1,54 @@
+package com.foodtruck.persistence;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.util.function.BiFunction;
+
+/**
+ * Describes how to select a lightweight result object (a DTO) straight from an entity's columns,
+ * so read-only queries never build managed entities.
+ *
+ * @param <T> The entity type the query starts from
+ * @param <R> The result type
+ */
+public interface Projection<T, R> {
+
+    /**
+     * Getter for the result type
+     *
+     * @return the class of the result objects
+     */
+    Class<R> getResultType();
+
+    /**
+     * Builds the selection, usually a constructor expression over the root's columns.
+     *
+     * @param root    The query root
+     * @param builder The criteria builder
+     * @return The selection
+     */
+    Selection<R> select(Root<T> root, CriteriaBuilder builder);
+
+    /**
+     * Creates a projection from a result type and a selection function.
+     *
+     * @param resultType The class of the result objects
+     * @param select     Builds the selection from the root and criteria builder
+     * @return The projection
+     */
+    static <T, R> Projection<T, R> of(Class<R> resultType, BiFunction<Root<T>, CriteriaBuilder, Selection<R>> select) {
+        return new Projection<>() {
+            @Override
+            public Class<R> getResultType() {
+                return resultType;
+            }
+
+            @Override
+            public Selection<R> select(Root<T> root, CriteriaBuilder builder) {
+                return select.apply(root, builder);
+            }
+        };
+    }
+}
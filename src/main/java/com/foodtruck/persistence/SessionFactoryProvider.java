@@ -8,6 +8,10 @@ import org.hibernate.boot.Metadata;
 import org.hibernate.boot.MetadataSources;
 import org.hibernate.boot.registry.StandardServiceRegistry;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
 
 /**
  * This file provides a SessionFactory for use with DAOs using Hibernate
@@ -17,16 +21,29 @@ import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
  */
 public class SessionFactoryProvider {
 
-    private static SessionFactory sessionFactory;
+    // Read without a lock once built; written only while holding the class lock
+    private static volatile SessionFactory sessionFactory;
     private static StandardServiceRegistry registry;
 
     /**
      * Create session factory.
      */
-    public static void createSessionFactory() {
+    public static synchronized void createSessionFactory() {
 
-        // Create registry
-        registry = new StandardServiceRegistryBuilder().build();
+        // Create registry, with the second-level cache on top of the settings in hibernate.properties
+        registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.USE_SECOND_LEVEL_CACHE, true)
+                .applySetting(AvailableSettings.USE_QUERY_CACHE, true)
+                .applySetting(AvailableSettings.CACHE_REGION_FACTORY, "jcache")
+                .applySetting("hibernate.javax.cache.provider", "org.ehcache.jsr107.EhcacheCachingProvider")
+                .applySetting("hibernate.javax.cache.uri", "ehcache.xml")
+                // Every region must be sized in ehcache.xml; never fall back to an unbounded cache
+                .applySetting("hibernate.javax.cache.missing_cache_strategy", "fail")
+                // Needed for the cache hit/miss counters
+                .applySetting(AvailableSettings.GENERATE_STATISTICS, true)
+                // c3p0, with acquire and hold times recorded for /stats/pool
+                .applySetting(AvailableSettings.CONNECTION_PROVIDER, InstrumentedConnectionProvider.class.getName())
+                .build();
 
         // Register annotated entities
         MetadataSources sources = new MetadataSources(registry)
@@ -38,19 +55,35 @@ public class SessionFactoryProvider {
         Metadata metadata = sources.getMetadataBuilder().build();
 
         // Create SessionFactory
-        sessionFactory = metadata.getSessionFactoryBuilder().build();
+        SessionFactory factory = metadata.getSessionFactoryBuilder().build();
+
+        // Publish committed writes to the in-memory indexes
+        EventListenerRegistry listeners = factory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        listeners.appendListeners(EventType.POST_COMMIT_INSERT, EntityChanges.INSTANCE);
+        listeners.appendListeners(EventType.POST_COMMIT_UPDATE, EntityChanges.INSTANCE);
+        listeners.appendListeners(EventType.POST_COMMIT_DELETE, EntityChanges.INSTANCE);
+
+        // Publish only once the listeners are in place, so no thread sees a half-set-up factory
+        sessionFactory = factory;
     }
 
     /**
-     * Gets session factory.
+     * Gets session factory, building it on first use.
+     * Threads that ask while it is being built wait for that one build instead of starting their own.
      *
      * @return the session factory
      */
     public static SessionFactory getSessionFactory() {
-        if (sessionFactory == null) {
-            createSessionFactory();
+        SessionFactory factory = sessionFactory;
+        if (factory == null) {
+            synchronized (SessionFactoryProvider.class) {
+                if (sessionFactory == null) {
+                    createSessionFactory();
+                }
+                factory = sessionFactory;
+            }
         }
-        return sessionFactory;
-
+        return factory;
     }
 }
\ No newline at end of file
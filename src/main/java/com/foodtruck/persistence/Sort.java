@@ -0,0 +1,62 @@
+package com.foodtruck.persistence;
+
+/**
+ * One ORDER BY term for a {@link GenericDao} query.
+ */
+public class Sort {
+
+    /** Property path to sort by, e.g. "date" or "truck.name" */
+    private final String propertyName;
+
+    /** True for ascending order, false for descending */
+    private final boolean ascending;
+
+    /**
+     * Creates a sort term.
+     *
+     * @param propertyName The property path to sort by
+     * @param ascending    True for ascending order
+     */
+    private Sort(String propertyName, boolean ascending) {
+        this.propertyName = propertyName;
+        this.ascending = ascending;
+    }
+
+    /**
+     * Sorts by a property in ascending order.
+     *
+     * @param propertyName The property path
+     * @return The sort term
+     */
+    public static Sort asc(String propertyName) {
+        return new Sort(propertyName, true);
+    }
+
+    /**
+     * Sorts by a property in descending order.
+     *
+     * @param propertyName The property path
+     * @return The sort term
+     */
+    public static Sort desc(String propertyName) {
+        return new Sort(propertyName, false);
+    }
+
+    /**
+     * Getter for the property path
+     *
+     * @return propertyName
+     */
+    public String getPropertyName() {
+        return propertyName;
+    }
+
+    /**
+     * Getter for the direction
+     *
+     * @return true if ascending
+     */
+    public boolean isAscending() {
+        return ascending;
+    }
+}
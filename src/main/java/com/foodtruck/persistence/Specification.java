@@ -0,0 +1,108 @@
+package com.foodtruck.persistence;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.util.Collection;
+
+/**
+ * A filter on an entity that becomes part of the WHERE clause of a {@link GenericDao} query.
+ * Specifications compose with {@link #and(Specification)}, so several filters still run as one SQL statement.
+ * Property names may follow associations with dots, e.g. "location.id".
+ *
+ * @param <T> The entity type
+ */
+@FunctionalInterface
+public interface Specification<T> {
+
+    /**
+     * Builds the predicate for this filter.
+     *
+     * @param root    The query root
+     * @param builder The criteria builder
+     * @return The predicate
+     */
+    Predicate toPredicate(Root<T> root, CriteriaBuilder builder);
+
+    /**
+     * Combines this filter with another; both must match.
+     *
+     * @param other The other filter, or null to keep just this one
+     * @return The combined filter
+     */
+    default Specification<T> and(Specification<T> other) {
+        if (other == null) return this;
+        return (root, builder) -> builder.and(toPredicate(root, builder), other.toPredicate(root, builder));
+    }
+
+    /**
+     * Matches entities where a property equals the value.
+     *
+     * @param propertyName The property path
+     * @param value        The value to match
+     * @return The filter
+     */
+    static <T> Specification<T> equal(String propertyName, Object value) {
+        return (root, builder) -> builder.equal(path(root, propertyName), value);
+    }
+
+    /**
+     * Matches entities where a property equals any of the values.
+     *
+     * @param propertyName The property path
+     * @param values       The values to match
+     * @return The filter
+     */
+    static <T> Specification<T> in(String propertyName, Collection<?> values) {
+        return (root, builder) -> path(root, propertyName).in(values);
+    }
+
+    /**
+     * Matches entities where a property lies between two bounds, both inclusive.
+     * A null bound leaves that side open.
+     *
+     * @param propertyName The property path
+     * @param from         The lower bound, or null
+     * @param to           The upper bound, or null
+     * @return The filter
+     */
+    static <T, Y extends Comparable<? super Y>> Specification<T> range(String propertyName, Y from, Y to) {
+        return (root, builder) -> {
+            Path<Y> path = path(root, propertyName);
+            if (from != null && to != null) return builder.between(path, from, to);
+            if (from != null) return builder.greaterThanOrEqualTo(path, from);
+            if (to != null) return builder.lessThanOrEqualTo(path, to);
+            return builder.conjunction();
+        };
+    }
+
+    /**
+     * Matches entities where a string property matches a SQL LIKE pattern.
+     *
+     * @param propertyName The property path
+     * @param pattern      The pattern, using % and _ as wildcards
+     * @return The filter
+     */
+    static <T> Specification<T> like(String propertyName, String pattern) {
+        return (root, builder) -> builder.like(path(root, propertyName), pattern);
+    }
+
+    /**
+     * Resolves a property path on the root, following dots into associations (e.g. "location.id").
+     *
+     * @param root         The query root
+     * @param propertyName The property path
+     * @return The resolved path
+     */
+    static <Y> Path<Y> path(Root<?> root, String propertyName) {
+        Path<?> path = root;
+        for (String part : propertyName.split("\\.")) {
+            path = path.get(part);
+        }
+        @SuppressWarnings("unchecked")
+        Path<Y> typed = (Path<Y>) path;
+        return typed;
+    }
+}
@@ -0,0 +1,69 @@
+package com.foodtruck.persistence;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset query ordered by id whose rows are read from a database cursor as they are
+ * consumed, instead of being loaded into a list like a {@link Page}.
+ * Which rows belong to the page is settled when it is created, so the next-page cursor is known
+ * before the first row is read, e.g. to send it in a header ahead of a streamed body.
+ *
+ * @param <T> The type of the items on the page
+ */
+public class StreamedPage<T> {
+
+    /** Id of the last row on this page, or null if this is the last page */
+    private final Integer lastId;
+
+    /** Runs the page query, handing each row to the given action */
+    private final Consumer<Consumer<? super T>> rows;
+
+    /**
+     * Creates a page.
+     *
+     * @param lastId The id to continue after, or null if there are no more rows
+     * @param rows   Runs the page query, handing each row to the given action
+     */
+    StreamedPage(Integer lastId, Consumer<Consumer<? super T>> rows) {
+        this.lastId = lastId;
+        this.rows = rows;
+    }
+
+    /**
+     * Reads the rows of this page in id order. Each call runs the query again.
+     *
+     * @param action The action to run for each row
+     */
+    public void forEach(Consumer<? super T> action) {
+        rows.accept(action);
+    }
+
+    /**
+     * Returns the same page with each row converted as it is read.
+     *
+     * @param converter Converts a row
+     * @return The converted page
+     */
+    public <R> StreamedPage<R> map(Function<? super T, ? extends R> converter) {
+        return new StreamedPage<>(lastId, action -> rows.accept(row -> action.accept(converter.apply(row))));
+    }
+
+    /**
+     * Returns true if another page can be requested with {@link #getNextCursor()}.
+     *
+     * @return true if there are more rows
+     */
+    public boolean hasNext() {
+        return lastId != null;
+    }
+
+    /**
+     * Getter for the cursor of the next page
+     *
+     * @return the next page cursor, or null if this is the last page
+     */
+    public String getNextCursor() {
+        return lastId == null ? null : Page.encodeCursor(lastId);
+    }
+}
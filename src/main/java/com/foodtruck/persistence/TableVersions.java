@@ -0,0 +1,125 @@
+package com.foodtruck.persistence;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A version number per entity table, increased by every committed insert, update or delete made
+ * through Hibernate, so a response built from some tables can be tagged with their versions and
+ * recognized as unchanged later without reading the tables again.
+ * <p>
+ * Versions count from zero each time the application starts, so tags also carry the start time.
+ * Like the in-memory indexes, versions only see writes made through {@link GenericDao}; after changing
+ * tables another way call {@link #invalidateAll()}.
+ */
+public final class TableVersions {
+
+    /** When the versions started counting, so tags from before a restart never match */
+    private static final long EPOCH = System.currentTimeMillis();
+
+    /** Version of each table seen so far */
+    private static final Map<Class<?>, Table> tables = new ConcurrentHashMap<>();
+
+    private TableVersions() {
+    }
+
+    /**
+     * Reads the current version of some tables.
+     * Read it before querying the tables, so the stamp is never newer than the rows it is attached to.
+     *
+     * @param types The entity classes a response is built from
+     * @return The combined version of the tables
+     */
+    public static Stamp stamp(Class<?>... types) {
+        StringBuilder tag = new StringBuilder(Long.toString(EPOCH, 36));
+        long lastModified = EPOCH;
+        for (Class<?> type : types) {
+            Table table = table(type);
+            tag.append('.').append(table.version.get());
+            lastModified = Math.max(lastModified, table.lastModified);
+        }
+        return new Stamp(tag.toString(), lastModified, List.of(types));
+    }
+
+    /**
+     * Marks every table as changed, for writes made without Hibernate.
+     */
+    public static void invalidateAll() {
+        for (Table table : tables.values()) table.changed();
+    }
+
+    private static Table table(Class<?> type) {
+        return tables.computeIfAbsent(type, TableVersions::track);
+    }
+
+    /**
+     * Starts counting the writes to a table. Writes before this need no count,
+     * since no stamp of the table was handed out before it.
+     */
+    private static <T> Table track(Class<T> type) {
+        Table table = new Table();
+        EntityChanges.register(type, new EntityChangeListener<T>() {
+            @Override
+            public void saved(T entity) {
+                table.changed();
+            }
+
+            @Override
+            public void deleted(T entity) {
+                table.changed();
+            }
+        });
+        return table;
+    }
+
+    /**
+     * The version of one table.
+     */
+    private static class Table {
+        private final AtomicLong version = new AtomicLong();
+        private volatile long lastModified = EPOCH;
+
+        void changed() {
+            lastModified = System.currentTimeMillis();
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * The versions of some tables at one moment.
+     */
+    public static class Stamp {
+        private final String tag;
+        private final long lastModified;
+        private final List<Class<?>> types;
+
+        Stamp(String tag, long lastModified, List<Class<?>> types) {
+            this.tag = tag;
+            this.lastModified = lastModified;
+            this.types = types;
+        }
+
+        /**
+         * @return a value that changes whenever any of the tables changes, for use as an ETag
+         */
+        public String getTag() {
+            return tag;
+        }
+
+        /**
+         * @return when any of the tables last changed, in epoch milliseconds; the start time if never
+         */
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * @return the entity classes of the tables stamped
+         */
+        public List<Class<?>> getTypes() {
+            return types;
+        }
+    }
+}
@@ -23,15 +23,18 @@ CREATE TABLE locations (
     longitude   DECIMAL(9,6)    NULL
 );
 
+-- Serves the bounding-box prefilter of distance searches --
+CREATE INDEX idx_locations_lat_lon ON locations (latitude, longitude);
+
 -- Creates schedules table with foreign key constraints --
 CREATE TABLE schedules (
     id          INT             AUTO_INCREMENT  PRIMARY KEY,
     truck_id    INT             NOT NULL,
     location_id INT             NOT NULL,
     day_of_week VARCHAR(25)     NOT NULL,
-    date        VARCHAR(15)     NOT NULL,
-    start_time  VARCHAR(10)     NOT NULL,
-    end_time    VARCHAR(10)     NOT NULL,
+    date        DATE            NOT NULL,
+    start_time  TIME            NOT NULL,
+    end_time    TIME            NOT NULL,
 
     CONSTRAINT `fk_schedule_truck` FOREIGN KEY (truck_id)
         REFERENCES food_trucks(id)
@@ -42,6 +45,9 @@ CREATE TABLE schedules (
         ON DELETE CASCADE
 );
 
+-- Serves date and date range lookups, optionally narrowed by location --
+CREATE INDEX idx_schedules_date_location ON schedules (date, location_id);
+
 -- Insert test data -
 INSERT INTO food_trucks
     (name, food_type)
@@ -58,11 +64,11 @@ VALUES
 INSERT INTO schedules
     (truck_id, location_id, day_of_week, date, start_time, end_time)
 VALUES
-    (1, 1, 'Monday', '5/7/2026', '8:00am', '4:00pm')
+    (1, 1, 'Monday', '2026-05-07', '08:00', '16:00')
 
 ;
 INSERT INTO schedules
     (truck_id, location_id, day_of_week, date, start_time, end_time)
 VALUES
-    (1, 1, 'Tuesday', '5/8/2026', '8:00am', '4:00pm')
+    (1, 1, 'Tuesday', '2026-05-08', '08:00', '16:00')
 ;
\ No newline at end of file
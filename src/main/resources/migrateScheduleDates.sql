@@ -0,0 +1,59 @@
+-- Migrates an existing schedules table from VARCHAR date/time strings to DATE/TIME columns.
+-- Run once against databases created before the typed columns; cleanDB.sql already creates the new layout.
+-- Accepts the formats the API used to store: dates as 5/7/2026 or 2026-5-7, times as 8:00am or 14:00.
+-- The old columns are only dropped once every row has converted. If the script stops at the swap, fix the
+-- rows it listed and run it again from the UPDATE.
+
+-- Add typed columns next to the old ones --
+ALTER TABLE schedules
+    ADD COLUMN date_new       DATE    NULL,
+    ADD COLUMN start_time_new TIME    NULL,
+    ADD COLUMN end_time_new   TIME    NULL;
+
+-- Convert the strings; IGNORE leaves a NULL, instead of failing the whole UPDATE, where one does not parse --
+UPDATE IGNORE schedules
+SET date_new = CASE
+        WHEN date LIKE '%/%' THEN STR_TO_DATE(date, '%c/%e/%Y')
+        ELSE STR_TO_DATE(date, '%Y-%c-%e')
+    END,
+    start_time_new = CASE
+        WHEN LOWER(start_time) LIKE '%m' THEN STR_TO_DATE(REPLACE(LOWER(start_time), ' ', ''), '%l:%i%p')
+        ELSE STR_TO_DATE(start_time, '%k:%i')
+    END,
+    end_time_new = CASE
+        WHEN LOWER(end_time) LIKE '%m' THEN STR_TO_DATE(REPLACE(LOWER(end_time), ' ', ''), '%l:%i%p')
+        ELSE STR_TO_DATE(end_time, '%k:%i')
+    END;
+
+-- Rows that could not be converted; fix their strings and rerun the UPDATE above, this list must be empty --
+SELECT id, date, start_time, end_time
+FROM schedules
+WHERE date_new IS NULL OR start_time_new IS NULL OR end_time_new IS NULL;
+
+-- Swap the typed columns in, but only once every row converted: otherwise stop with the old columns kept --
+DROP PROCEDURE IF EXISTS swap_schedule_dates;
+DELIMITER //
+CREATE PROCEDURE swap_schedule_dates()
+BEGIN
+    IF EXISTS (SELECT 1 FROM schedules
+               WHERE date_new IS NULL OR start_time_new IS NULL OR end_time_new IS NULL) THEN
+        SIGNAL SQLSTATE '45000'
+            SET MESSAGE_TEXT = 'schedules has rows that did not convert; fix them and rerun the UPDATE';
+    END IF;
+
+    ALTER TABLE schedules
+        DROP COLUMN date,
+        DROP COLUMN start_time,
+        DROP COLUMN end_time;
+
+    ALTER TABLE schedules
+        CHANGE COLUMN date_new       date       DATE NOT NULL,
+        CHANGE COLUMN start_time_new start_time TIME NOT NULL,
+        CHANGE COLUMN end_time_new   end_time   TIME NOT NULL;
+END //
+DELIMITER ;
+
+CALL swap_schedule_dates();
+DROP PROCEDURE swap_schedule_dates;
+
+CREATE INDEX idx_schedules_date_location ON schedules (date, location_id);
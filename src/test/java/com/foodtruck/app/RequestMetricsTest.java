@@ -0,0 +1,100 @@
+package com.foodtruck.app;
+
+import com.foodtruck.json.DataFormat;
+import com.foodtruck.testsupport.DbReset;
+import com.foodtruck.testsupport.InMemoryApi;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.junit.Test;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.StreamingOutput;
+
+import static org.junit.Assert.*;
+
+public class RequestMetricsTest extends DbReset {
+
+    private static final String BY_ID = "{method=\"GET\",path=\"/trucks/{id}\"}";
+    private static final String TRUCK_GET_BY_ID = "{entity=\"Truck\",operation=\"getById\"}";
+
+    // Test that requests are counted per path template and the DAO reads behind them per operation
+    @Test
+    public void countsRequestsPerEndpoint() throws Exception {
+        InMemoryApi api = new InMemoryApi(new ResourceConfig(Service.class, RequestMetrics.class, MetricsService.class)
+                .register(new DaoBinder()));
+        String before = api.get("metrics").getText();
+
+        assertEquals(200, api.get("trucks/1").getStatus());
+        assertEquals(200, api.get("trucks/1").getStatus());
+        assertEquals(404, api.get("trucks/999").getStatus());
+        assertEquals(404, api.get("no/such/path").getStatus());
+
+        InMemoryApi.Reply reply = api.get("metrics");
+        String after = reply.getText();
+
+        // Verify every id landed in one series, a 404 is not an error, and the DAO lookups were timed
+        // (the repeated truck comes from the serialized response cache without one)
+        assertEquals(200, reply.getStatus());
+        assertTrue(reply.getHeaderString("Content-Type").startsWith("text/plain"));
+        assertEquals(3, delta(before, after, "foodtruck_http_request_duration_seconds_count" + BY_ID));
+        assertEquals(0, delta(before, after, "foodtruck_http_request_errors_total" + BY_ID));
+        assertEquals(1, delta(before, after,
+                "foodtruck_http_request_duration_seconds_count{method=\"*\",path=\"unmatched\"}"));
+        assertEquals(0, delta(before, after,
+                "foodtruck_http_request_errors_total{method=\"*\",path=\"unmatched\"}"));
+        assertTrue(delta(before, after, "foodtruck_dao_operation_duration_seconds_count" + TRUCK_GET_BY_ID) >= 2);
+        assertTrue(after.contains("# TYPE foodtruck_http_request_duration_seconds histogram"));
+        assertTrue(after.contains("foodtruck_http_request_duration_seconds_bucket{method=\"GET\",path=\"/trucks/{id}\",le=\"+Inf\"}"));
+    }
+
+    // Test that a streamed body failing after the status was sent counts as an error
+    @Test
+    public void countsFailureWhileStreamingAsError() throws Exception {
+        InMemoryApi api = new InMemoryApi(new ResourceConfig(BrokenStream.class, RequestMetrics.class, MetricsService.class));
+        String before = api.get("metrics").getText();
+
+        try {
+            api.get("broken");
+        } catch (Exception e) {
+            // Jersey may or may not pass the failure on to the caller; only the metrics matter here
+        }
+        String after = api.get("metrics").getText();
+
+        // Verify the request was timed and counted as failed despite its 200 status
+        String series = "{method=\"GET\",path=\"/broken\"}";
+        assertEquals(1, delta(before, after, "foodtruck_http_request_duration_seconds_count" + series));
+        assertEquals(1, delta(before, after, "foodtruck_http_request_errors_total" + series));
+    }
+
+    /**
+     * Gets how much a sample grew between two scrapes; the registry lives as long as the JVM, so other
+     * tests in the same fork may have recorded into it first.
+     */
+    private static long delta(String before, String after, String sample) {
+        return value(after, sample) - value(before, sample);
+    }
+
+    private static long value(String metrics, String sample) {
+        for (String line : metrics.split("\n")) {
+            if (line.startsWith(sample + " ")) return Long.parseLong(line.substring(sample.length() + 1).trim());
+        }
+        return 0;
+    }
+
+    /**
+     * Streams one row, then fails the way a database cursor dropping mid-scroll does.
+     */
+    @Path("/broken")
+    public static class BrokenStream {
+        @GET
+        @Produces(MediaType.APPLICATION_JSON)
+        public StreamingOutput get() {
+            return new ArrayOutput<String>(DataFormat.JSON, String.class, row -> {
+                row.accept("first");
+                throw new IllegalStateException("cursor closed");
+            });
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.foodtruck.app;
+
+import com.foodtruck.entities.Location;
+import com.foodtruck.entities.Schedule;
+import com.foodtruck.entities.Truck;
+import com.foodtruck.persistence.SessionFactoryProvider;
+import com.foodtruck.testsupport.DbReset;
+import com.foodtruck.testsupport.InMemoryApi;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.Assert.*;
+
+public class ResponseCompressionTest extends DbReset {
+
+    private InMemoryApi api;
+
+    @Before
+    public void setUpApi() {
+        api = new InMemoryApi(new ResourceConfig(Service.class).register(new DaoBinder())
+                .register(ResponseCompression.class)
+                .property(ResponseCompression.MIN_SIZE, 1024));
+
+        // Enough schedule entries for a page well over the threshold
+        Truck truck = dao(Truck.class).getById(1);
+        Location location = dao(Location.class).getById(1);
+        List<Schedule> schedules = new ArrayList<>();
+        for (int day = 1; day <= 30; day++) {
+            schedules.add(new Schedule(truck, location, "Friday", LocalDate.of(2026, 6, day),
+                    LocalTime.of(11, 0), LocalTime.of(14, 0)));
+        }
+        dao(Schedule.class).insertAll(schedules);
+    }
+
+    // Test that a large body is gzipped, and decompresses to the uncompressed body
+    @Test
+    public void largeBodyIsGzipped() throws Exception {
+        InMemoryApi.Reply plain = api.get("schedule");
+        InMemoryApi.Reply gzipped = api.get("schedule", "Accept-Encoding", "gzip, deflate, br");
+
+        // Verify the coding headers and that the body is the same once inflated
+        assertNull(plain.getHeaderString("Content-Encoding"));
+        assertEquals("Accept,Accept-Encoding", plain.getHeaderString("Vary"));
+        assertEquals("gzip", gzipped.getHeaderString("Content-Encoding"));
+        assertEquals("Accept,Accept-Encoding", gzipped.getHeaderString("Vary"));
+        byte[] compressed = gzipped.getBody();
+        String body = plain.getText();
+        assertTrue(compressed.length * 4 < body.length());
+        assertEquals(body, inflate(new GZIPInputStream(new ByteArrayInputStream(compressed))));
+        assertEquals(plain.getHeaderString("ETag").replace("\"", "") + "-gzip",
+                gzipped.getHeaderString("ETag").replace("\"", ""));
+    }
+
+    // Test that deflate is used when the client refuses gzip, and nothing when it accepts neither
+    @Test
+    public void codingFollowsAcceptEncoding() throws Exception {
+        InMemoryApi.Reply deflated = api.get("schedule", "Accept-Encoding", "gzip;q=0, deflate");
+        assertEquals("deflate", deflated.getHeaderString("Content-Encoding"));
+        assertEquals(api.get("schedule").getText(),
+                inflate(new InflaterInputStream(new ByteArrayInputStream(deflated.getBody()))));
+
+        assertNull(api.get("schedule", "Accept-Encoding", "br, identity").getHeaderString("Content-Encoding"));
+        assertNull(api.get("schedule", "Accept-Encoding", "*;q=0").getHeaderString("Content-Encoding"));
+    }
+
+    // Test that a small body is sent as it is, with its plain ETag
+    @Test
+    public void smallBodyIsNotCompressed() throws Exception {
+        InMemoryApi.Reply plain = api.get("trucks/1");
+        InMemoryApi.Reply response = api.get("trucks/1", "Accept-Encoding", "gzip");
+
+        // Verify the single truck is sent uncompressed
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeaderString("Content-Encoding"));
+        assertTrue(response.getText().contains("ANM Burger Buds"));
+        assertEquals(plain.getHeaderString("ETag"), response.getHeaderString("ETag"));
+    }
+
+    // Test that unchanged responses reuse the compressed bytes, and their ETag still gets 304
+    @Test
+    public void unchangedBodyReusesCompressedBytes() throws Exception {
+        InMemoryApi.Reply first = api.get("schedule", "Accept-Encoding", "gzip");
+        Statistics statistics = SessionFactoryProvider.getSessionFactory().getStatistics();
+        long statements = statistics.getPrepareStatementCount();
+        InMemoryApi.Reply second = api.get("schedule", "Accept-Encoding", "gzip");
+
+        // Verify the same bytes were sent twice, and nothing was queried the second time
+        assertArrayEquals(first.getBody(), second.getBody());
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        String etag = first.getHeaderString("ETag");
+        assertEquals(etag, second.getHeaderString("ETag"));
+        InMemoryApi.Reply revalidated = api.get("schedule", "Accept-Encoding", "gzip", "If-None-Match", etag);
+        assertEquals(304, revalidated.getStatus());
+        assertEquals(etag, revalidated.getHeaderString("ETag"));
+
+        // A write changes the ETag, so the body is compressed again
+        Truck truck = dao(Truck.class).getById(1);
+        truck.setName("Renamed");
+        dao(Truck.class).update(truck);
+        InMemoryApi.Reply changed = api.get("schedule", "Accept-Encoding", "gzip", "If-None-Match", etag);
+        assertEquals(200, changed.getStatus());
+        assertTrue(inflate(new GZIPInputStream(new ByteArrayInputStream(changed.getBody()))).contains("Renamed"));
+    }
+
+    // Test that the cache drops the least recently used bodies past its size
+    @Test
+    public void cacheStaysUnderItsSize() {
+        ResponseCompression.CompressedBodies cache = new ResponseCompression.CompressedBodies(100);
+        cache.put("a", new byte[40]);
+        cache.put("b", new byte[40]);
+        cache.get("a");
+        cache.put("c", new byte[40]);
+
+        // Verify b, the least recently used, was dropped
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertEquals(80, cache.size());
+    }
+
+    private static String inflate(InputStream in) throws Exception {
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.foodtruck.app;
+
+import com.foodtruck.entities.Location;
+import com.foodtruck.entities.Truck;
+import com.foodtruck.persistence.SessionFactoryProvider;
+import com.foodtruck.persistence.TableVersions;
+import com.foodtruck.testsupport.DbReset;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class SerializedResponsesTest extends DbReset {
+
+    private final SerializedResponses cache = SerializedResponses.getInstance();
+    private Service service;
+
+    @Before
+    public void setUpService() {
+        cache.clear();
+        service = new Service();
+    }
+
+    // Test that reading the same truck again sends the kept bytes without a query
+    @Test
+    public void repeatedTruckReadSkipsDatabase() {
+        Response first = service.getTruckById(1, null);
+        Statistics statistics = SessionFactoryProvider.getSessionFactory().getStatistics();
+        long statements = statistics.getPrepareStatementCount();
+        Response second = service.getTruckById(1, null);
+
+        // Verify the very same bytes were sent, with no statement run
+        assertEquals(200, second.getStatus());
+        assertSame(first.getEntity(), second.getEntity());
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertTrue(new String((byte[]) second.getEntity(), StandardCharsets.UTF_8).contains("ANM Burger Buds"));
+    }
+
+    // Test that a schedule page is kept once written, with its cursor, and dropped by a write to a table it uses
+    @Test
+    public void writeDropsScheduleBody() throws Exception {
+        String body = write(service.getSchedule(null, null, null, null, null, 1, null, null, null));
+        Response again = service.getSchedule(null, null, null, null, null, 1, null, null, null);
+
+        // Verify the second read is the kept body
+        assertEquals(body, new String((byte[]) again.getEntity(), StandardCharsets.UTF_8));
+        assertEquals(again.getHeaderString("X-Next-Cursor"),
+                service.getSchedule(null, null, null, null, null, 1, null, null, null).getHeaderString("X-Next-Cursor"));
+        assertTrue(cache.size() > 0);
+
+        Location location = dao(Location.class).getById(1);
+        location.setName("Renamed");
+        dao(Location.class).update(location);
+
+        // Verify the body was dropped and the page is read again
+        assertEquals(0, cache.size());
+        Response changed = service.getSchedule(null, null, null, null, null, 1, null, null, null);
+        assertTrue(changed.getEntity() instanceof StreamingOutput);
+        assertTrue(write(changed).contains("Renamed"));
+    }
+
+    // Test that a body kept at older table versions is never sent
+    @Test
+    public void staleBodyIsNotServed() {
+        TableVersions.Stamp before = TableVersions.stamp(Truck.class);
+        dao(Truck.class).insert(new Truck("Wok This Way", "Asian"));
+        cache.put("trucks/1", before, new byte[]{'{', '}'}, null);
+
+        // Verify the stale body is not found at the current versions
+        assertNull(cache.get("trucks/1", TableVersions.stamp(Truck.class)));
+        assertNotNull(cache.get("trucks/1", before));
+    }
+
+    // Test that the cache drops the least recently used bodies past its size
+    @Test
+    public void cacheStaysUnderItsSize() {
+        SerializedResponses small = new SerializedResponses(100);
+        TableVersions.Stamp stamp = TableVersions.stamp(Truck.class);
+        small.put("a", stamp, new byte[40], null);
+        small.put("b", stamp, new byte[40], null);
+        small.get("a", stamp);
+        small.put("c", stamp, new byte[40], null);
+
+        // Verify b, the least recently used, was dropped
+        assertNotNull(small.get("a", stamp));
+        assertNull(small.get("b", stamp));
+        assertNotNull(small.get("c", stamp));
+        assertEquals(80, small.size());
+    }
+
+    private static String write(Response response) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,70 @@
+package com.foodtruck.app;
+
+import com.foodtruck.entities.Schedule;
+import com.foodtruck.entities.Truck;
+import com.foodtruck.json.DataFormat;
+import com.foodtruck.persistence.DaoRegistry;
+import com.foodtruck.testsupport.DbReset;
+import com.foodtruck.testsupport.InMemoryApi;
+import org.glassfish.jersey.server.ExtendedUriInfo;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.junit.Test;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.Context;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SingletonServiceTest extends DbReset {
+
+    private static final List<Object> served = Collections.synchronizedList(new ArrayList<>());
+
+    // Test that every request is served by the same Service, which still sees each request's own headers
+    @Test
+    public void requestsShareOneService() throws Exception {
+        served.clear();
+        InMemoryApi api = new InMemoryApi(new ResourceConfig(Service.class)
+                .register(new DaoBinder())
+                .register(RecordResource.class));
+
+        InMemoryApi.Reply json = api.get("trucks/1");
+        InMemoryApi.Reply cbor = api.get("trucks/1", "Accept", DataFormat.CBOR_TYPE);
+
+        // Verify one instance answered both, each in the format its request asked for
+        assertEquals(2, served.size());
+        assertSame(served.get(0), served.get(1));
+        assertEquals("application/json", json.getHeaderString("Content-Type"));
+        assertEquals(DataFormat.CBOR_TYPE, cbor.getHeaderString("Content-Type"));
+    }
+
+    // Test that the registry hands out one DAO per type and entity graph
+    @Test
+    public void registrySharesDaos() {
+        DaoRegistry daos = new DaoRegistry();
+
+        // Verify repeated lookups return the same DAO, and a graph gets its own
+        assertSame(daos.get(Truck.class), daos.get(Truck.class));
+        assertSame(daos.get(Schedule.class, Schedule.WITH_TRUCK_AND_LOCATION),
+                daos.get(Schedule.class, Schedule.WITH_TRUCK_AND_LOCATION));
+        assertNotSame(daos.get(Schedule.class), daos.get(Schedule.class, Schedule.WITH_TRUCK_AND_LOCATION));
+    }
+
+    /**
+     * Records the resource instance that served each request.
+     */
+    public static class RecordResource implements ContainerResponseFilter {
+
+        @Context
+        private ExtendedUriInfo uriInfo;
+
+        @Override
+        public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+            served.addAll(uriInfo.getMatchedResources());
+        }
+    }
+}
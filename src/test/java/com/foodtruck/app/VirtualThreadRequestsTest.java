@@ -0,0 +1,91 @@
+package com.foodtruck.app;
+
+import com.foodtruck.testsupport.DbReset;
+import com.foodtruck.testsupport.InMemoryApi;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.junit.Test;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class VirtualThreadRequestsTest extends DbReset {
+
+    // Test that endpoints run on virtual threads once the mode is enabled
+    @Test
+    public void enabledRunsEndpointsOnVirtualThreads() throws Exception {
+        InMemoryApi.Reply response = get(true, "trucks/1");
+
+        // Verify the truck is returned, from a virtual thread
+        assertEquals(200, response.getStatus());
+        assertTrue(response.getText().contains("ANM Burger Buds"));
+        assertEquals("true", response.getHeaderString(RecordThread.HEADER));
+    }
+
+    // Test that endpoints stay on the calling thread by default
+    @Test
+    public void disabledRunsEndpointsOnCallingThread() throws Exception {
+        InMemoryApi.Reply response = get(false, "trucks/1");
+
+        // Verify the truck is returned, from a platform thread
+        assertEquals(200, response.getStatus());
+        assertEquals("false", response.getHeaderString(RecordThread.HEADER));
+    }
+
+    // Test that no more tasks than the limit run at once, and every task runs
+    @Test
+    public void executorLimitsConcurrentTasks() throws Exception {
+        VirtualThreadRequests.LimitedVirtualThreadExecutor executor =
+                new VirtualThreadRequests.LimitedVirtualThreadExecutor(2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger mostRunning = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(10);
+
+        for (int i = 0; i < 10; i++) {
+            executor.execute(() -> {
+                mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        // Verify all tasks finished, at most two at a time
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(2, mostRunning.get());
+        executor.shutdown();
+    }
+
+    /**
+     * Sends a GET through an in-memory Jersey application.
+     */
+    private InMemoryApi.Reply get(boolean virtualThreads, String path) throws Exception {
+        ResourceConfig config = new ResourceConfig(Service.class).register(new DaoBinder())
+                .register(VirtualThreadRequests.class)
+                .register(RecordThread.class)
+                .property(VirtualThreadRequests.ENABLED, virtualThreads);
+        return new InMemoryApi(config).get(path);
+    }
+
+    /**
+     * Adds a header telling whether the response was finished on a virtual thread.
+     */
+    public static class RecordThread implements ContainerResponseFilter {
+
+        static final String HEADER = "X-Virtual-Thread";
+
+        @Override
+        public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+            response.getHeaders().add(HEADER, String.valueOf(Thread.currentThread().isVirtual()));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.foodtruck.app;
+
+import com.foodtruck.index.LocationIndex;
+import com.foodtruck.index.ScheduleIndex;
+import com.foodtruck.index.TruckSearchIndex;
+import com.foodtruck.testsupport.DbReset;
+import com.foodtruck.testsupport.InMemoryApi;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class WarmupTest extends DbReset {
+
+    @After
+    public void tearDown() {
+        Warmup.reset();
+    }
+
+    // Test that /ready answers 503 until the warm-up started with the application is done, then 200
+    @Test
+    public void readyOnlyOnceWarm() throws Exception {
+        Warmup.reset();
+        InMemoryApi cold = new InMemoryApi(new ResourceConfig(ReadinessService.class));
+        InMemoryApi.Reply before = cold.get("ready");
+        assertEquals(503, before.getStatus());
+        assertEquals("{\"ready\":false}", before.getText());
+
+        InMemoryApi api = new InMemoryApi(new ResourceConfig(ReadinessService.class, Warmup.class)
+                .register(new DaoBinder())
+                .property(Warmup.ROUNDS, 2));
+        long deadline = System.currentTimeMillis() + 60_000;
+        while (!Warmup.isReady() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        // Verify the node reports ready, with the indexes loaded, and that the answer is never cached
+        InMemoryApi.Reply after = api.get("ready");
+        assertEquals(200, after.getStatus());
+        assertEquals("{\"ready\":true}", after.getText());
+        assertTrue(after.getHeaderString("Cache-Control").contains("no-store"));
+        assertTrue(LocationIndex.getInstance().isLoaded());
+        assertTrue(ScheduleIndex.getInstance().isLoaded());
+        assertTrue(TruckSearchIndex.getInstance().isLoaded());
+    }
+}
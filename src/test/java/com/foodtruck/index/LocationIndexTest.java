@@ -0,0 +1,90 @@
+package com.foodtruck.index;
+
+import com.foodtruck.entities.Location;
+import com.foodtruck.persistence.GenericDao;
+import com.foodtruck.testsupport.DbReset;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class LocationIndexTest extends DbReset {
+
+    private GenericDao<Location> locationDao;
+    private LocationIndex index;
+
+    @Before
+    public void setUpIndex() {
+        locationDao = dao(Location.class);
+        index = LocationIndex.getInstance();
+
+        // Seed locations around the Capitol Square in Madison, plus one in Milwaukee
+        locationDao.insert(new Location("Capitol", "2 E Main St", "WI", 53703, "USA", 43.0747, -89.3841));
+        locationDao.insert(new Location("Library Mall", "728 State St", "WI", 53703, "USA", 43.0757, -89.3984));
+        locationDao.insert(new Location("Olbrich Park", "3527 Atwood Ave", "WI", 53714, "USA", 43.0935, -89.3312));
+        locationDao.insert(new Location("Milwaukee", "200 E Wells St", "WI", 53202, "USA", 43.0410, -87.9096));
+    }
+
+    // Test that a search before and after loading the index returns the same locations in the same order
+    @Test
+    public void nearMatchesDatabaseFallback() {
+        List<GridIndex.Hit> cold = index.near(43.0747, -89.3841, 5);
+        index.load();
+        assertTrue(index.isLoaded());
+        List<GridIndex.Hit> warm = index.near(43.0747, -89.3841, 5);
+
+        // Verify the three Madison locations come back nearest first, and Milwaukee does not
+        assertEquals(List.of("Capitol", "Library Mall", "Olbrich Park"), names(warm));
+        assertEquals(ids(cold), ids(warm));
+        assertEquals(0.0, warm.get(0).getDistanceKm(), 0.001);
+    }
+
+    // Test that inserts, moves and deletes made through GenericDao show up in a loaded index
+    @Test
+    public void indexFollowsLocationWrites() {
+        index.load();
+        Location cart = new Location("Cart", "1 Test St", "WI", 53703, "USA", 43.0750, -89.3850);
+        locationDao.insert(cart);
+        assertTrue(ids(index.near(43.0747, -89.3841, 1)).contains(cart.getId()));
+
+        // Move it to Milwaukee
+        cart = locationDao.getById(cart.getId());
+        cart.setLatitude(43.0389);
+        cart.setLongitude(-87.9065);
+        locationDao.update(cart);
+        assertFalse(ids(index.near(43.0747, -89.3841, 1)).contains(cart.getId()));
+        assertTrue(ids(index.near(43.0389, -87.9065, 1)).contains(cart.getId()));
+
+        locationDao.delete(cart);
+        assertFalse(ids(index.near(43.0389, -87.9065, 1)).contains(cart.getId()));
+    }
+
+    // Test the grid directly, including a search wide enough to walk every cell
+    @Test
+    public void gridFindsPointsAcrossCells() {
+        GridIndex grid = new GridIndex(0.01);
+        grid.put(new GeoPoint(1, 43.0747, -89.3841));
+        grid.put(new GeoPoint(2, 43.0935, -89.3312));
+        grid.put(new GeoPoint(3, 43.0410, -87.9096));
+
+        assertEquals(List.of(1, 2), grid.near(43.0747, -89.3841, 10).stream()
+                .map(hit -> hit.getPoint().getId()).collect(Collectors.toList()));
+        assertEquals(3, grid.near(43.0747, -89.3841, 200).size());
+
+        grid.remove(2);
+        assertEquals(2, grid.size());
+        assertEquals(1, grid.near(43.0747, -89.3841, 10).size());
+    }
+
+    private static List<Integer> ids(List<GridIndex.Hit> hits) {
+        return hits.stream().map(hit -> hit.getPoint().getId()).collect(Collectors.toList());
+    }
+
+    private List<String> names(List<GridIndex.Hit> hits) {
+        return hits.stream().map(hit -> locationDao.getById(hit.getPoint().getId()).getName())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,107 @@
+package com.foodtruck.index;
+
+import com.foodtruck.entities.Location;
+import com.foodtruck.entities.Schedule;
+import com.foodtruck.entities.Truck;
+import com.foodtruck.persistence.GenericDao;
+import com.foodtruck.testsupport.Database;
+import com.foodtruck.testsupport.DbReset;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class ScheduleIndexTest extends DbReset {
+
+    private GenericDao<Schedule> scheduleDao;
+    private ScheduleIndex index;
+
+    @Before
+    public void setUpIndex() {
+        scheduleDao = dao(Schedule.class);
+        index = ScheduleIndex.getInstance();
+    }
+
+    // Test that the seeded schedules are open only inside their windows
+    @Test
+    public void openAtFindsSeededWindows() {
+        // Seeded: schedule 1 on 2026-05-07 and schedule 2 on 2026-05-08, both 08:00 to 16:00
+        assertEquals(List.of(1), ids(LocalDateTime.of(2026, 5, 7, 8, 0)));
+        assertEquals(List.of(1), ids(LocalDateTime.of(2026, 5, 7, 15, 59)));
+        assertEquals(List.of(), ids(LocalDateTime.of(2026, 5, 7, 16, 0)));
+        assertEquals(List.of(), ids(LocalDateTime.of(2026, 5, 7, 7, 59)));
+        assertEquals(List.of(2), ids(LocalDateTime.of(2026, 5, 8, 12, 0)));
+    }
+
+    // Test that schedules added and deleted through GenericDao show up in a loaded index
+    @Test
+    public void indexFollowsScheduleWrites() {
+        index.load();
+        Truck truck = dao(Truck.class).getById(1);
+        Location location = dao(Location.class).getById(1);
+
+        // A late-night window that runs past midnight
+        Schedule lateNight = new Schedule(truck, location, "Friday", LocalDate.of(2026, 5, 8),
+                LocalTime.of(22, 0), LocalTime.of(2, 0));
+        scheduleDao.insert(lateNight);
+        assertTrue(ids(LocalDateTime.of(2026, 5, 8, 23, 30)).contains(lateNight.getId()));
+        assertTrue(ids(LocalDateTime.of(2026, 5, 9, 1, 30)).contains(lateNight.getId()));
+        assertFalse(ids(LocalDateTime.of(2026, 5, 9, 2, 0)).contains(lateNight.getId()));
+
+        scheduleDao.delete(scheduleDao.getById(lateNight.getId()));
+        assertEquals(List.of(), ids(LocalDateTime.of(2026, 5, 8, 23, 30)));
+    }
+
+    // Test that a schedule without a date, which the typed columns now forbid but older databases may
+    // hold, is left out of the index instead of keeping it from loading
+    @Test
+    public void loadSkipsScheduleWithoutDate() throws Exception {
+        Database database = Database.getInstance();
+        database.connect();
+        try (Statement statement = database.getConnection().createStatement()) {
+            statement.execute("ALTER TABLE schedules ALTER COLUMN date SET NULL");
+            try {
+                statement.execute("INSERT INTO schedules (truck_id, location_id, day_of_week, date, start_time, end_time)"
+                        + " VALUES (1, 1, 'Friday', NULL, '08:00', '16:00')");
+                assertEquals(List.of(1), ids(LocalDateTime.of(2026, 5, 7, 12, 0)));
+            } finally {
+                statement.execute("DELETE FROM schedules WHERE date IS NULL");
+                statement.execute("ALTER TABLE schedules ALTER COLUMN date SET NOT NULL");
+            }
+        } finally {
+            database.disconnect();
+        }
+    }
+
+    // Test the buckets directly with a window that spans several hours
+    @Test
+    public void bucketsCoverEveryHourOfAWindow() {
+        TimeBucketIndex buckets = new TimeBucketIndex();
+        buckets.put(new TimeWindow(1, LocalDate.of(2026, 5, 7), LocalTime.of(9, 30), LocalTime.of(12, 15)));
+        buckets.put(new TimeWindow(2, LocalDate.of(2026, 5, 7), LocalTime.of(11, 0), LocalTime.of(11, 30)));
+
+        assertEquals(1, buckets.openAt(LocalDateTime.of(2026, 5, 7, 10, 0)).size());
+        assertEquals(2, buckets.openAt(LocalDateTime.of(2026, 5, 7, 11, 15)).size());
+        assertEquals(1, buckets.openAt(LocalDateTime.of(2026, 5, 7, 12, 0)).size());
+
+        // Move window 1 to the afternoon
+        buckets.put(new TimeWindow(1, LocalDate.of(2026, 5, 7), LocalTime.of(13, 0), LocalTime.of(14, 0)));
+        assertEquals(0, buckets.openAt(LocalDateTime.of(2026, 5, 7, 10, 0)).size());
+        assertEquals(1, buckets.openAt(LocalDateTime.of(2026, 5, 7, 13, 0)).size());
+
+        buckets.remove(2);
+        assertEquals(1, buckets.size());
+        assertEquals(0, buckets.openAt(LocalDateTime.of(2026, 5, 7, 11, 15)).size());
+    }
+
+    private List<Integer> ids(LocalDateTime at) {
+        return index.openAt(at).stream().map(TimeWindow::getId).sorted().collect(Collectors.toList());
+    }
+}
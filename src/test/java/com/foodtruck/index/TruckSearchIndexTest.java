@@ -0,0 +1,76 @@
+package com.foodtruck.index;
+
+import com.foodtruck.entities.Truck;
+import com.foodtruck.persistence.GenericDao;
+import com.foodtruck.testsupport.DbReset;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class TruckSearchIndexTest extends DbReset {
+
+    private GenericDao<Truck> truckDao;
+    private TruckSearchIndex index;
+
+    @Before
+    public void setUpIndex() {
+        truckDao = dao(Truck.class);
+        index = TruckSearchIndex.getInstance();
+    }
+
+    // Test that terms are lowercased, split, stripped of accents and stop words, and singularized
+    @Test
+    public void analyzerNormalizesTerms() {
+        assertEquals(List.of("taco", "burrito"), TextAnalyzer.terms("TACOS & Burritos"));
+        assertEquals(List.of("cafe", "pastry"), TextAnalyzer.terms("Caf\u00e9 of the Pastries"));
+        assertEquals(List.of("joe", "bus", "glass"), TextAnalyzer.terms("Joe's Bus Glass"));
+        // Plurals and their singulars become the same term
+        assertEquals(TextAnalyzer.terms("cookie pie smoothie brownie sandwich box dish potato glass shoe"),
+                TextAnalyzer.terms("Cookies Pies Smoothies Brownies Sandwiches Boxes Dishes Potatoes Glasses Shoes"));
+        assertEquals(List.of("cooky", "py", "sandwich", "potato"), TextAnalyzer.terms("Cookies pie sandwiches potato"));
+        assertEquals(List.of(), TextAnalyzer.terms(null));
+    }
+
+    // Test that matches in the name rank above matches in the food type, and rarer terms count more
+    @Test
+    public void searchRanksByRelevance() {
+        Truck tacoName = new Truck("Taco Town", "Mexican");
+        Truck tacoType = new Truck("El Camion", "Tacos");
+        Truck burgers = new Truck("Burger Barn", "Burgers");
+        truckDao.insert(tacoName);
+        truckDao.insert(tacoType);
+        truckDao.insert(burgers);
+
+        assertEquals(List.of(tacoName.getId(), tacoType.getId()), ids("tacos"));
+        // The seeded ANM Burger Buds and Burger Barn both match; Burger Barn also matches "barn"
+        assertEquals(burgers.getId(), (int) ids("burger barn").get(0));
+        assertEquals(2, ids("burger barn").size());
+        assertEquals(List.of(), ids("sushi"));
+    }
+
+    // Test that inserts, updates and deletes made through GenericDao show up in a loaded index
+    @Test
+    public void indexFollowsTruckWrites() {
+        index.load();
+        Truck truck = new Truck("Pho Real", "Vietnamese");
+        truckDao.insert(truck);
+        assertEquals(List.of(truck.getId()), ids("pho"));
+
+        truck = truckDao.getById(truck.getId());
+        truck.setFoodType("Noodles");
+        truckDao.update(truck);
+        assertEquals(List.of(), ids("vietnamese"));
+        assertEquals(List.of(truck.getId()), ids("noodle"));
+
+        truckDao.delete(truck);
+        assertEquals(List.of(), ids("pho"));
+    }
+
+    private List<Integer> ids(String query) {
+        return index.search(query).stream().map(InvertedIndex.Hit::getId).collect(Collectors.toList());
+    }
+}
@@ -1,14 +1,19 @@
 package com.foodtruck.persistence;
 
+import com.foodtruck.dto.ScheduleView;
 import com.foodtruck.entities.Location;
 import com.foodtruck.entities.Schedule;
 import com.foodtruck.entities.Truck;
 import com.foodtruck.testsupport.DbReset;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.hibernate.stat.Statistics;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
 import static org.junit.Assert.*;
 
@@ -58,6 +63,24 @@ public class GenericDaoTest extends DbReset {
         assertEquals("Authentic Mexican", testTruck.getFoodType());
     }
 
+    // Test retrieving several Truck entities by ID in one call.
+    // Verifies that they come back in the order asked for, with null for an ID that does not exist.
+    @Test
+    public void truckGetByIdsKeepsOrder() {
+        // Seed a truck
+        int id = truckDao.insert(new Truck("Travelling Taco", "Authentic Mexican"));
+
+        // Retrieve it with the seeded truck and an ID that does not exist
+        List<Truck> trucks = truckDao.getByIds(List.of(id, 9999, 1));
+
+        // Verify the trucks come back in the order asked for, with null for the missing one
+        assertEquals(3, trucks.size());
+        assertEquals("Travelling Taco", trucks.get(0).getName());
+        assertNull(trucks.get(1));
+        assertEquals("ANM Burger Buds", trucks.get(2).getName());
+        assertTrue(truckDao.getByIds(List.of()).isEmpty());
+    }
+
     // Test updating a Truck entity.
     // Verifies that the truck's properties are correctly updated and persisted.
     @Test
@@ -107,7 +130,7 @@ public class GenericDaoTest extends DbReset {
         truckDao.insert(testTruck);
         Location testLocation = new Location("Cascade Test Location", "123 Cascade St", "WI", 12345, "USA", 43.07, -89.40);
         locationDao.insert(testLocation);
-        Schedule testSchedule = new Schedule(testTruck, testLocation, "Friday", "2024-10-11", "11:00", "15:00");
+        Schedule testSchedule = new Schedule(testTruck, testLocation, "Friday", LocalDate.of(2024, 10, 11), LocalTime.of(11, 0), LocalTime.of(15, 0));
         int scheduleId = scheduleDao.insert(testSchedule);
 
         // Delete the truck
@@ -184,6 +207,42 @@ public class GenericDaoTest extends DbReset {
         }
     }
 
+    // Test inserting many Truck entities at once.
+    // Verifies that the generated IDs come back in the same order as the trucks and that each can be retrieved.
+    @Test
+    public void truckInsertAllSuccess() {
+        // Build more trucks than fit in one JDBC batch
+        List<Truck> trucks = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            trucks.add(new Truck("Bulk Truck " + i, "Test Food"));
+        }
+
+        // Insert them all in one call
+        List<Integer> ids = truckDao.insertAll(trucks);
+
+        // Verify one ID per truck, in order
+        assertEquals(120, ids.size());
+        assertEquals("Bulk Truck 0", truckDao.getById(ids.get(0)).getName());
+        assertEquals("Bulk Truck 119", truckDao.getById(ids.get(119)).getName());
+    }
+
+    // Test that reading a Truck twice is served from the second-level cache.
+    // Verifies that the second read is a cache hit rather than another select.
+    @Test
+    public void truckGetByIdUsesSecondLevelCache() {
+        // Seed a truck and reset the statistics
+        int id = truckDao.insert(new Truck("Cached Crepes", "French"));
+        Statistics statistics = SessionFactoryProvider.getSessionFactory().getStatistics();
+        statistics.clear();
+
+        // Read it twice, each time in a new session
+        truckDao.getById(id);
+        truckDao.getById(id);
+
+        // Verify that at least one read was answered by the cache
+        assertTrue(statistics.getDomainDataRegionStatistics("trucks").getHitCount() >= 1);
+    }
+
     // ----------------------------
     // Location CRUD
     // ----------------------------
@@ -266,7 +325,7 @@ public class GenericDaoTest extends DbReset {
         truckDao.insert(testTruck);
         Location testLocation = new Location("Cascade Location", "123 Cascade St", "WI", 12345, "USA", 43.07, -89.40);
         int locationId = locationDao.insert(testLocation);
-        Schedule testSchedule = new Schedule(testTruck, testLocation, "Saturday", "2024-10-12", "12:00", "16:00");
+        Schedule testSchedule = new Schedule(testTruck, testLocation, "Saturday", LocalDate.of(2024, 10, 12), LocalTime.of(12, 0), LocalTime.of(16, 0));
         int scheduleId = scheduleDao.insert(testSchedule);
 
         // Delete the location
@@ -347,7 +406,7 @@ public class GenericDaoTest extends DbReset {
         truckDao.insert(testTruck);
         Location testLocation = new Location("Schedule Test Location", "123 Schedule St", "WI", 12345, "USA", 43.07, -89.40);
         locationDao.insert(testLocation);
-        Schedule testSchedule = new Schedule(testTruck, testLocation, "Wednesday", "2024-10-10", "10:00am", "02:00pm");
+        Schedule testSchedule = new Schedule(testTruck, testLocation, "Wednesday", LocalDate.of(2024, 10, 10), LocalTime.of(10, 0), LocalTime.of(14, 0));
         int scheduleId = scheduleDao.insert(testSchedule);
 
         // Retrieve schedule by ID
@@ -356,9 +415,9 @@ public class GenericDaoTest extends DbReset {
         // Verify properties
         assertNotNull(retrievedSchedule);
         assertEquals("Wednesday", retrievedSchedule.getDayOfWeek());
-        assertEquals("2024-10-10", retrievedSchedule.getDate());
-        assertEquals("10:00am", retrievedSchedule.getStartTime());
-        assertEquals("02:00pm", retrievedSchedule.getEndTime());
+        assertEquals(LocalDate.of(2024, 10, 10), retrievedSchedule.getDate());
+        assertEquals(LocalTime.of(10, 0), retrievedSchedule.getStartTime());
+        assertEquals(LocalTime.of(14, 0), retrievedSchedule.getEndTime());
 
         // Verify associated truck and location
         assertEquals(testTruck.getId(), retrievedSchedule.getTruck().getId());
@@ -374,7 +433,7 @@ public class GenericDaoTest extends DbReset {
         truckDao.insert(testTruck);
         Location testLocation = new Location("Update Test Location", "456 Update St", "WI", 54321, "USA", 44.00, -88.00);
         locationDao.insert(testLocation);
-        Schedule scheduleToUpdate = new Schedule(testTruck, testLocation, "Wednesday", "2024-11-11", "11:00am", "03:00pm");
+        Schedule scheduleToUpdate = new Schedule(testTruck, testLocation, "Wednesday", LocalDate.of(2024, 11, 11), LocalTime.of(11, 0), LocalTime.of(15, 0));
         int scheduleId = scheduleDao.insert(scheduleToUpdate);
 
         // Update the schedule
@@ -382,9 +441,9 @@ public class GenericDaoTest extends DbReset {
 
         // Modify properties
         retrievedSchedule.setDayOfWeek("Thursday");
-        retrievedSchedule.setDate("2024-12-12");
-        retrievedSchedule.setStartTime("12:00");
-        retrievedSchedule.setEndTime("16:00");
+        retrievedSchedule.setDate(LocalDate.of(2024, 12, 12));
+        retrievedSchedule.setStartTime(LocalTime.of(12, 0));
+        retrievedSchedule.setEndTime(LocalTime.of(16, 0));
         scheduleDao.update(retrievedSchedule);
 
         // Retrieve updated schedule
@@ -392,9 +451,9 @@ public class GenericDaoTest extends DbReset {
 
         // Verify updated properties
         assertEquals("Thursday", updatedSchedule.getDayOfWeek());
-        assertEquals("2024-12-12", updatedSchedule.getDate());
-        assertEquals("12:00", updatedSchedule.getStartTime());
-        assertEquals("16:00", updatedSchedule.getEndTime());
+        assertEquals(LocalDate.of(2024, 12, 12), updatedSchedule.getDate());
+        assertEquals(LocalTime.of(12, 0), updatedSchedule.getStartTime());
+        assertEquals(LocalTime.of(16, 0), updatedSchedule.getEndTime());
     }
 
     // Test deleting a Schedule entity.
@@ -406,7 +465,7 @@ public class GenericDaoTest extends DbReset {
         truckDao.insert(testTruck);
         Location testLocation = new Location("Delete Test Location", "789 Delete St", "WI", 67890, "USA", 45.00, -87.00);
         locationDao.insert(testLocation);
-        Schedule scheduleToDelete = new Schedule(testTruck, testLocation, "Wednesday" , "2024-09-09", "09:00am", "01:00pm");
+        Schedule scheduleToDelete = new Schedule(testTruck, testLocation, "Wednesday", LocalDate.of(2024, 9, 9), LocalTime.of(9, 0), LocalTime.of(13, 0));
         int scheduleId = scheduleDao.insert(scheduleToDelete);
 
         // Get schedule by ID
@@ -428,7 +487,7 @@ public class GenericDaoTest extends DbReset {
         int truckId = truckDao.insert(testTruck);
         Location testLocation = new Location("Non-Cascade Location", "321 NonCascade St", "WI", 11223, "USA", 46.00, -86.00);
         int locationId = locationDao.insert(testLocation);
-        Schedule scheduleToDelete = new Schedule(testTruck, testLocation, "Sunday", "2024-08-08", "08:00am", "12:00pm");
+        Schedule scheduleToDelete = new Schedule(testTruck, testLocation, "Sunday", LocalDate.of(2024, 8, 8), LocalTime.of(8, 0), LocalTime.of(12, 0));
         int scheduleId = scheduleDao.insert(scheduleToDelete);
 
         // Delete the schedule
@@ -454,13 +513,13 @@ public class GenericDaoTest extends DbReset {
         truckDao.insert(testTruck1);
         Location testLocation1 = new Location("All Check Location 1", "111 All St", "WI", 11111, "USA", 43.00, -89.00);
         locationDao.insert(testLocation1);
-        Schedule schedule1 = new Schedule(testTruck1, testLocation1, "Monday", "2024-07-01", "10:00am", "02:00pm");
+        Schedule schedule1 = new Schedule(testTruck1, testLocation1, "Monday", LocalDate.of(2024, 7, 1), LocalTime.of(10, 0), LocalTime.of(14, 0));
         scheduleDao.insert(schedule1);
         Truck testTruck2 = new Truck("All Check Truck 2", "Test Food");
         truckDao.insert(testTruck2);
         Location testLocation2 = new Location("All Check Location 2", "222 All St", "WI", 22222, "USA", 44.00, -88.00);
         locationDao.insert(testLocation2);
-        Schedule schedule2 = new Schedule(testTruck2, testLocation2, "Tuesday", "2024-07-02", "11:00am", "03:00pm");
+        Schedule schedule2 = new Schedule(testTruck2, testLocation2, "Tuesday", LocalDate.of(2024, 7, 2), LocalTime.of(11, 0), LocalTime.of(15, 0));
         scheduleDao.insert(schedule2);
 
         // Retrieve all schedules again
@@ -482,13 +541,13 @@ public class GenericDaoTest extends DbReset {
         truckDao.insert(testTruck1);
         Location testLocation1 = new Location("Tuesday Location 1", "123 Tuesday St", "WI", 12345, "USA", 43.07, -89.40);
         locationDao.insert(testLocation1);
-        Schedule schedule1 = new Schedule(testTruck1, testLocation1, "Tuesday", "2024-09-03", "10:00am", "02:00pm");
+        Schedule schedule1 = new Schedule(testTruck1, testLocation1, "Tuesday", LocalDate.of(2024, 9, 3), LocalTime.of(10, 0), LocalTime.of(14, 0));
         scheduleDao.insert(schedule1);
         Truck testTruck2 = new Truck("Wednesday Truck", "Test Food");
         truckDao.insert(testTruck2);
         Location testLocation2 = new Location("Wednesday Location", "456 Wednesday St", "WI", 54321, "USA", 44.00, -88.00);
         locationDao.insert(testLocation2);
-        Schedule schedule2 = new Schedule(testTruck2, testLocation2, "Wednesday", "2024-09-04", "11:00am", "03:00pm");
+        Schedule schedule2 = new Schedule(testTruck2, testLocation2, "Wednesday", LocalDate.of(2024, 9, 4), LocalTime.of(11, 0), LocalTime.of(15, 0));
         scheduleDao.insert(schedule2);
 
         // Retrieve schedules on Tuesday
@@ -504,35 +563,202 @@ public class GenericDaoTest extends DbReset {
     }
 
     // Test retrieving Schedule entities by property pattern matching.
-    // Verifies that schedules with start times containing a like pattern are correctly returned.
+    // Verifies that schedules with a day of the week containing a like pattern are correctly returned.
     @Test
     public void schedulePropertyLikeSuccess() {
-        // Get initial count of schedules with "am" in the start time
-        int beforeScheduleCountByTime = scheduleDao.getByPropertyLike("startTime", "am").size();
+        // Get initial count of schedules with "Thurs" in the day of the week
+        int beforeScheduleCountByDay = scheduleDao.getByPropertyLike("dayOfWeek", "Thurs").size();
 
         // Seed extra schedules
         Truck testTruck1 = new Truck("Morning Truck 1", "Test Food");
         truckDao.insert(testTruck1);
         Location testLocation1 = new Location("Morning Location 1", "123 Morning St", "WI", 12345, "USA", 43.07, -89.40);
         locationDao.insert(testLocation1);
-        Schedule schedule1 = new Schedule(testTruck1, testLocation1, "Thursday", "2024-10-03", "09:00am", "01:00pm");
+        Schedule schedule1 = new Schedule(testTruck1, testLocation1, "Thursday", LocalDate.of(2024, 10, 3), LocalTime.of(9, 0), LocalTime.of(13, 0));
         scheduleDao.insert(schedule1);
         Truck testTruck2 = new Truck("Afternoon Truck", "Test Food");
         truckDao.insert(testTruck2);
         Location testLocation2 = new Location("Afternoon Location", "456 Afternoon St", "WI", 54321, "USA", 44.00, -88.00);
         locationDao.insert(testLocation2);
-        Schedule schedule2 = new Schedule(testTruck2, testLocation2, "Friday", "2024-10-04", "1:00pm", "06:00pm");
+        Schedule schedule2 = new Schedule(testTruck2, testLocation2, "Friday", LocalDate.of(2024, 10, 4), LocalTime.of(13, 0), LocalTime.of(18, 0));
         scheduleDao.insert(schedule2);
 
-        // Retrieve schedules with "am" in the start time
-        List<Schedule> timeSchedules = scheduleDao.getByPropertyLike("startTime", "am");
+        // Retrieve schedules with "Thurs" in the day of the week
+        List<Schedule> daySchedules = scheduleDao.getByPropertyLike("dayOfWeek", "Thurs");
 
         // Verify that the count has increased by 1
-        assertEquals(beforeScheduleCountByTime + 1, timeSchedules.size());
+        assertEquals(beforeScheduleCountByDay + 1, daySchedules.size());
+
+        // Verify each returned schedule's day of the week contains "Thurs"
+        for (Schedule schedule : daySchedules) {
+            assertTrue(schedule.getDayOfWeek().contains("Thurs"));
+        }
+    }
+
+    // ----------------------------
+    // Composed queries
+    // ----------------------------
+
+    // Test combining several filters, a sort order and a limit in one query.
+    // Verifies that equal, in, range and like filters are all applied and the results come back sorted.
+    @Test
+    public void scheduleFindComposesFilters() {
+        // Seed one truck and location with four schedules
+        Truck testTruck = new Truck("Query Truck", "Test Food");
+        truckDao.insert(testTruck);
+        Location testLocation = new Location("Query Location", "1 Query St", "WI", 12345, "USA", 43.07, -89.40);
+        locationDao.insert(testLocation);
+        scheduleDao.insert(new Schedule(testTruck, testLocation, "Monday", LocalDate.of(2024, 10, 14), LocalTime.of(10, 0), LocalTime.of(14, 0)));
+        scheduleDao.insert(new Schedule(testTruck, testLocation, "Tuesday", LocalDate.of(2024, 10, 15), LocalTime.of(11, 0), LocalTime.of(15, 0)));
+        scheduleDao.insert(new Schedule(testTruck, testLocation, "Wednesday", LocalDate.of(2024, 10, 16), LocalTime.of(12, 0), LocalTime.of(16, 0)));
+        scheduleDao.insert(new Schedule(testTruck, testLocation, "Thursday", LocalDate.of(2024, 10, 17), LocalTime.of(9, 0), LocalTime.of(13, 0)));
+
+        // Morning schedules for the truck, Monday through Wednesday, latest first
+        Specification<Schedule> filter = Specification.<Schedule>equal("truck.id", testTruck.getId())
+                .and(Specification.in("dayOfWeek", List.of("Monday", "Tuesday", "Wednesday")))
+                .and(Specification.range("date", LocalDate.of(2024, 10, 14), LocalDate.of(2024, 10, 16)))
+                .and(Specification.range("startTime", null, LocalTime.of(11, 59)));
+        List<Schedule> schedules = scheduleDao.find(filter, List.of(Sort.desc("date")), 10);
+
+        // Verify only Tuesday and Monday match, in that order
+        assertEquals(2, schedules.size());
+        assertEquals("Tuesday", schedules.get(0).getDayOfWeek());
+        assertEquals("Monday", schedules.get(1).getDayOfWeek());
+
+        // Verify the limit is applied
+        assertEquals(1, scheduleDao.find(filter, List.of(Sort.desc("date")), 1).size());
+    }
+
+    // Test reading schedules as read-only views.
+    // Verifies that the projection carries the schedule, truck and location columns and pages by ID.
+    @Test
+    public void scheduleGetViewPageSuccess() {
+        // Seed a second schedule on a new truck and location
+        Truck testTruck = new Truck("View Truck", "Test Food");
+        truckDao.insert(testTruck);
+        Location testLocation = new Location("View Location", "1 View St", "WI", 12345, "USA", 43.07, -89.40);
+        locationDao.insert(testLocation);
+        scheduleDao.insert(new Schedule(testTruck, testLocation, "Friday", LocalDate.of(2024, 10, 18), LocalTime.of(11, 0), LocalTime.of(15, 0)));
+
+        // Read the first page of one row, then the page after it filtered by truck
+        Page<ScheduleView> first = scheduleDao.getViewPage(ScheduleView.PROJECTION, null, null, 1);
+        Page<ScheduleView> byTruck = scheduleDao.getViewPage(ScheduleView.PROJECTION,
+                Specification.equal("truck.id", testTruck.getId()), Page.decodeCursor(first.getNextCursor()), 10);
+
+        // Verify the page sizes and the joined columns
+        assertEquals(1, first.getItems().size());
+        assertTrue(first.hasNext());
+        assertEquals(1, byTruck.getItems().size());
+        ScheduleView view = byTruck.getItems().get(0);
+        assertEquals("View Truck", view.getTruck().getName());
+        assertEquals("1 View St", view.getLocation().getAddress());
+        assertEquals(43.07, view.getLocation().getLatitude(), 0.0001);
+        assertEquals(LocalTime.of(11, 0), view.getStartTime());
+    }
+
+    // ----------------------------
+    // Paging and streaming
+    // ----------------------------
+
+    // Test walking all trucks page by page.
+    // Verifies that every truck is returned exactly once, in ID order, and that the last page has no cursor.
+    @Test
+    public void truckGetPageWalksAllRows() {
+        // Seed trucks so there is more than one page
+        truckDao.insert(new Truck("Page One", "Test Food"));
+        truckDao.insert(new Truck("Page Two", "Test Food"));
+        truckDao.insert(new Truck("Page Three", "Test Food"));
+        truckDao.insert(new Truck("Page Four", "Test Food"));
+        int total = truckDao.getAll().size();
+
+        // Walk the pages two at a time
+        List<Integer> ids = new ArrayList<>();
+        Integer afterId = null;
+        Page<Truck> page;
+        do {
+            page = truckDao.getPage(afterId, 2);
+            assertTrue(page.getItems().size() <= 2);
+            for (Truck truck : page.getItems()) {
+                ids.add(truck.getId());
+            }
+            afterId = Page.decodeCursor(page.getNextCursor());
+        } while (page.hasNext());
+
+        // Verify every truck came back once, in ascending order
+        assertEquals(total, ids.size());
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i - 1) < ids.get(i));
+        }
+    }
+
+    // Test paging schedules filtered through an association.
+    // Verifies that the location ID filter is applied in the query.
+    @Test
+    public void scheduleGetPageByLocation() {
+        // Seed a schedule at a new location
+        Truck testTruck = new Truck("Paged Truck", "Test Food");
+        truckDao.insert(testTruck);
+        Location testLocation = new Location("Paged Location", "1 Page St", "WI", 12345, "USA", 43.07, -89.40);
+        int locationId = locationDao.insert(testLocation);
+        scheduleDao.insert(new Schedule(testTruck, testLocation, "Monday", LocalDate.of(2024, 10, 14), LocalTime.of(11, 0), LocalTime.of(15, 0)));
+
+        // Retrieve the page for that location
+        Page<Schedule> page = scheduleDao.getPage(Specification.equal("location.id", locationId), null, 10);
+
+        // Verify only the new schedule is returned
+        assertEquals(1, page.getItems().size());
+        assertEquals(locationId, page.getItems().get(0).getLocation().getId());
+        assertFalse(page.hasNext());
+    }
+
+    // Test streaming all trucks through a scrolling cursor.
+    // Verifies that every truck is visited even when the fetch size is smaller than the table.
+    @Test
+    public void truckScrollVisitsEveryRow() {
+        // Seed extra trucks
+        truckDao.insert(new Truck("Scroll One", "Test Food"));
+        truckDao.insert(new Truck("Scroll Two", "Test Food"));
+        int total = truckDao.getAll().size();
 
-        // Verify each returned schedule's start time contains "am"
-        for (Schedule schedule : timeSchedules) {
-            assertTrue(schedule.getStartTime().contains("am"));
+        // Scroll with a fetch size of one row
+        List<String> names = new ArrayList<>();
+        truckDao.scroll(1, truck -> names.add(truck.getName()));
+
+        // Verify every truck was visited
+        assertEquals(total, names.size());
+        assertTrue(names.contains("Scroll Two"));
+    }
+
+    // Test that a scroll with a fetch size below 1 is rejected before it reads a row
+    @Test(expected = IllegalArgumentException.class)
+    public void truckScrollRejectsFetchSizeBelowOne() {
+        truckDao.scroll(0, truck -> fail("no row should be read"));
+    }
+
+    // Test streaming pages of schedule views.
+    // Verifies that the streamed pages hold the same rows and cursors as the listed pages.
+    @Test
+    public void scheduleStreamViewPageMatchesViewPage() {
+        // Seed schedules so there is more than one page
+        Truck testTruck = dao(Truck.class).getById(1);
+        Location testLocation = dao(Location.class).getById(1);
+        for (int day = 1; day <= 5; day++) {
+            scheduleDao.insert(new Schedule(testTruck, testLocation, "Friday", LocalDate.of(2024, 11, day), LocalTime.of(11, 0), LocalTime.of(15, 0)));
         }
+
+        // Walk the pages two at a time both ways
+        Integer afterId = null;
+        StreamedPage<ScheduleView> streamed;
+        do {
+            Page<ScheduleView> listed = scheduleDao.getViewPage(ScheduleView.PROJECTION, null, afterId, 2);
+            streamed = scheduleDao.streamViewPage(ScheduleView.PROJECTION, null, afterId, 2);
+            List<Integer> ids = new ArrayList<>();
+            streamed.forEach(view -> ids.add(view.getId()));
+
+            // Verify the same rows and the same next page
+            assertEquals(listed.getItems().stream().map(ScheduleView::getId).toList(), ids);
+            assertEquals(listed.getNextCursor(), streamed.getNextCursor());
+            afterId = Page.decodeCursor(streamed.getNextCursor());
+        } while (streamed.hasNext());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,95 @@
+package com.foodtruck.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodtruck.app.StatsService;
+import com.foodtruck.entities.Truck;
+import com.foodtruck.testsupport.DbReset;
+import org.hibernate.Session;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.ws.rs.core.Response;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class InstrumentedConnectionProviderTest extends DbReset {
+
+    private InstrumentedConnectionProvider pool;
+
+    @Before
+    public void setUpPool() {
+        pool = InstrumentedConnectionProvider.of(SessionFactoryProvider.getSessionFactory()).orElseThrow();
+    }
+
+    // Test that a DAO read records one acquire and gives the connection back
+    @Test
+    public void daoReadRecordsAcquireAndHold() {
+        long acquires = pool.getAcquireTime().getCount();
+        long holds = pool.getHoldTime().getCount();
+
+        dao(Truck.class).getById(1);
+
+        // Verify the read took and returned exactly one connection
+        assertEquals(acquires + 1, pool.getAcquireTime().getCount());
+        assertEquals(holds + 1, pool.getHoldTime().getCount());
+        assertEquals(0, pool.snapshot().get("checkedOut"));
+    }
+
+    // Test that waiting on an exhausted pool counts as a slow acquire
+    @Test
+    public void waitingOnExhaustedPoolIsSlow() throws Exception {
+        long slow = (long) pool.snapshot().get("slowAcquires");
+        int maxSize = (int) pool.snapshot().get("maxSize");
+
+        // Hold every connection in the pool
+        List<Session> holders = new ArrayList<>();
+        try {
+            for (int i = 0; i < maxSize; i++) {
+                Session session = SessionFactoryProvider.getSessionFactory().openSession();
+                holders.add(session);
+                session.beginTransaction();
+            }
+            CompletableFuture<Truck> read = CompletableFuture.supplyAsync(() -> dao(Truck.class).getById(1));
+            Thread.sleep(InstrumentedConnectionProvider.DEFAULT_SLOW_ACQUIRE_MS + 100);
+            assertFalse(read.isDone());
+            assertEquals(1, pool.snapshot().get("pending"));
+
+            // Give one connection back so the read can finish
+            Session released = holders.remove(0);
+            released.getTransaction().rollback();
+            released.close();
+            assertEquals("ANM Burger Buds", read.get(10, TimeUnit.SECONDS).getName());
+        } finally {
+            for (Session session : holders) {
+                session.getTransaction().rollback();
+                session.close();
+            }
+        }
+
+        // Verify the wait was counted
+        assertEquals(slow + 1, (long) pool.snapshot().get("slowAcquires"));
+    }
+
+    // Test that the stats endpoint reports the pool
+    @Test
+    @SuppressWarnings("unchecked")
+    public void statsEndpointReportsPool() throws Exception {
+        dao(Truck.class).getById(1);
+
+        Response response = new StatsService().getPoolStats();
+
+        // Verify the pool sizes and histograms are present
+        assertEquals(200, response.getStatus());
+        Map<String, Object> body = new ObjectMapper().readValue((String) response.getEntity(), Map.class);
+        assertTrue((int) body.get("total") >= 1);
+        assertEquals(0, body.get("pending"));
+        Map<String, Object> acquireTime = (Map<String, Object>) body.get("acquireTime");
+        assertTrue(((Number) acquireTime.get("count")).longValue() >= 1);
+        assertTrue(((Map<?, ?>) acquireTime.get("buckets")).containsKey("<=1"));
+    }
+}
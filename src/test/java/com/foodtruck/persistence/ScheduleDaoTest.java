@@ -4,9 +4,13 @@ import com.foodtruck.entities.Location;
 import com.foodtruck.entities.Schedule;
 import com.foodtruck.entities.Truck;
 import com.foodtruck.testsupport.DbReset;
+import org.hibernate.Hibernate;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
+
 import static org.junit.Assert.*;
 
 // Test class for Schedule DAO
@@ -35,9 +39,9 @@ public class ScheduleDaoTest extends DbReset {
         // Verify the schedule details
         assertNotNull(schedule);
         assertEquals("Tuesday", schedule.getDayOfWeek());
-        assertEquals("5/8/2026", schedule.getDate());
-        assertEquals("8:00am", schedule.getStartTime());
-        assertEquals("4:00pm", schedule.getEndTime());
+        assertEquals(LocalDate.of(2026, 5, 8), schedule.getDate());
+        assertEquals(LocalTime.of(8, 0), schedule.getStartTime());
+        assertEquals(LocalTime.of(16, 0), schedule.getEndTime());
         assertEquals(1, schedule.getTruck().getId());
         assertEquals(1, schedule.getLocation().getId());
     }
@@ -48,4 +52,20 @@ public class ScheduleDaoTest extends DbReset {
         // Verify that getting a non-existent schedule returns null
         assertNull(scheduleDao.getById(999999));
     }
+
+    // Test that the truck and location are lazy unless the fetch graph is requested
+    @Test
+    public void getByIdFetchGraphLoadsTruckAndLocation() {
+        // Without the graph only the schedule row is loaded
+        Schedule plain = scheduleDao.getById(2);
+        assertFalse(Hibernate.isInitialized(plain.getTruck()));
+        assertFalse(Hibernate.isInitialized(plain.getLocation()));
+
+        // With the graph the truck and location come back in the same select
+        Schedule fetched = scheduleDao.fetching(Schedule.WITH_TRUCK_AND_LOCATION).getById(2);
+        assertTrue(Hibernate.isInitialized(fetched.getTruck()));
+        assertTrue(Hibernate.isInitialized(fetched.getLocation()));
+        assertEquals("ANM Burger Buds", fetched.getTruck().getName());
+        assertEquals("The Square", fetched.getLocation().getName());
+    }
 }
@@ -0,0 +1,76 @@
+package com.foodtruck.service;
+
+import com.foodtruck.app.DaoBinder;
+import com.foodtruck.app.Service;
+import com.foodtruck.entities.Location;
+import com.foodtruck.entities.Truck;
+import com.foodtruck.persistence.SessionFactoryProvider;
+import com.foodtruck.testsupport.DbReset;
+import com.foodtruck.testsupport.InMemoryApi;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ConditionalGetTest extends DbReset {
+
+    private InMemoryApi api;
+
+    @Before
+    public void setUpApi() {
+        api = new InMemoryApi(new ResourceConfig(Service.class).register(new DaoBinder()));
+    }
+
+    // Test that repeating a GET with the ETag gets 304 without a database query
+    @Test
+    public void unchangedTrucksAreNotModified() throws Exception {
+        InMemoryApi.Reply first = api.get("trucks");
+        String etag = first.getHeaderString("ETag");
+        assertEquals(200, first.getStatus());
+        assertNotNull(etag);
+        assertNotNull(first.getHeaderString("Last-Modified"));
+
+        Statistics statistics = SessionFactoryProvider.getSessionFactory().getStatistics();
+        long statements = statistics.getPrepareStatementCount();
+        InMemoryApi.Reply second = api.get("trucks", "If-None-Match", etag);
+
+        // Verify nothing was read and no body was sent
+        assertEquals(304, second.getStatus());
+        assertEquals(0, second.getBody().length);
+        assertEquals(etag, second.getHeaderString("ETag"));
+        assertEquals(statements, statistics.getPrepareStatementCount());
+    }
+
+    // Test that a write to any table a schedule list is built from changes its ETag
+    @Test
+    public void writeChangesScheduleETag() throws Exception {
+        String schedules = api.get("schedule").getHeaderString("ETag");
+        String trucks = api.get("trucks/1").getHeaderString("ETag");
+
+        Location location = dao(Location.class).getById(1);
+        location.setName("Renamed");
+        dao(Location.class).update(location);
+
+        // Verify the schedules are sent again with a new tag, while the truck is still current
+        InMemoryApi.Reply schedulesAgain = api.get("schedule", "If-None-Match", schedules);
+        assertEquals(200, schedulesAgain.getStatus());
+        assertNotEquals(schedules, schedulesAgain.getHeaderString("ETag"));
+        assertTrue(schedulesAgain.getText().contains("Renamed"));
+        assertEquals(304, api.get("trucks/1", "If-None-Match", trucks).getStatus());
+
+        dao(Truck.class).insert(new Truck("Wok This Way", "Asian"));
+        assertEquals(200, api.get("trucks/1", "If-None-Match", trucks).getStatus());
+    }
+
+    // Test that If-Modified-Since is honored when no ETag is sent
+    @Test
+    public void unchangedSinceLastModifiedIsNotModified() throws Exception {
+        String lastModified = api.get("trucks").getHeaderString("Last-Modified");
+
+        // Verify the same date gets 304, and an old date gets the list
+        assertEquals(304, api.get("trucks", "If-Modified-Since", lastModified).getStatus());
+        assertEquals(200, api.get("trucks", "If-Modified-Since", "Thu, 01 Jan 2015 00:00:00 GMT").getStatus());
+    }
+}
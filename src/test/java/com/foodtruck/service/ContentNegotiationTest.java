@@ -0,0 +1,85 @@
+package com.foodtruck.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.foodtruck.app.DaoBinder;
+import com.foodtruck.app.Service;
+import com.foodtruck.json.DataFormat;
+import com.foodtruck.testsupport.DbReset;
+import com.foodtruck.testsupport.InMemoryApi;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ContentNegotiationTest extends DbReset {
+
+    private InMemoryApi api;
+
+    @Before
+    public void setUpApi() {
+        api = new InMemoryApi(new ResourceConfig(Service.class).register(new DaoBinder()));
+    }
+
+    // Test that each binary format carries the same schedule list as JSON
+    @Test
+    public void binaryFormatsMatchJson() throws Exception {
+        JsonNode json = DataFormat.JSON.getMapper().readTree(api.get("schedule").getBody());
+        for (DataFormat format : new DataFormat[] {DataFormat.CBOR, DataFormat.SMILE, DataFormat.MSGPACK}) {
+            InMemoryApi.Reply reply = api.get("schedule", "Accept", format.getMediaType());
+
+            // Verify the type, the per-format tag and the decoded rows
+            assertEquals(200, reply.getStatus());
+            assertEquals(format.getMediaType(), reply.getHeaderString("Content-Type"));
+            assertTrue(reply.getHeaderString("ETag").endsWith(format.getTagSuffix() + "\""));
+            assertTrue(reply.getHeaderString("Vary").contains("Accept"));
+            assertEquals(json, format.getMapper().readTree(reply.getBody()));
+        }
+    }
+
+    // Test that JSON is sent when the client has no preference or prefers it
+    @Test
+    public void jsonIsTheDefault() throws Exception {
+        assertEquals("application/json", api.get("trucks").getHeaderString("Content-Type"));
+        assertEquals("application/json", api.get("trucks", "Accept", "*/*").getHeaderString("Content-Type"));
+        assertEquals("application/json", api.get("trucks",
+                "Accept", "application/json, application/cbor;q=0.5").getHeaderString("Content-Type"));
+        assertEquals("application/cbor", api.get("trucks",
+                "Accept", "application/json;q=0.5, application/cbor").getHeaderString("Content-Type"));
+    }
+
+    // Test that a truck kept as JSON is not sent to a client asking for CBOR
+    @Test
+    public void keptBodiesAreKeptPerFormat() throws Exception {
+        api.get("trucks/1");
+        InMemoryApi.Reply cbor = api.get("trucks/1", "Accept", DataFormat.CBOR_TYPE);
+
+        // Verify the body is CBOR, not the JSON kept before
+        assertEquals(DataFormat.CBOR_TYPE, cbor.getHeaderString("Content-Type"));
+        assertEquals("ANM Burger Buds", DataFormat.CBOR.getMapper().readTree(cbor.getBody()).get("name").asText());
+        assertEquals(cbor.getText(), api.get("trucks/1", "Accept", DataFormat.CBOR_TYPE).getText());
+    }
+
+    // Test that the ETag of one format does not validate a copy in another
+    @Test
+    public void etagsDifferPerFormat() throws Exception {
+        String json = api.get("trucks/1").getHeaderString("ETag");
+        String smile = api.get("trucks/1", "Accept", DataFormat.SMILE_TYPE).getHeaderString("ETag");
+
+        // Verify only the matching tag is answered with 304
+        assertNotEquals(json, smile);
+        assertEquals(200, api.get("trucks/1", "Accept", DataFormat.SMILE_TYPE, "If-None-Match", json).getStatus());
+        assertEquals(304, api.get("trucks/1", "Accept", DataFormat.SMILE_TYPE, "If-None-Match", smile).getStatus());
+    }
+
+    // Test that errors stay JSON whatever format was asked for
+    @Test
+    public void errorsStayJson() throws Exception {
+        InMemoryApi.Reply reply = api.get("trucks?limit=0", "Accept", DataFormat.MSGPACK_TYPE);
+
+        // Verify the error body
+        assertEquals(400, reply.getStatus());
+        assertEquals("application/json", reply.getHeaderString("Content-Type"));
+        assertTrue(reply.getText().contains("limit must be a positive number"));
+    }
+}
@@ -3,13 +3,30 @@ package com.foodtruck.service;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.foodtruck.app.Service;
+import com.foodtruck.entities.Location;
+import com.foodtruck.entities.Schedule;
+import com.foodtruck.entities.Truck;
+import com.foodtruck.persistence.GenericDao;
+import com.foodtruck.persistence.SessionFactoryProvider;
 import com.foodtruck.testsupport.DbReset;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.hibernate.stat.Statistics;
 import org.junit.Before;
 import org.junit.Test;
 
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.Assert.*;
 
@@ -33,13 +50,13 @@ public class ServiceTest extends DbReset {
     @Test
     public void getAllTrucksReturnsSeededData() throws Exception {
         // Call the service method to get all trucks
-        Response response = service.getAllTrucks();
+        Response response = service.getAllTrucks(null, null, null, null);
 
         // Verify the response status is 200 OK
         assertEquals(200, response.getStatus());
 
         // Parse the JSON response
-        String json = (String) response.getEntity();
+        String json = body(response);
         // Got type error trying to use .readValue with List<Truck>, due to test trying to deserialize to generic type
         // so using JsonNode tree instead for this test. Basically it just parses to a generic JSON tree structure instead
         // of actually deserializing and binding/mapping to specific Java types.
@@ -59,7 +76,7 @@ public class ServiceTest extends DbReset {
     @Test
     public void getTrucksByIdNotFoundReturns404() {
         // Call the service method to get a truck by an ID that does not exist
-        Response response = service.getTruckById(9999);
+        Response response = service.getTruckById(9999, null);
         // Assuming 9999 does not exist
         assertEquals(404, response.getStatus());
         // Verify that the entity is null for not found
@@ -70,13 +87,13 @@ public class ServiceTest extends DbReset {
     @Test
     public void getScheduleFilterByDate() throws Exception {
         // Call the service method to get schedule for a specific date
-        Response response = service.getSchedule("5/7/2026", null);
+        Response response = service.getSchedule("2026-05-07", null, null, null, null, null, null, null, null);
 
         // Verify the response status is 200 OK
         assertEquals(200, response.getStatus());
 
         // Parse the JSON response
-        String json = (String) response.getEntity();
+        String json = body(response);
         // Using JsonNode tree for parsing
         JsonNode rootNode = objectMapper.readTree(json);
 
@@ -86,8 +103,8 @@ public class ServiceTest extends DbReset {
 
         // Verify the first schedule's details match the seeded data
         JsonNode firstSchedule = rootNode.get(0);
-        assertEquals("5/7/2026", firstSchedule.get("date").asText());
-        assertEquals("8:00am", firstSchedule.get("startTime").asText());
+        assertEquals("2026-05-07", firstSchedule.get("date").asText());
+        assertEquals("08:00", firstSchedule.get("startTime").asText());
         assertEquals("ANM Burger Buds", firstSchedule.get("truck").get("name").asText());
     }
 
@@ -95,13 +112,13 @@ public class ServiceTest extends DbReset {
     @Test
     public void getScheduleFilterByLocation() throws Exception {
         // Call the service method to get schedule for a specific location ID
-        Response response = service.getSchedule(null, 1);
+        Response response = service.getSchedule(null, null, null, 1, null, null, null, null, null);
 
         // Verify the response status is 200 OK
         assertEquals(200, response.getStatus());
 
         // Parse the JSON response
-        String json = (String) response.getEntity();
+        String json = body(response);
         // Using JsonNode tree for parsing
         JsonNode rootNode = objectMapper.readTree(json);
 
@@ -119,13 +136,13 @@ public class ServiceTest extends DbReset {
     @Test
     public void getScheduleBadLocationReturnsEmpty() throws Exception {
         // Call the service method to get schedule for an invalid location ID
-        Response response = service.getSchedule(null, 9999); // Assuming 9999 is invalid
+        Response response = service.getSchedule(null, null, null, 9999, null, null, null, null, null); // Assuming 9999 is invalid
 
         // Verify the response status is 200 OK
         assertEquals(200, response.getStatus());
 
         // Parse the JSON response
-        String json = (String) response.getEntity();
+        String json = body(response);
         // Using JsonNode tree for parsing
         JsonNode rootNode = objectMapper.readTree(json);
 
@@ -133,4 +150,361 @@ public class ServiceTest extends DbReset {
         assertTrue("Expected an array of schedules", rootNode.isArray());
         assertEquals(0, rootNode.size());
     }
+
+    // Test getting schedule filtered by date and location together
+    @Test
+    public void getScheduleFilterByDateAndLocation() throws Exception {
+        // Seed a second location with a schedule on the same date as the seeded one
+        Truck truck = dao(Truck.class).getById(1);
+        Location location = new Location("Second Spot", "1 Other St", "WI", 53703, "USA", 43.07, -89.40);
+        dao(Location.class).insert(location);
+        dao(Schedule.class).insert(new Schedule(truck, location, "Monday", LocalDate.of(2026, 5, 7), LocalTime.of(9, 0), LocalTime.of(13, 0)));
+
+        Response response = service.getSchedule("2026-05-07", null, null, location.getId(), null, null, null, null, null);
+
+        // Verify only the schedule at the second location comes back
+        assertEquals(200, response.getStatus());
+        JsonNode rootNode = objectMapper.readTree(body(response));
+        assertEquals(1, rootNode.size());
+        assertEquals(location.getId(), rootNode.get(0).get("location").get("id").asInt());
+        assertEquals("09:00", rootNode.get(0).get("startTime").asText());
+    }
+
+    // Test getting schedule filtered by truck
+    @Test
+    public void getScheduleFilterByTruck() throws Exception {
+        // Seed a second truck with one schedule
+        Truck truck = new Truck("Second Truck", "Test Food");
+        dao(Truck.class).insert(truck);
+        Location location = dao(Location.class).getById(1);
+        dao(Schedule.class).insert(new Schedule(truck, location, "Friday", LocalDate.of(2026, 5, 9), LocalTime.of(8, 0), LocalTime.of(16, 0)));
+
+        Response response = service.getSchedule(null, null, null, null, truck.getId(), null, null, null, null);
+
+        // Verify only the second truck's schedule comes back
+        assertEquals(200, response.getStatus());
+        JsonNode rootNode = objectMapper.readTree(body(response));
+        assertEquals(1, rootNode.size());
+        assertEquals("Second Truck", rootNode.get(0).get("truck").get("name").asText());
+    }
+
+    // Test getting schedule for a date range
+    @Test
+    public void getScheduleFilterByDateRange() throws Exception {
+        // Seed a schedule outside the range, after the seeded 2026-05-07 and 2026-05-08 entries
+        Truck truck = dao(Truck.class).getById(1);
+        Location location = dao(Location.class).getById(1);
+        dao(Schedule.class).insert(new Schedule(truck, location, "Friday", LocalDate.of(2026, 6, 5), LocalTime.of(8, 0), LocalTime.of(16, 0)));
+
+        Response response = service.getSchedule(null, "2026-05-01", "2026-05-31", null, null, null, null, null, null);
+
+        // Verify only the two May schedules come back
+        assertEquals(200, response.getStatus());
+        JsonNode rootNode = objectMapper.readTree(body(response));
+        assertEquals(2, rootNode.size());
+        assertEquals("2026-05-07", rootNode.get(0).get("date").asText());
+        assertEquals("2026-05-08", rootNode.get(1).get("date").asText());
+
+        // Verify an open-ended range and the legacy date format
+        rootNode = objectMapper.readTree(body(service.getSchedule(null, "5/8/2026", null, null, null, null, null, null, null)));
+        assertEquals(2, rootNode.size());
+    }
+
+    // Test finding schedules near a point
+    @Test
+    public void getTrucksNearOrdersByDistance() throws Exception {
+        // Seed a far and a near location, each with a schedule on the same date
+        Truck truck = dao(Truck.class).getById(1);
+        Location far = new Location("Olbrich Park", "3527 Atwood Ave", "WI", 53714, "USA", 43.0935, -89.3312);
+        Location near = new Location("Library Mall", "728 State St", "WI", 53703, "USA", 43.0757, -89.3984);
+        Location milwaukee = new Location("Milwaukee", "200 E Wells St", "WI", 53202, "USA", 43.0410, -87.9096);
+        dao(Location.class).insert(far);
+        dao(Location.class).insert(near);
+        dao(Location.class).insert(milwaukee);
+        for (Location location : List.of(far, near, milwaukee)) {
+            dao(Schedule.class).insert(new Schedule(truck, location, "Monday", LocalDate.of(2026, 5, 7), LocalTime.of(11, 0), LocalTime.of(14, 0)));
+        }
+        dao(Schedule.class).insert(new Schedule(truck, near, "Tuesday", LocalDate.of(2026, 5, 8), LocalTime.of(11, 0), LocalTime.of(14, 0)));
+
+        Response response = service.getTrucksNear(43.0747, -89.3841, 10.0, "2026-05-07", null);
+
+        // Verify the two Madison schedules come back nearest first, with their distances
+        assertEquals(200, response.getStatus());
+        JsonNode rootNode = objectMapper.readTree(body(response));
+        assertEquals(2, rootNode.size());
+        assertEquals("Library Mall", rootNode.get(0).get("location").get("name").asText());
+        assertEquals("Olbrich Park", rootNode.get(1).get("location").get("name").asText());
+        assertTrue(rootNode.get(0).get("distanceKm").asDouble() < rootNode.get(1).get("distanceKm").asDouble());
+        assertEquals("2026-05-07", rootNode.get(0).get("date").asText());
+
+        // Verify the limit and the missing date filter
+        rootNode = objectMapper.readTree(body(service.getTrucksNear(43.0747, -89.3841, 10.0, null, 2)));
+        assertEquals(2, rootNode.size());
+        assertEquals("Library Mall", rootNode.get(1).get("location").get("name").asText());
+    }
+
+    // Test finding the trucks open at a time
+    @Test
+    public void getTrucksOpenAtTime() throws Exception {
+        // Seeded: 2026-05-07 and 2026-05-08, both 08:00 to 16:00
+        Response response = service.getTrucksOpen("2026-05-07T12:30", null);
+
+        assertEquals(200, response.getStatus());
+        JsonNode rootNode = objectMapper.readTree(body(response));
+        assertEquals(1, rootNode.size());
+        assertEquals("2026-05-07", rootNode.get(0).get("date").asText());
+        assertEquals("ANM Burger Buds", rootNode.get(0).get("truck").get("name").asText());
+
+        // Verify nothing is open after closing time, and a bad timestamp is rejected
+        assertEquals(0, objectMapper.readTree(body(service.getTrucksOpen("2026-05-07T16:00", null))).size());
+        assertEquals(400, service.getTrucksOpen("noon", null).getStatus());
+
+        // Verify deleting the truck, which cascades to its schedules, removes them from the index
+        service.deleteTruck(1);
+        assertEquals(0, objectMapper.readTree(body(service.getTrucksOpen("2026-05-07T12:30", null))).size());
+    }
+
+    // Test searching trucks page by page
+    @Test
+    public void searchTrucksPagesThroughMatches() throws Exception {
+        // Seed three more burger trucks; the seeded ANM Burger Buds makes four
+        for (int i = 1; i <= 3; i++) {
+            dao(Truck.class).insert(new Truck("Burger Stop " + i, "Burgers"));
+        }
+        dao(Truck.class).insert(new Truck("Taco Town", "Mexican"));
+
+        Response first = service.searchTrucks("burgers", 3, null);
+        assertEquals(200, first.getStatus());
+        assertEquals(3, objectMapper.readTree(body(first)).size());
+        String cursor = first.getHeaderString("X-Next-Cursor");
+        assertNotNull(cursor);
+
+        Response second = service.searchTrucks("burgers", 3, cursor);
+        JsonNode rootNode = objectMapper.readTree(body(second));
+        assertEquals(1, rootNode.size());
+        assertTrue(rootNode.get(0).get("name").asText().contains("Burger"));
+        assertNull(second.getHeaderString("X-Next-Cursor"));
+
+        assertEquals(400, service.searchTrucks(" ", null, null).getStatus());
+    }
+
+    // Test that bad coordinates and radii are rejected
+    @Test
+    public void getTrucksNearBadParametersReturn400() {
+        assertEquals(400, service.getTrucksNear(null, -89.38, null, null, null).getStatus());
+        assertEquals(400, service.getTrucksNear(91.0, -89.38, null, null, null).getStatus());
+        assertEquals(400, service.getTrucksNear(43.07, -189.0, null, null, null).getStatus());
+        assertEquals(400, service.getTrucksNear(43.07, -89.38, 0.0, null, null).getStatus());
+        assertEquals(400, service.getTrucksNear(43.07, -89.38, 1000.0, null, null).getStatus());
+    }
+
+    // Test that bad dates are rejected
+    @Test
+    public void getScheduleBadDateReturns400() {
+        assertEquals(400, service.getSchedule("not-a-date", null, null, null, null, null, null, null, null).getStatus());
+        assertEquals(400, service.getSchedule(null, "2026-05-31", "2026-05-01", null, null, null, null, null, null).getStatus());
+    }
+
+    // Test that schedules posted in the old string formats are still accepted
+    @Test
+    public void scheduleJsonAcceptsLegacyFormats() throws Exception {
+        Schedule schedule = objectMapper.readValue("{\"dayOfWeek\":\"Friday\",\"date\":\"5/9/2026\","
+                + "\"startTime\":\"8:00am\",\"endTime\":\"4:30pm\"}", Schedule.class);
+
+        assertEquals(LocalDate.of(2026, 5, 9), schedule.getDate());
+        assertEquals(LocalTime.of(8, 0), schedule.getStartTime());
+        assertEquals(LocalTime.of(16, 30), schedule.getEndTime());
+
+        // Verify it is written back as ISO-8601
+        JsonNode node = objectMapper.readTree(objectMapper.writeValueAsString(schedule));
+        assertEquals("2026-05-09", node.get("date").asText());
+        assertEquals("16:30", node.get("endTime").asText());
+    }
+
+    // Test that each read endpoint costs a single SQL statement, however many trucks and locations are involved
+    @Test
+    public void readEndpointsRunOneStatementEach() {
+        // Seed schedules spread over several trucks and locations
+        for (int i = 0; i < 4; i++) {
+            Truck truck = new Truck("Statement Truck " + i, "Test Food");
+            dao(Truck.class).insert(truck);
+            Location location = new Location("Statement Spot " + i, i + " Main St", "WI", 53703, "USA", 43.07, -89.40);
+            dao(Location.class).insert(location);
+            dao(Schedule.class).insert(new Schedule(truck, location, "Monday", LocalDate.of(2026, 5, 7), LocalTime.of(8, 0), LocalTime.of(16, 0)));
+        }
+
+        // Pages are streamed, so they take one statement for where the page ends and one for the rows
+        assertEquals(2, statementsFor(() -> service.getSchedule(null, null, null, null, null, null, null, null, null)));
+        assertEquals(2, statementsFor(() -> service.getSchedule("2026-05-07", null, null, null, null, null, null, null, null)));
+        assertEquals(2, statementsFor(() -> service.getSchedule(null, null, null, 1, 1, null, null, null, null)));
+        assertEquals(2, statementsFor(() -> service.getAllTrucks(null, null, null, null)));
+        assertEquals(1, statementsFor(() -> service.getTruckById(1, null)));
+    }
+
+    // Test paging through trucks with limit and cursor
+    @Test
+    public void getAllTrucksPagesWithCursor() throws Exception {
+        // Seed two more trucks so there are three in total
+        GenericDao<Truck> truckDao = dao(Truck.class);
+        truckDao.insert(new Truck("Page Truck 1", "Test Food"));
+        truckDao.insert(new Truck("Page Truck 2", "Test Food"));
+
+        // First page holds two trucks and points to the next page
+        Response first = service.getAllTrucks(2, null, null, null);
+        assertEquals(200, first.getStatus());
+        JsonNode firstPage = objectMapper.readTree(body(first));
+        assertEquals(2, firstPage.size());
+        String cursor = first.getHeaderString("X-Next-Cursor");
+        assertNotNull("Expected a cursor for the next page", cursor);
+
+        // Second page holds the last truck and has no cursor
+        Response second = service.getAllTrucks(2, cursor, null, null);
+        assertEquals(200, second.getStatus());
+        JsonNode secondPage = objectMapper.readTree(body(second));
+        assertEquals(1, secondPage.size());
+        assertEquals("Page Truck 2", secondPage.get(0).get("name").asText());
+        assertNull(second.getHeaderString("X-Next-Cursor"));
+    }
+
+    // Test that a cursor that was not issued by the API is rejected
+    @Test
+    public void getAllTrucksBadCursorReturns400() {
+        Response response = service.getAllTrucks(null, "not-a-cursor", null, null);
+        assertEquals(400, response.getStatus());
+    }
+
+    // Test creating trucks in bulk returns their IDs
+    @Test
+    public void addTrucksBulkReturnsIds() throws Exception {
+        List<Truck> trucks = List.of(new Truck("Bulk One", "Test Food"), new Truck("Bulk Two", "Test Food"));
+
+        Response response = service.addTrucks(trucks);
+
+        // Verify the response status is 201 Created with one ID per truck
+        assertEquals(201, response.getStatus());
+        JsonNode ids = objectMapper.readTree(body(response)).get("ids");
+        assertEquals(2, ids.size());
+
+        // Verify the second ID belongs to the second truck
+        Response created = service.getTruckById(ids.get(1).asInt(), null);
+        assertEquals(200, created.getStatus());
+        assertEquals("Bulk Two", objectMapper.readTree(body(created)).get("name").asText());
+    }
+
+    // Test that fields trims schedules to the requested columns, nested like the full response
+    @Test
+    public void getScheduleReturnsOnlyRequestedFields() throws Exception {
+        Response response = service.getSchedule("2026-05-07", null, null, null, null, null, null, "id,startTime,truck.name", null);
+
+        // Verify only the requested fields are present, with the usual formats
+        assertEquals(200, response.getStatus());
+        JsonNode schedule = objectMapper.readTree(body(response)).get(0);
+        assertEquals(3, schedule.size());
+        assertTrue(schedule.get("id").isInt());
+        assertEquals("08:00", schedule.get("startTime").asText());
+        assertEquals("ANM Burger Buds", schedule.get("truck").get("name").asText());
+        assertEquals(1, schedule.get("truck").size());
+        assertNull(schedule.get("location"));
+    }
+
+    // Test that a field naming an association returns all of its fields, for lists and single trucks
+    @Test
+    public void fieldsSelectWholeAssociationsAndSingleTrucks() throws Exception {
+        JsonNode schedule = objectMapper.readTree(body(service.getSchedule(null, null, null, null, null, null, null, "location", null))).get(0);
+        assertEquals(1, schedule.size());
+        assertEquals(8, schedule.get("location").size());
+
+        JsonNode truck = objectMapper.readTree(body(service.getTruckById(1, "name")));
+        assertEquals("{\"name\":\"ANM Burger Buds\"}", truck.toString());
+        assertEquals(404, service.getTruckById(9999, "name").getStatus());
+
+        JsonNode trucks = objectMapper.readTree(body(service.getAllTrucks(null, null, "id", null)));
+        assertEquals(1, trucks.get(0).size());
+    }
+
+    // Test that unknown fields are rejected
+    @Test
+    public void unknownFieldReturns400() {
+        assertEquals(400, service.getAllTrucks(null, null, "id,password", null).getStatus());
+        assertEquals(400, service.getSchedule(null, null, null, null, null, null, null, "truck.schedules", null).getStatus());
+        assertEquals(400, service.getTruckById(1, ",").getStatus());
+    }
+
+    // Test that ids returns the trucks in the order asked for and lists the IDs not found
+    @Test
+    public void getTrucksByIdsKeepsOrderAndReportsMissing() throws Exception {
+        int second = dao(Truck.class).insert(new Truck("Ids Truck", "Test Food"));
+
+        Response response = service.getAllTrucks(null, null, null, second + ",9999,1," + second);
+
+        // Verify the order, the duplicate returned once, and the missing ID
+        assertEquals(200, response.getStatus());
+        JsonNode trucks = objectMapper.readTree(body(response));
+        assertEquals(2, trucks.size());
+        assertEquals("Ids Truck", trucks.get(0).get("name").asText());
+        assertEquals("ANM Burger Buds", trucks.get(1).get("name").asText());
+        assertEquals("9999", response.getHeaderString("X-Missing-Ids"));
+        assertNull(response.getHeaderString("X-Next-Cursor"));
+    }
+
+    // Test that a multi-get is one query, and trucks already cached need none
+    @Test
+    public void getByIdsUsesOneQuery() {
+        int second = dao(Truck.class).insert(new Truck("Ids Truck", "Test Food"));
+        String ids = "1," + second;
+
+        assertEquals(1, statementsFor(() -> service.getSchedule(null, null, null, null, null, null, null, null, "1,2")));
+        assertEquals(1, statementsFor(() -> service.getAllTrucks(null, null, null, ids)));
+
+        // Verify the second read of the same trucks comes from the second-level cache
+        Statistics statistics = SessionFactoryProvider.getSessionFactory().getStatistics();
+        long statements = statistics.getPrepareStatementCount();
+        service.getAllTrucks(null, null, null, ids);
+        assertEquals(statements, statistics.getPrepareStatementCount());
+    }
+
+    // Test that bad, too many or combined ids are rejected
+    @Test
+    public void badIdsReturn400() {
+        assertEquals(400, service.getAllTrucks(null, null, null, "1,x").getStatus());
+        assertEquals(400, service.getAllTrucks(null, null, null, ",").getStatus());
+        assertEquals(400, service.getAllTrucks(2, null, null, "1").getStatus());
+        assertEquals(400, service.getSchedule("2026-05-07", null, null, null, null, null, null, null, "1").getStatus());
+        String tooMany = IntStream.rangeClosed(1, 101).mapToObj(String::valueOf).collect(Collectors.joining(","));
+        assertEquals(400, service.getSchedule(null, null, null, null, null, null, null, null, tooMany).getStatus());
+    }
+
+    // Test that an empty bulk request is rejected
+    @Test
+    public void addTrucksBulkEmptyReturns400() {
+        Response response = service.addTrucks(List.of());
+        assertEquals(400, response.getStatus());
+    }
+
+    // Counts the SQL statements prepared while running a request, starting from empty caches
+    private long statementsFor(Supplier<Response> request) {
+        SessionFactoryProvider.getSessionFactory().getCache().evictAllRegions();
+        Statistics statistics = SessionFactoryProvider.getSessionFactory().getStatistics();
+        statistics.clear();
+        Response response = request.get();
+        assertEquals(200, response.getStatus());
+        body(response);
+        return statistics.getPrepareStatementCount();
+    }
+
+    // Writes a response body the way Jersey would, running a streamed body's query
+    private String body(Response response) {
+        Object entity = response.getEntity();
+        try {
+            if (entity instanceof StreamingOutput) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                ((StreamingOutput) entity).write(out);
+                return out.toString(StandardCharsets.UTF_8);
+            }
+            if (entity instanceof byte[]) return new String((byte[]) entity, StandardCharsets.UTF_8);
+            return objectMapper.writeValueAsString(entity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -2,25 +2,40 @@ package com.foodtruck.testsupport;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Properties;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /** * Provides access to the database * Created on 8/31/16. * * @author pwaite * @author Alex M - Fall 2019 - added multi-line sql capabilitygit */
 public class Database {
 
     private static final Logger logger = LogManager.getLogger(Database.class);
 
+    /** The table name of a CREATE TABLE statement */
+    private static final Pattern CREATE_TABLE =
+            Pattern.compile("(?i)^CREATE\\s+TABLE\\s+(?:IF\\s+NOT\\s+EXISTS\\s+)?`?(\\w+)`?");
+
     // singleton instance
     private static Database instance = new Database();
 
     private Properties properties;
     private Connection connection;
 
+    /** Scripts run in full since this JVM started; later resets only empty and refill their tables */
+    private final Set<String> created = new HashSet<>();
+
     /** private constructor prevents instantiating this class anywhere else */
     private Database() {
         loadProperties();
@@ -53,7 +68,7 @@ public class Database {
         try {
             Class.forName(properties.getProperty("hibernate.connection.driver_class"));
         } catch (ClassNotFoundException e) {
-            throw new Exception("MySQL Driver not found", e);
+            throw new Exception("Database driver not found", e);
         }
 
         String url = properties.getProperty("hibernate.connection.url");
@@ -80,35 +95,152 @@ public class Database {
     /**
      * Run the SQL file.
      *
-     * @param sqlFile the SQL file to be read and executed line by line
+     * @param sqlFile the SQL file to be read and executed statement by statement
      */
     public void runSQL(String sqlFile) {
-        ClassLoader classloader = Thread.currentThread().getContextClassLoader();
-
-        try (BufferedReader br = new BufferedReader(
-                new InputStreamReader(classloader.getResourceAsStream(sqlFile)))) {
-
-            connect();
-            Statement stmt = connection.createStatement();
-            String sql = "";
-
-            while (br.ready()) {
-                char inputValue = (char) br.read();
+        try {
+            execute(statements(read(sqlFile)));
+            created.add(sqlFile);
+        } catch (SQLException se) {
+            logger.error("SQL Exception while executing file: " + sqlFile, se);
+        } catch (Exception e) {
+            logger.error("Exception while reading file: " + sqlFile, e);
+        }
+    }
 
-                if (inputValue == ';') {
-                    stmt.executeUpdate(sql.trim());
-                    sql = "";
-                } else {
-                    sql += inputValue;
-                }
+    /**
+     * Puts the database back to the state a script leaves it in, cheaply.
+     * The first time in this JVM the whole script runs, dropping and creating its tables. After that
+     * the tables it creates are truncated, which also restarts their ids, and only its INSERT
+     * statements run again.
+     *
+     * @param sqlFile the SQL file that drops, creates and fills the tables
+     */
+    public void reset(String sqlFile) {
+        if (!created.contains(sqlFile)) {
+            runSQL(sqlFile);
+            return;
+        }
+        try {
+            List<String> tables = new ArrayList<>();
+            List<String> inserts = new ArrayList<>();
+            for (String statement : statements(read(sqlFile))) {
+                Matcher table = CREATE_TABLE.matcher(statement);
+                if (table.find()) tables.add(table.group(1));
+                else if (statement.regionMatches(true, 0, "INSERT", 0, 6)) inserts.add(statement);
             }
-
+            List<String> reset = truncate(tables);
+            reset.addAll(inserts);
+            execute(reset);
         } catch (SQLException se) {
-            logger.error("SQL Exception while executing file: " + sqlFile, se);
+            logger.error("SQL Exception while resetting from file: " + sqlFile, se);
         } catch (Exception e) {
             logger.error("Exception while reading file: " + sqlFile, e);
+        }
+    }
+
+    /**
+     * Builds the statements that empty the given tables and restart their ids, with foreign key
+     * checks off so the order does not matter.
+     *
+     * @param tables the tables to empty
+     * @return the statements for this database
+     */
+    private List<String> truncate(List<String> tables) {
+        boolean h2 = properties.getProperty("hibernate.connection.url", "").startsWith("jdbc:h2:");
+        List<String> statements = new ArrayList<>();
+        statements.add(h2 ? "SET REFERENTIAL_INTEGRITY FALSE" : "SET FOREIGN_KEY_CHECKS = 0");
+        for (String table : tables) {
+            // MySQL's TRUNCATE always restarts AUTO_INCREMENT; H2 has to be asked to
+            statements.add("TRUNCATE TABLE " + table + (h2 ? " RESTART IDENTITY" : ""));
+        }
+        statements.add(h2 ? "SET REFERENTIAL_INTEGRITY TRUE" : "SET FOREIGN_KEY_CHECKS = 1");
+        return statements;
+    }
+
+    /**
+     * Runs statements in order on a new connection.
+     *
+     * @param statements the SQL statements
+     * @throws Exception if the connection or a statement fails
+     */
+    private void execute(List<String> statements) throws Exception {
+        try {
+            connect();
+            try (Statement stmt = connection.createStatement()) {
+                for (String sql : statements) {
+                    stmt.executeUpdate(sql);
+                }
+            }
         } finally {
             disconnect();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Reads a file from the classpath.
+     *
+     * @param sqlFile the file name
+     * @return the file's text
+     * @throws IOException if the file is missing or cannot be read
+     */
+    private static String read(String sqlFile) throws IOException {
+        ClassLoader classloader = Thread.currentThread().getContextClassLoader();
+        try (InputStream in = classloader.getResourceAsStream(sqlFile)) {
+            if (in == null) throw new IOException(sqlFile + " not found on the classpath");
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Splits a script into statements at each semicolon, leaving out comments. Semicolons and comment
+     * markers inside quoted strings or names are kept as they are.
+     *
+     * @param script the SQL text
+     * @return the statements, trimmed, without empty ones
+     */
+    static List<String> statements(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder sql = new StringBuilder();
+        int length = script.length();
+        for (int i = 0; i < length; i++) {
+            char c = script.charAt(i);
+            char next = i + 1 < length ? script.charAt(i + 1) : '\0';
+            if (c == '\'' || c == '"' || c == '`') {
+                // Copy the quoted text; a doubled quote is an escaped quote
+                int end = i + 1;
+                while (end < length) {
+                    if (script.charAt(end) == c) {
+                        if (end + 1 < length && script.charAt(end + 1) == c) {
+                            end += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    end++;
+                }
+                sql.append(script, i, Math.min(end + 1, length));
+                i = end;
+            } else if (c == '-' && next == '-') {
+                while (i < length && script.charAt(i) != '\n') i++;
+                sql.append('\n');
+            } else if (c == '/' && next == '*') {
+                int end = script.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 1;
+                sql.append(' ');
+            } else if (c == ';') {
+                add(statements, sql);
+            } else {
+                sql.append(c);
+            }
+        }
+        add(statements, sql);
+        return statements;
+    }
+
+    private static void add(List<String> statements, StringBuilder sql) {
+        String statement = sql.toString().trim();
+        if (!statement.isEmpty()) statements.add(statement);
+        sql.setLength(0);
+    }
+}
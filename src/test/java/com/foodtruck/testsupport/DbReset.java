@@ -1,6 +1,9 @@
 package com.foodtruck.testsupport;
 
+import com.foodtruck.index.SyncedIndex;
 import com.foodtruck.persistence.GenericDao;
+import com.foodtruck.persistence.SessionFactoryProvider;
+import com.foodtruck.persistence.TableVersions;
 import org.junit.Before;
 
 /**
@@ -10,7 +13,12 @@ public abstract class DbReset {
     @Before
     public void setUp() {
         Database database = Database.getInstance();
-        database.runSQL("cleanDB.sql");
+        // Truncates and refills the tables; only the first test in each JVM drops and creates them
+        database.reset("cleanDB.sql");
+        // The script bypasses Hibernate, so anything cached from the previous test is now stale
+        SessionFactoryProvider.getSessionFactory().getCache().evictAllRegions();
+        SyncedIndex.clearAll();
+        TableVersions.invalidateAll();
     }
 
     /**
@@ -0,0 +1,81 @@
+package com.foodtruck.testsupport;
+
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.glassfish.jersey.server.ContainerResponse;
+import org.glassfish.jersey.server.ResourceConfig;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends requests through a Jersey application in memory, without a server, so tests see
+ * what filters, interceptors and request headers do to a response.
+ */
+public class InMemoryApi {
+
+    private static final URI BASE = URI.create("http://localhost/api/");
+
+    private final ApplicationHandler handler;
+
+    /**
+     * @param config The application to send requests to
+     */
+    public InMemoryApi(ResourceConfig config) {
+        this.handler = new ApplicationHandler(config);
+    }
+
+    /**
+     * Sends a GET request.
+     *
+     * @param path    Path and query under the application root, e.g. "trucks?limit=5"
+     * @param headers Request header names and values, alternating
+     * @return The response, with the body as Jersey wrote it
+     */
+    public Reply get(String path, String... headers) throws Exception {
+        ContainerRequest request = new ContainerRequest(BASE, BASE.resolve(path), "GET", null,
+                new MapPropertiesDelegate());
+        for (int i = 0; i + 1 < headers.length; i += 2) request.header(headers[i], headers[i + 1]);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        ContainerResponse response = handler.apply(request, body).get(10, TimeUnit.SECONDS);
+        return new Reply(response, body.toByteArray());
+    }
+
+    /**
+     * A response and the bytes written for its body.
+     */
+    public static class Reply {
+        private final ContainerResponse response;
+        private final byte[] body;
+
+        Reply(ContainerResponse response, byte[] body) {
+            this.response = response;
+            this.body = body;
+        }
+
+        public int getStatus() {
+            return response.getStatus();
+        }
+
+        public String getHeaderString(String name) {
+            return response.getHeaderString(name);
+        }
+
+        /**
+         * @return the body bytes as sent, still compressed if they were
+         */
+        public byte[] getBody() {
+            return body;
+        }
+
+        /**
+         * @return the body decoded as UTF-8
+         */
+        public String getText() {
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+}